@@ -0,0 +1,31 @@
+package com.silence.vmy;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>run the benchmarks with the gc profiler, gc.alloc.rate.norm (bytes per op) shows allocation regressions</p>
+ * <p>java -cp target/benchmarks.jar com.silence.vmy.BenchmarkRunner [regex of benchmarks]</p>
+ */
+public class BenchmarkRunner {
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+      .include(args.length > 0 ? args[0] : "com.silence.vmy.*Benchmark")
+      .addProfiler(GCProfiler.class)
+      .warmupIterations(5)
+      .warmupTime(TimeValue.seconds(1))
+      .measurementIterations(5)
+      .measurementTime(TimeValue.seconds(1))
+      .timeUnit(TimeUnit.MICROSECONDS)
+      .forks(1)
+      .jvmArgsAppend("-Xms1g", "-Xmx1g", "--add-modules", "jdk.incubator.vector")
+      .build();
+    new Runner(options).run();
+  }
+}
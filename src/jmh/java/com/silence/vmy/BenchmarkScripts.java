@@ -0,0 +1,71 @@
+package com.silence.vmy;
+
+/**
+ * scripts of the benchmarks
+ */
+final class BenchmarkScripts {
+  private BenchmarkScripts(){}
+
+  // 1 + 2 * 3 - 4 + 5 * 6 ..., both scanners can read it
+  static String expression(int terms){
+    StringBuilder expression = new StringBuilder("1");
+    String[] ops = {" + ", " * ", " - "};
+    for(int i=1; i<terms; i++)
+      expression.append(ops[i % ops.length]).append(i % 97 + 1);
+    return expression.toString();
+  }
+
+  // declarations and assignments of variables, a while loop each 10 statements
+  static String statements(int count){
+    StringBuilder script = new StringBuilder();
+    for(int i=0; i<count; i++){
+      if(i % 10 == 9){
+        String name = name(i - 1);
+        script.append("while(").append(name).append(" > 0) {\n  ")
+          .append(name).append(" = ").append(name).append(" - 1\n}\n");
+      }else
+        script.append("let ").append(name(i)).append(" = ").append(i).append(" * 2 + 1\n");
+    }
+    return script.toString();
+  }
+
+  // identifiers have no digits, like bench_ba
+  private static String name(int i){
+    StringBuilder name = new StringBuilder();
+    do{
+      name.append((char) ('a' + i % 26));
+      i /= 26;
+    }while(i > 0);
+    return "bench_" + name;
+  }
+
+  static final String Loop = """
+      let bench_i = 0
+      let bench_sum = 0
+      while(bench_i < 10000) {
+        bench_sum = bench_sum + bench_i
+        bench_i = bench_i + 1
+      }
+      """;
+
+  static final String StringConcat = """
+      let bench_s = ""
+      let bench_i = 0
+      while(bench_i < 1000) {
+        bench_s = bench_s ++ "x"
+        bench_i = bench_i + 1
+      }
+      """;
+
+  static final String Calls = """
+      fn bench_add(a, b) {
+        return a + b
+      }
+      let bench_i = 0
+      let bench_sum = 0
+      while(bench_i < 10000) {
+        bench_sum = bench_add(bench_sum, bench_i)
+        bench_i = bench_i + 1
+      }
+      """;
+}
@@ -0,0 +1,57 @@
+package com.silence.vmy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * dispatch of {@link BinaryOps} by operator name, like the evaluator does for each binary node
+ */
+@State(Scope.Benchmark)
+public class BinaryOpsBenchmark {
+
+  @Param({"+", "*", "<"})
+  String op;
+
+  Object int_a;
+  Object int_b;
+  Object double_a;
+  Object double_b;
+  Object long_a;
+
+  @Setup
+  public void setup(){
+    int_a = 12345;
+    int_b = 678;
+    double_a = 12345.5;
+    double_b = 678.25;
+    long_a = 1L << 40;
+  }
+
+  @Benchmark
+  public Object int_int(){
+    return BinaryOps.OpsMapper.get(op).apply(int_a, int_b);
+  }
+
+  @Benchmark
+  public Object double_double(){
+    return BinaryOps.OpsMapper.get(op).apply(double_a, double_b);
+  }
+
+  @Benchmark
+  public Object int_double(){
+    return BinaryOps.OpsMapper.get(op).apply(int_a, double_b);
+  }
+
+  @Benchmark
+  public Object long_int(){
+    return BinaryOps.OpsMapper.get(op).apply(long_a, int_b);
+  }
+
+  @Benchmark
+  public Object string_concat(){
+    return BinaryOps.OpsMapper.get(Identifiers.Concat).apply("left", "right");
+  }
+}
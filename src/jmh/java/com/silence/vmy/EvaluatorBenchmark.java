@@ -0,0 +1,66 @@
+package com.silence.vmy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>the evaluators on trees built once</p>
+ * <p>
+ *   VmyTreeEvaluator only knows expressions, it's compared with VariableStoreTreeEvaluator on an expression,
+ *   loops, string concat and calls are run by VariableStoreTreeEvaluator in a new frame each time
+ * </p>
+ */
+public class EvaluatorBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Expression {
+    AST.VmyAST tree;
+
+    @Setup
+    public void setup(){
+      tree = AST.build(Scanners.scan(BenchmarkScripts.expression(64)));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Script {
+    @Param({"Loop", "StringConcat", "Calls"})
+    String script;
+
+    AST.VmyAST tree;
+    BuiltinOps builtins;
+
+    @Setup
+    public void setup() throws Exception {
+      String source = switch (script) {
+        case "Loop" -> BenchmarkScripts.Loop;
+        case "StringConcat" -> BenchmarkScripts.StringConcat;
+        default -> BenchmarkScripts.Calls;
+      };
+      builtins = BuiltinOps.builtinOps();
+      try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(source, false)){
+        tree = AST.check(AST.build(scanner), new Global(builtins));
+      }
+    }
+  }
+
+  @Benchmark
+  public Object expression_vmy_tree_evaluator(Expression expression){
+    return AST.defaultTreeEvaluator().eval(expression.tree);
+  }
+
+  @Benchmark
+  public Object expression_variable_store_evaluator(Expression expression){
+    return AST.evaluator(Global.getInstance()).eval(expression.tree);
+  }
+
+  @Benchmark
+  public Object script_variable_store_evaluator(Script script){
+    Global global = new Global(script.builtins);
+    AST.evaluator(global).eval(script.tree);
+    return global;
+  }
+}
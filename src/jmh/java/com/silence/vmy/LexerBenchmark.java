@@ -0,0 +1,39 @@
+package com.silence.vmy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * the old string scanner ({@link Scanners}) and {@link Scripts.FileInputScanner} on the same expression
+ */
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+
+  // count of terms in the expression
+  @Param({"16", "1024"})
+  int terms;
+
+  String source;
+
+  @Setup
+  public void setup(){
+    source = BenchmarkScripts.expression(terms);
+  }
+
+  @Benchmark
+  public Object scanners(){
+    return Scanners.scan(source);
+  }
+
+  @Benchmark
+  public void file_input_scanner(Blackhole blackhole) throws Exception {
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(source, false)){
+      while(scanner.hasNext())
+        blackhole.consume(scanner.next());
+    }
+  }
+}
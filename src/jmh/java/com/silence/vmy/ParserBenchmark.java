@@ -0,0 +1,32 @@
+package com.silence.vmy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * AST.build of a small script and of a very large one, lexing included, the scanner is lazy
+ */
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+  // count of statements of the script
+  @Param({"10", "10000"})
+  int statements;
+
+  String source;
+
+  @Setup
+  public void setup(){
+    source = BenchmarkScripts.statements(statements);
+  }
+
+  @Benchmark
+  public Object build() throws Exception {
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(source, false)){
+      return AST.build(scanner);
+    }
+  }
+}
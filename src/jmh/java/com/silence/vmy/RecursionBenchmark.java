@@ -0,0 +1,60 @@
+package com.silence.vmy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * a deep tail recursion compared with the same loop written by while, both are functions declared in {@link Global}
+ */
+@State(Scope.Benchmark)
+public class RecursionBenchmark {
+
+  static final String Recursion = """
+      fn bench_recursion(n, acc) {
+        if(n == 0) {
+          return acc
+        }
+        return bench_recursion(n - 1, acc + 1)
+      }
+      """;
+
+  static final String Loop = """
+      fn bench_loop(n) {
+        let acc = 0
+        while(n > 0) {
+          acc = acc + 1
+          n = n - 1
+        }
+        return acc
+      }
+      """;
+
+  @Param({"100000"})
+  int depth;
+
+  Callable recursion;
+  Callable loop;
+
+  @Setup
+  public void setup(){
+    AST.Evaluator evaluator = AST.variableStoreTreeEvaluator();
+    Eval.eval(Recursion, evaluator);
+    Eval.eval(Loop, evaluator);
+    FunctionSupport.FunctionTable functions = Global.getInstance().functions();
+    recursion = functions.get("bench_recursion", 2).target();
+    loop = functions.get("bench_loop", 1).target();
+  }
+
+  @Benchmark
+  public Object tail_recursion(){
+    return recursion.call(depth, 0);
+  }
+
+  @Benchmark
+  public Object while_loop(){
+    return loop.call(depth);
+  }
+}
@@ -1,5 +1,10 @@
 package com.silence.vmy;
 
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
@@ -8,13 +13,15 @@ import java.util.function.Supplier;
 public class AST {
   private AST(){}
 
-  static interface ASTNode{}
+  // nodes are serializable, a tree can be saved in snapshot
+  static interface ASTNode extends Serializable{}
   static interface Tree{}
   static interface Evaluator{
     Object eval(Tree tree);
   }
 
   private static class ValNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
     final Number value;
     public ValNode(Number _val){
       value = _val;
@@ -22,17 +29,22 @@ public class AST {
   }
 
   private static class CommonNode implements ASTNode{
+    private static final long serialVersionUID = 1L;
     final String OP;
+    // resolved once, null if the op isn't supported
+    final BinaryOps op;
     ASTNode left;
     ASTNode right;
     public CommonNode(final String _op, final ASTNode _left, final ASTNode _right){
       OP = _op;
+      op = BinaryOps.OpsMapper.get(_op);
       left = _left;
       right = _right;
     }
   }
 
   private static class StringLiteral extends LiteralNode{
+    private static final long serialVersionUID = 1L;
     private final String value;
 
     public StringLiteral(String value) {
@@ -47,6 +59,7 @@ public class AST {
   }
 
   private static class BoolLiteral extends LiteralNode{
+    private static final long serialVersionUID = 1L;
     final Boolean value;
     public BoolLiteral(Boolean _value) {
       super(LiteralKind.Bool.ordinal());
@@ -60,10 +73,11 @@ public class AST {
   }
 
   private static class NumberLiteral extends LiteralNode {
+    private static final long serialVersionUID = 1L;
     final Number val;
 
     public NumberLiteral(Number _number){
-      super( _number instanceof Integer ? LiteralKind.Int.ordinal() : LiteralKind.Double.ordinal());
+      super( Numbers.is_integer(_number) ? LiteralKind.Int.ordinal() : LiteralKind.Double.ordinal());
       val = _number;
     }
     @Override
@@ -72,6 +86,7 @@ public class AST {
     }
   }
   private static abstract class LiteralNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
     private final int tag;
     public LiteralNode(int _tag){
       tag = _tag;
@@ -89,13 +104,16 @@ public class AST {
    * <p>print(a)</p>
    */
   private static class BlockNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
     List<ASTNode> process;
     public BlockNode(List<ASTNode> _process){
-      process = _process;
+      // the evaluator walks it by index
+      process = _process instanceof RandomAccess ? _process : new ArrayList<>(_process);
     }
   }
 
   private static class WhileLoop extends ConditionNode {
+    private static final long serialVersionUID = 1L;
     public WhileLoop(ASTNode _cond, BlockNode _body){
       super(_cond, _body);
     }
@@ -114,8 +132,11 @@ public class AST {
   //      let a : Type = 1
   //      a = 2
   private static class AssignNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
     ASTNode variable;
     ASTNode expression;
+    // types and mutability are proved by TypeChecker, no need to check them when evaluating
+    boolean checked;
 
     public AssignNode(ASTNode _variable, ASTNode expr){
       variable = _variable;
@@ -125,14 +146,45 @@ public class AST {
 
   // node for Identifier , like variable-name/function-name ...
   private static class IdentifierNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
     final String value;
+    // id of the interned name, ids are of the process, so it's interned again for a restored tree
+    private transient int symbol;
     public IdentifierNode(String _val){
+      this(_val, 0);
+    }
+    public IdentifierNode(Token token){
+      this(token.value, token.symbol);
+    }
+    private IdentifierNode(String _val, int _symbol){
       value = _val;
+      symbol = _symbol;
+    }
+
+    // 0 if the name isn't interned, the table is full, then -1 is kept so it's not interned again
+    int symbol(){
+      if(symbol == 0){
+        final int id = Symbols.intern(value);
+        symbol = id == 0 ? -1 : id;
+      }
+      return Math.max(symbol, 0);
+    }
+  }
+
+  // element of an array, like : a[i]
+  private static class IndexNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    ASTNode target;
+    ASTNode index;
+    public IndexNode(ASTNode _target, ASTNode _index){
+      target = _target;
+      index = _index;
     }
   }
 
   // node for Declaration, like let a : Type , val a : Type
   private static class DeclareNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
     final String declare;
     final String type;
     final IdentifierNode identifier;
@@ -148,7 +200,8 @@ public class AST {
   }
 
   private static class ConditionNode implements ASTNode {
-    final ASTNode condition;
+    private static final long serialVersionUID = 1L;
+    ASTNode condition;
     final BlockNode body;
     public ConditionNode(ASTNode _condition, BlockNode _body){
       condition = _condition;
@@ -157,9 +210,10 @@ public class AST {
   }
 
   private static class IfElse implements ASTNode {
+    private static final long serialVersionUID = 1L;
     final ConditionNode TheIf;
     final List<ConditionNode> Elif;
-    final ASTNode Else;
+    ASTNode Else;
     public IfElse(ConditionNode _if, List<ConditionNode> _else_conditions, ASTNode _else){
       TheIf = Objects.requireNonNull(_if);
       Elif = _else_conditions;
@@ -169,25 +223,133 @@ public class AST {
 
   // call expression , it should be like : print("print")
   private static class CallNode implements ASTNode{
+    private static final long serialVersionUID = 1L;
     final String identifier;
     final ListExpression params;
+    // resolved function cache of this call expression
+    final FunctionSupport.CallSite call_site;
     public CallNode(String _identifier, ListExpression _params){
       identifier = _identifier;
       params = _params;
+      call_site = new FunctionSupport.CallSite(_identifier);
+    }
+  }
+
+  // the declared function (or null if not declared) of a call in the function table of an evaluator at version
+  private record DeclaredCache(
+    int version,
+    FunctionSupport.Declared declared
+  ) {}
+
+  // function declaration, like :
+  //      fn add(a, b) {
+  //        return a + b
+  //      }
+  // params and local variables are stored in slots of the frame, slots 0 until params.size() are params
+  private static class FunctionNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    final String name;
+    final List<String> params;
+    final BlockNode body;
+    // count of slots of the frame
+    int slots;
+    // declared type of each slot, null means any
+    VmyType[] slot_types;
+    boolean[] slot_mutable;
+    public FunctionNode(String _name, List<String> _params, BlockNode _body){
+      name = _name;
+      params = _params;
+      body = _body;
+    }
+  }
+
+  // counted loop, like : for i in 0..10 { print(i) }, the end is excluded
+  // the variable is a val in slot of the frame, the range is evaluated once before the loop
+  private static class ForRange implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    final String name;
+    ASTNode start;
+    ASTNode end;
+    final BlockNode body;
+    // slot of the variable, set by SlotResolver
+    int slot;
+    public ForRange(String _name, ASTNode _start, ASTNode _end, BlockNode _body){
+      name = _name;
+      start = _start;
+      end = _end;
+      body = _body;
+    }
+  }
+
+  // a statement out of functions that runs in a frame of its own, like a top level for loop
+  private static class ScopeNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    final FunctionNode frame;
+    public ScopeNode(FunctionNode _frame){
+      frame = _frame;
+    }
+  }
+
+  // return expression, like : return a + b
+  private static class ReturnNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    ASTNode expression;
+    public ReturnNode(ASTNode _expression){
+      expression = _expression;
+    }
+
+    // return a call can reuse the frame of current function
+    boolean is_tail_call(){
+      return expression instanceof CallNode;
+    }
+  }
+
+  // import of a module, like : import "lib/math.vmy", the path is resolved by the importing script
+  private static class ImportNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    final String path;
+    public ImportNode(String _path){
+      path = _path;
+    }
+  }
+
+  // a variable in function frame, resolved from IdentifierNode
+  private static class LocalNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    final int slot;
+    final String name;
+    public LocalNode(int _slot, String _name){
+      slot = _slot;
+      name = _name;
+    }
+  }
+
+  // declaration of a variable in function frame, resolved from DeclareNode
+  private static class LocalDeclareNode implements ASTNode {
+    private static final long serialVersionUID = 1L;
+    final int slot;
+    final DeclareNode declaration;
+    public LocalDeclareNode(int _slot, DeclareNode _declaration){
+      slot = _slot;
+      declaration = _declaration;
     }
   }
 
   // a list expression should be like this below:
   // a, b, c  or print(a, b, c)
   private static class ListExpression implements ASTNode {
-    final List<ASTNode> elements;
+    private static final long serialVersionUID = 1L;
+    List<ASTNode> elements;
     public ListExpression(List<ASTNode> _els){
       elements = _els;
     }
   }
 
-  static class VmyAST implements Tree{
+  static class VmyAST implements Tree, Serializable{
+    private static final long serialVersionUID = 1L;
     private ASTNode root;
+    // name of the script, for events
+    private transient String name;
   }
 
   // main for support old version test
@@ -221,6 +383,9 @@ public class AST {
 
   // new version
   public static VmyAST build(Scanner scanner){
+    final long start = VmyMetrics.Enabled ? System.nanoTime() : 0;
+    final VmyEvents.Parse event = new VmyEvents.Parse();
+    event.begin();
     TokenHistoryRecorder recorder = new FixedSizeCapabilityTokenRecorder(3);
     scanner.register(recorder, false);
     Stack<String> operatorStack = new Stack<>();
@@ -230,10 +395,57 @@ public class AST {
       handler.handle(scanner.next(), scanner, operatorStack, nodesStack);
     }
     VmyAST ast = new VmyAST();
-    ast.root = merge_linear_nodes(nodesStack);
+    ast.root = frame_top_level(merge_linear_nodes(nodesStack));
+    // the scanner is lazy, the time of parsing includes lexing
+    ast.name = scanner.name();
+    if(VmyMetrics.Enabled)
+      VmyMetrics.parsed(count_nodes(ast.root), System.nanoTime() - start);
+    event.end();
+    if(event.shouldCommit()){
+      event.script = ast.name;
+      event.nodes = count_nodes(ast.root);
+      event.commit();
+    }
     return ast;
   }
 
+  // count of nodes in the tree, for metrics
+  private static long count_nodes(ASTNode node){
+
+    if(Objects.isNull(node)) return 0;
+    long count = 1;
+    if(node instanceof BlockNode block){
+      for(ASTNode sub : block.process) count += count_nodes(sub);
+    } else if(node instanceof CommonNode common){
+      count += count_nodes(common.left) + count_nodes(common.right);
+    } else if(node instanceof AssignNode assignment){
+      count += count_nodes(assignment.variable) + count_nodes(assignment.expression);
+    } else if(node instanceof ConditionNode condition){
+      count += count_nodes(condition.condition) + count_nodes(condition.body);
+    } else if(node instanceof IfElse if_else){
+      count += count_nodes(if_else.TheIf) + count_nodes(if_else.Else);
+      for(ConditionNode elif : if_else.Elif) count += count_nodes(elif);
+    } else if(node instanceof CallNode call){
+      count += count_nodes(call.params);
+    } else if(node instanceof ListExpression list){
+      for(ASTNode element : list.elements) count += count_nodes(element);
+    } else if(node instanceof FunctionNode function){
+      count += count_nodes(function.body);
+    } else if(node instanceof ForRange loop){
+      count += count_nodes(loop.start) + count_nodes(loop.end) + count_nodes(loop.body);
+    } else if(node instanceof ScopeNode scope){
+      count += count_nodes(scope.frame.body);
+    } else if(node instanceof ReturnNode ret){
+      count += count_nodes(ret.expression);
+    } else if(node instanceof LocalDeclareNode declaration){
+      count += count_nodes(declaration.declaration);
+    } else if(node instanceof IndexNode index){
+      count += count_nodes(index.target) + count_nodes(index.index);
+    }
+    return count;
+
+  }
+
   private static ASTNode merge_linear_nodes(List<ASTNode> nodes){
 //    return new Process
     return new BlockNode(nodes);
@@ -328,6 +540,8 @@ public class AST {
     ) {
 
       nodesStack.add(
+        Objects.nonNull(token.number) ?
+        new ValNode( token.number ) :
         token.tag == Token.DOUBLE_V ? 
         new ValNode( Double.parseDouble(token.value) ) : 
         new ValNode( Integer.parseInt(token.value) )
@@ -349,7 +563,20 @@ public class AST {
     }
 
     private boolean is_operator(Token token){
-      return Identifiers.operatorCharacters.contains(token.value.charAt(0)) || Utils.equal(token.value, "=");
+      // a number literal has no text
+      return Objects.nonNull(token.value) &&
+        (Identifiers.operatorCharacters.contains(token.value.charAt(0)) || Utils.equal(token.value, "="));
+    }
+
+    // "-" after these tokens is the sign of a number, like : f(-1, -2), a = -1, return -1, for i in -1..-10
+    private boolean is_negative_prefix(Token token){
+      return is_operator(token) ||
+        Utils.equal(token.value, Identifiers.OpenParenthesis) ||
+        Utils.equal(token.value, Identifiers.OpenBracket) ||
+        Utils.equal(token.value, Identifiers.Comma) ||
+        Utils.equal(token.value, Identifiers.Return) ||
+        Utils.equal(token.value, Identifiers.In) ||
+        Utils.equal(token.value, Identifiers.Range);
     }
 
     @Override
@@ -370,19 +597,13 @@ public class AST {
             if(
               Objects.nonNull(recorder) && 
               recorder.has_history() && 
-              is_operator( recorder.get(1) )
+              is_negative_prefix( recorder.get(1) )
             ){
               // todo
               final Token should_be_number = remains.next();
-              final int flag = is_digit(should_be_number.value);
-              if(flag == 0)
+              if(Objects.isNull(should_be_number.number))
                 throw new ASTProcessingException("went error when process negative number");
-              String negative_value = token.value + should_be_number.value;
-              nodesStack.add(
-                flag == 1 ? 
-                new NumberLiteral(Integer.parseInt(negative_value) ) : 
-                new NumberLiteral( Double.parseDouble(negative_value) )
-              );
+              nodesStack.add(new NumberLiteral(Numbers.negate(should_be_number.number)));
               break;
             }
           default:
@@ -426,50 +647,7 @@ public class AST {
 
       } else if(/* a call like : print(1) */token.tag == Token.BuiltinCall){
 
-        Token should_be_open_parenthesis;
-        if(!remains.hasNext() || !operatorEquals(Identifiers.OpenParenthesis, (should_be_open_parenthesis = remains.next())))
-          throw new ASTProcessingException("builtin call " + token.value + " should be followed with open parenthesis '('");
-        if(operatorEquals(Identifiers.ClosingParenthesis, remains.peek())){
-          // no content, empty call like : print()
-          remains.next();
-          nodesStack.add(new CallNode(token.value, new ListExpression(List.of())));
-          return;
-        }
-
-        Token start_token = should_be_open_parenthesis;
-        while(
-            remains.hasNext() &&
-            (operatorStack.isEmpty() || !Utils.equal(start_token.value, Identifiers.ClosingParenthesis))
-        ){
-          travel_back_build(
-              start_token,
-              remains,
-              operatorStack,
-              nodesStack,
-              Set.of(Identifiers.Comma, Identifiers.ClosingParenthesis),
-              Set.of(Identifiers.Comma, Identifiers.OpenParenthesis)
-          );
-          start_token = new Token(-1, operatorStack.pop());
-        }
-
-        // last operators must be like this : ( , , )
-        if(!Utils.equal(start_token.value, Identifiers.ClosingParenthesis))
-          throw new ASTProcessingException("there is no closing parenthesis when handle builtin call " + token.value);
-        LinkedList<ASTNode> params = new LinkedList<>();
-        while(
-            !operatorStack.isEmpty() &&
-            !nodesStack.isEmpty() &&
-            !Utils.equal( operatorStack.peek(), Identifiers.OpenParenthesis)
-        ){
-          if(
-              !Utils.equal(operatorStack.pop(), Identifiers.Comma)
-          ) throw new ASTProcessingException("error when merge builtin call " + token.value);
-          // do merge
-          params.addFirst(nodesStack.pop());
-        }
-        operatorStack.pop(); // pop the "("
-        params.addFirst(nodesStack.pop());
-        nodesStack.add(new CallNode(token.value, new ListExpression(params)));
+        handle_call(token, remains, operatorStack, nodesStack);
 
       } else if(operatorEquals(Identifiers.MULTI, token) || operatorEquals(Identifiers.DIVIDE, token) ){
 
@@ -504,7 +682,9 @@ public class AST {
   }
 
   // represent an empty node
-  private static class EmptyNode implements ASTNode{}
+  private static class EmptyNode implements ASTNode{
+    private static final long serialVersionUID = 1L;
+  }
 
   private static abstract class Tool extends BaseHandler {
 
@@ -548,7 +728,7 @@ public class AST {
       // 4. merge all node between start_op and end_op
       // 5. add end_op to operation stack and add merged node to nodes stack
       operation_stack.add(token.value);
-      if(/* not content */end_op.contains(remains.peek().value)){
+      if(/* not content */is_end(end_op, remains.peek())){
         // add an empty node
         operation_stack.add(remains.next().value);
         nodes_stack.add(new EmptyNode());
@@ -557,10 +737,10 @@ public class AST {
 
       while(
           remains.hasNext() &&
-          !end_op.contains(remains.peek().value)
+          !is_end(end_op, remains.peek())
       ) recall(remains.next(), remains, operation_stack, nodes_stack);
 
-      if(!remains.hasNext() || !end_op.contains(remains.peek().value))
+      if(!remains.hasNext() || !is_end(end_op, remains.peek()))
         throw new ASTProcessingException("there is no end_op for " + com.silence.Utils.collection_to_string(end_op) );
       Token next_token = remove_end ? next_token = remains.next() : remains.peek();
       // merge node and add to node stack
@@ -574,6 +754,11 @@ public class AST {
       operation_stack.add(next_token.value);
     }
 
+    // a number literal has no text, it's never an end
+    private static boolean is_end(Set<String> end_op, Token token){
+      return Objects.nonNull(token.value) && end_op.contains(token.value);
+    }
+
     /**
      * merge node till satisfied end_condition
      * @param operation_stack
@@ -652,6 +837,57 @@ public class AST {
 
     }
 
+    // handle a call like :
+    // print(1, a)
+    // the token is the function name, next should be "("
+    protected void handle_call(Token token, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack){
+
+      Token should_be_open_parenthesis;
+      if(!remains.hasNext() || !operatorEquals(Identifiers.OpenParenthesis, (should_be_open_parenthesis = remains.next())))
+        throw new ASTProcessingException("builtin call " + token.value + " should be followed with open parenthesis '('");
+      if(operatorEquals(Identifiers.ClosingParenthesis, remains.peek())){
+        // no content, empty call like : print()
+        remains.next();
+        nodesStack.add(new CallNode(token.value, new ListExpression(List.of())));
+        return;
+      }
+
+      Token start_token = should_be_open_parenthesis;
+      while(
+          remains.hasNext() &&
+          (operatorStack.isEmpty() || !Utils.equal(start_token.value, Identifiers.ClosingParenthesis))
+      ){
+        travel_back_build(
+            start_token,
+            remains,
+            operatorStack,
+            nodesStack,
+            Set.of(Identifiers.Comma, Identifiers.ClosingParenthesis),
+            Set.of(Identifiers.Comma, Identifiers.OpenParenthesis)
+        );
+        start_token = new Token(-1, operatorStack.pop());
+      }
+
+      // last operators must be like this : ( , , )
+      if(!Utils.equal(start_token.value, Identifiers.ClosingParenthesis))
+        throw new ASTProcessingException("there is no closing parenthesis when handle builtin call " + token.value);
+      LinkedList<ASTNode> params = new LinkedList<>();
+      while(
+          !operatorStack.isEmpty() &&
+          !nodesStack.isEmpty() &&
+          !Utils.equal( operatorStack.peek(), Identifiers.OpenParenthesis)
+      ){
+        if(
+            !Utils.equal(operatorStack.pop(), Identifiers.Comma)
+        ) throw new ASTProcessingException("error when merge builtin call " + token.value);
+        // do merge
+        params.addFirst(nodesStack.pop());
+      }
+      operatorStack.pop(); // pop the "("
+      params.addFirst(nodesStack.pop());
+      nodesStack.add(new CallNode(token.value, new ListExpression(params)));
+    }
+
     /**
      * remove EOL till next token is not.
      * @param remains
@@ -663,8 +899,8 @@ public class AST {
   }
 
 
-  // handle name like variable name
-  private static class VariableNameHandler extends BaseHandler{
+  // handle name like variable name, or a call of declared function like : add(1, 2)
+  private static class VariableNameHandler extends Tool{
     @Override
     public boolean canHandle(Token token, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
       return token.tag == Token.Identifier &&
@@ -684,7 +920,35 @@ public class AST {
       Stack<ASTNode> nodesStack
     ) {
 
-      nodesStack.add(new IdentifierNode(token.value));
+      if(remains.hasNext() && operatorEquals(Identifiers.OpenParenthesis, remains.peek()))
+        handle_call(token, remains, operatorStack, nodesStack);
+      else
+        nodesStack.add(new IdentifierNode(token));
+      // index like : a[i], a[i][j], f(x)[i]
+      while(remains.hasNext() && operatorEquals(Identifiers.OpenBracket, remains.peek()))
+        handle_index(remains.next(), remains, operatorStack, nodesStack);
+
+    }
+
+    private void handle_index(Token open_bracket, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack){
+
+      final ASTNode target = nodesStack.pop();
+      if(remains.hasNext() && operatorEquals(Identifiers.ClosingBracket, remains.peek()))
+        throw new ASTProcessingException("index of array is empty");
+      travel_back_build(
+          open_bracket,
+          remains,
+          operatorStack,
+          nodesStack,
+          Set.of(Identifiers.ClosingBracket),
+          Set.of(Identifiers.OpenBracket)
+      );
+      // remove "[" and "]"
+      if(
+        !Utils.equal(operatorStack.pop(), Identifiers.ClosingBracket) ||
+        !Utils.equal(operatorStack.pop(), Identifiers.OpenBracket)
+      ) throw new ASTProcessingException("bracket process error");
+      nodesStack.add(new IndexNode(target, nodesStack.pop()));
 
     }
   }
@@ -705,6 +969,9 @@ public class AST {
           Utils.equal(token.value, Identifiers.True) ||
           Utils.equal(token.value, Identifiers.False)
       ) nodesStack.add(new BoolLiteral(Utils.equal( token.value, Identifiers.True)));
+      else if(/* number literal decoded by the scanner */
+          Objects.nonNull(token.number)
+      ) nodesStack.add(new NumberLiteral(token.number));
       else if(/* number literal : int or double */
           (digit_flag = is_digit(token.value)) != 0
       ){
@@ -713,8 +980,14 @@ public class AST {
             new NumberLiteral(Double.parseDouble(token.value))
         );
       } else /* string literal : "..." */
-        nodesStack.add(new StringLiteral(token.value.substring(1, token.value.length() - 1)));
+        nodesStack.add(new StringLiteral(literal(token)));
+
+    }
 
+    // chars between the quotes, identical short literals share one String
+    private static String literal(Token token){
+      final int symbol = token.symbol == 0 ? 0 : Symbols.intern(CharBuffer.wrap(token.value, 1, token.value.length() - 1));
+      return symbol != 0 ? Symbols.name(symbol) : token.value.substring(1, token.value.length() - 1);
     }
 
   }
@@ -737,7 +1010,8 @@ public class AST {
         nodesStack.isEmpty() ||
         (
           !((variable = nodesStack.pop()) instanceof DeclareNode) &&
-          !(variable instanceof IdentifierNode)
+          !(variable instanceof IdentifierNode) &&
+          !(variable instanceof IndexNode)
         )
       ) throw new ASTProcessingException("assignment has no variable or declare expression");
 
@@ -776,15 +1050,15 @@ public class AST {
 
       Token identifier;
       if((identifier = remains.next()).tag != Token.Identifier)
-        throw new ASTProcessingException("declaration has no right identifier " + identifier.value);
+        throw new ASTProcessingException("declaration has no right identifier " + identifier.text());
       if(remains.hasNext() && Objects.equals( remains.peek().value, Identifiers.Colon)){
         remains.next();
         if(remains.hasNext() && remains.peek().tag != Token.Identifier)
-          throw new ASTProcessingException(remains.peek().value + " is not a valid type");
+          throw new ASTProcessingException(remains.peek().text() + " is not a valid type");
         Token type = remains.next();
-        nodesStack.add(new DeclareNode(token.value, new IdentifierNode(identifier.value) , type.value));
+        nodesStack.add(new DeclareNode(token.value, new IdentifierNode(identifier) , type.value));
       }else
-        nodesStack.add(new DeclareNode(token.value, new IdentifierNode(identifier.value)));
+        nodesStack.add(new DeclareNode(token.value, new IdentifierNode(identifier)));
 
     }
   }
@@ -889,6 +1163,324 @@ public class AST {
     }
   }
 
+  /**
+   * counted loop, like :
+   * <p>for i in 0..n {</p>
+   * <p>  print(i)</p>
+   * <p>}</p>
+   */
+  private static class ForHandler extends Tool {
+
+    @Override
+    public boolean canHandle(Token token, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+      return token.tag == Token.Builtin && Utils.equal(token.value, Identifiers.For);
+    }
+
+    @Override
+    public void doHandle(Token token, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+
+      Token name;
+      if(
+        !remains.hasNext() ||
+        (name = remains.next()).tag != Token.Identifier ||
+        !Identifiers.identifiers.contains(name.value.charAt(0))
+      ) throw new ASTProcessingException("for loop has no variable (token start position " + token.pos + ")");
+      if(!remains.hasNext() || !Utils.equal(remains.next().value, Identifiers.In))
+        throw new ASTProcessingException("for " + name.value + " should be followed with 'in'");
+
+      ASTNode start = expression_till(Identifiers.Range, remains, operatorStack, nodesStack);
+      remains.next(); // remove ".."
+      ASTNode end = expression_till(Identifiers.OpenBrace, remains, operatorStack, nodesStack);
+
+      recall(remains.next(), remains, operatorStack, nodesStack);
+      BlockNode body = get_next_node_as_block_node_or_throw(
+          nodesStack,
+          () -> new ASTProcessingException("for loop should has body")
+      );
+      nodesStack.add(new ForRange(name.value, start, end, body));
+
+    }
+
+    // build the expression before the token {@code end}, like return, "for" is the mark in operator stack
+    private ASTNode expression_till(String end, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack){
+
+      final int nodes = nodesStack.size();
+      operatorStack.add(Identifiers.For);
+      while(
+        remains.hasNext() &&
+        remains.peek().tag != Token.NewLine &&
+        !Utils.equal(remains.peek().value, end)
+      ) recall(remains.next(), remains, operatorStack, nodesStack);
+
+      if(!remains.hasNext() || !Utils.equal(remains.peek().value, end) || nodesStack.size() <= nodes)
+        throw new ASTProcessingException("range of for loop should be like : for i in start..end {");
+      ASTNode the_value = nodesStack.pop();
+      while(!operatorStack.isEmpty() && !Objects.equals(operatorStack.peek(), Identifiers.For)){
+        the_value = mergeTwoNodes(nodesStack.pop(), the_value, operatorStack.pop());
+      }
+      operatorStack.pop();
+      return the_value;
+
+    }
+  }
+
+  /**
+   * import a module, like : import "lib/math.vmy",
+   * a relative path is relative to the directory of the importing script, or the working directory
+   */
+  private static class ImportHandler extends BaseHandler {
+
+    @Override
+    public boolean canHandle(Token token, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+      return token.tag == Token.Builtin && Utils.equal(token.value, Identifiers.Import);
+    }
+
+    @Override
+    public void doHandle(Token token, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+
+      Token path;
+      if(
+        !remains.hasNext() ||
+        (path = remains.next()).tag != Token.Literal ||
+        Objects.nonNull(path.number) ||
+        !path.value.startsWith("\"")
+      ) throw new ASTProcessingException("import should be like : import \"path/of/module.vmy\"");
+      if(remains.hasNext() && remains.peek().tag != Token.NewLine)
+        throw new ASTProcessingException("import should be the only statement of the line");
+
+      final Path script = Path.of(remains.name());
+      final Path base = Files.isRegularFile(script) ? script.toAbsolutePath().getParent() : Path.of("");
+      nodesStack.add(new ImportNode(
+        base.resolve(path.value.substring(1, path.value.length() - 1)).toAbsolutePath().normalize().toString()
+      ));
+
+    }
+  }
+
+  /**
+   * function declaration, like :
+   * <p>fn add(a : Int, b) {</p>
+   * <p>  return a + b</p>
+   * <p>}</p>
+   */
+  private static class FunctionHandler extends Tool {
+
+    @Override
+    public boolean canHandle(Token token, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+      return token.tag == Token.Builtin && Utils.equal(token.value, Identifiers.Function);
+    }
+
+    @Override
+    public void doHandle(Token token, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+
+      Token name;
+      if(!remains.hasNext() || (name = remains.next()).tag != Token.Identifier)
+        throw new ASTProcessingException("function declaration has no name (token start position " + token.pos + ")");
+      if(!remains.hasNext() || !operatorEquals(Identifiers.OpenParenthesis, remains.next()))
+        throw new ASTProcessingException("function " + name.value + " should be followed with open parenthesis '('");
+
+      // params, like : a, b : Int, c
+      List<String> params = new ArrayList<>();
+      List<String> param_types = new ArrayList<>();
+      while(remains.hasNext() && !operatorEquals(Identifiers.ClosingParenthesis, remains.peek())){
+        Token param = remains.next();
+        if(param.tag != Token.Identifier || !Identifiers.identifiers.contains(param.value.charAt(0)))
+          throw new ASTProcessingException("function " + name.value + " has invalid param " + param.text());
+        String type = null;
+        if(remains.hasNext() && operatorEquals(Identifiers.Colon, remains.peek())){
+          remains.next();
+          type = remains.next().value;
+        }
+        params.add(param.value);
+        param_types.add(type);
+        if(remains.hasNext() && operatorEquals(Identifiers.Comma, remains.peek()))
+          remains.next();
+      }
+      if(!remains.hasNext())
+        throw new ASTProcessingException("function " + name.value + " has no closing parenthesis");
+      remains.next(); // remove ")"
+
+      remove_end_of_line(remains);
+      if(!remains.hasNext() || !Utils.equal(remains.peek().value, Identifiers.OpenBrace))
+        throw new ASTProcessingException("function " + name.value + " should has body");
+      recall(remains.next(), remains, operatorStack, nodesStack);
+      BlockNode body = get_next_node_as_block_node_or_throw(
+          nodesStack,
+          () -> new ASTProcessingException("function " + name.value + " should has body")
+      );
+
+      nodesStack.add(new SlotResolver().resolve(new FunctionNode(name.value, params, body), param_types));
+
+    }
+  }
+
+  // handle return expression, like : return a + 1
+  private static class ReturnHandler extends BaseHandler {
+
+    @Override
+    public boolean canHandle(Token token, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+      return token.tag == Token.Builtin && Utils.equal(token.value, Identifiers.Return);
+    }
+
+    @Override
+    public void doHandle(Token token, Scanner remains, Stack<String> operatorStack, Stack<ASTNode> nodesStack) {
+
+      if(
+        !remains.hasNext() ||
+        remains.peek().tag == Token.NewLine ||
+        Utils.equal(remains.peek().value, Identifiers.ClosingBrace)
+      ){
+        nodesStack.add(new ReturnNode(null));
+        return;
+      }
+
+      // like assignment, take all till end of line as the value
+      operatorStack.add(token.value);
+      while(
+        remains.hasNext() &&
+        ( remains.peek().tag != Token.NewLine && !Utils.equal(remains.peek().value, Identifiers.ClosingBrace))
+      ) recall(remains.next(), remains, operatorStack, nodesStack);
+
+      if(nodesStack.isEmpty())
+        throw new ASTProcessingException("return has no value expression");
+      ASTNode the_value = nodesStack.pop();
+      while(!operatorStack.isEmpty() && !Objects.equals(operatorStack.peek(), Identifiers.Return)){
+        the_value = mergeTwoNodes(nodesStack.pop(), the_value, operatorStack.pop());
+      }
+      operatorStack.pop();
+      nodesStack.add(new ReturnNode(the_value));
+
+    }
+  }
+
+  /**
+   * give params and local variables of a function a slot in the frame,
+   * and replace the identifiers with {@link LocalNode}, then the evaluator can access them by index
+   */
+  private static class SlotResolver {
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<VmyType> types = new ArrayList<>();
+    private final List<Boolean> mutable = new ArrayList<>();
+
+    FunctionNode resolve(FunctionNode function, List<String> param_types){
+
+      for(int i=0; i<function.params.size(); i++){
+        String type = param_types.get(i);
+        declare(function.params.get(i), Objects.isNull(type) ? null : Utils.to_type(type), true);
+      }
+      resolve(function.body);
+      function.slots = types.size();
+      function.slot_types = types.toArray(new VmyType[0]);
+      function.slot_mutable = new boolean[mutable.size()];
+      for(int i=0; i<mutable.size(); i++)
+        function.slot_mutable[i] = mutable.get(i);
+      return function;
+
+    }
+
+    private int declare(String name, VmyType type, boolean is_mutable){
+
+      if(slots.containsKey(name))
+        throw new ASTProcessingException(name + " is declared, can't redeclare it!");
+      slots.put(name, types.size());
+      types.add(type);
+      mutable.add(is_mutable);
+      return types.size() - 1;
+
+    }
+
+    private ASTNode resolve(ASTNode node){
+
+      if(Objects.isNull(node)) return null;
+      if(node instanceof IdentifierNode identifier){
+        Integer slot = slots.get(identifier.value);
+        return Objects.isNull(slot) ? identifier : new LocalNode(slot, identifier.value);
+      } else if(node instanceof DeclareNode declaration){
+        return new LocalDeclareNode(
+            declare(
+              declaration.identifier.value,
+              Objects.isNull(declaration.type) ? null : Utils.to_type(declaration.type),
+              Utils.is_mutable(declaration.declare)
+            ),
+            declaration
+        );
+      } else if(node instanceof BlockNode block){
+        // the declarations in a block are only visible in it, the slots are not reused
+        Map<String, Integer> outer = new HashMap<>(slots);
+        List<ASTNode> process = new ArrayList<>(block.process.size());
+        for(ASTNode sub : block.process)
+          process.add(resolve(sub));
+        block.process = process;
+        slots.clear();
+        slots.putAll(outer);
+      } else if(node instanceof CommonNode common){
+        common.left = resolve(common.left);
+        common.right = resolve(common.right);
+      } else if(node instanceof AssignNode assignment){
+        // value first, "let a = a" the right side is not the new declared one
+        assignment.expression = resolve(assignment.expression);
+        assignment.variable = resolve(assignment.variable);
+      } else if(node instanceof ConditionNode condition){
+        condition.condition = resolve(condition.condition);
+        resolve(condition.body);
+      } else if(node instanceof IfElse if_else){
+        resolve(if_else.TheIf);
+        for(ConditionNode elif : if_else.Elif)
+          resolve(elif);
+        if_else.Else = resolve(if_else.Else);
+      } else if(node instanceof CallNode call){
+        resolve(call.params);
+      } else if(node instanceof ListExpression list){
+        List<ASTNode> elements = new ArrayList<>(list.elements.size());
+        for(ASTNode element : list.elements)
+          elements.add(resolve(element));
+        list.elements = elements;
+      } else if(node instanceof ReturnNode ret){
+        ret.expression = resolve(ret.expression);
+      } else if(node instanceof IndexNode index){
+        index.target = resolve(index.target);
+        index.index = resolve(index.index);
+      } else if(node instanceof ForRange loop){
+        loop.start = resolve(loop.start);
+        loop.end = resolve(loop.end);
+        // the variable is only visible in the loop, the body is a block
+        Map<String, Integer> outer = new HashMap<>(slots);
+        loop.slot = declare(loop.name, VmyTypes.BuiltinType.Int, false);
+        resolve(loop.body);
+        slots.clear();
+        slots.putAll(outer);
+      } else if(node instanceof FunctionNode function)
+        throw new ASTProcessingException("function " + function.name + " can only be declared at top level");
+      return node;
+
+    }
+  }
+
+  /**
+   * for loops out of functions run in frames of their own, then their variables can be in slots too
+   */
+  private static ASTNode frame_top_level(ASTNode node){
+
+    if(node instanceof ForRange loop){
+      FunctionNode frame = new FunctionNode(Identifiers.For, List.of(), new BlockNode(List.of(loop)));
+      return new ScopeNode(new SlotResolver().resolve(frame, List.of()));
+    } else if(node instanceof BlockNode block){
+      List<ASTNode> process = new ArrayList<>(block.process.size());
+      for(ASTNode sub : block.process)
+        process.add(frame_top_level(sub));
+      block.process = process;
+    } else if(node instanceof ConditionNode condition){
+      frame_top_level(condition.body);
+    } else if(node instanceof IfElse if_else){
+      frame_top_level(if_else.TheIf);
+      for(ConditionNode elif : if_else.Elif)
+        frame_top_level(elif);
+      if_else.Else = frame_top_level(if_else.Else);
+    }
+    return node;
+
+  }
+
   private static  BlockNode get_next_node_as_block_node_or_throw(
       Stack<ASTNode> nodes_stack,
       Supplier<ASTProcessingException> exception_provider
@@ -928,7 +1520,10 @@ public class AST {
       // elif
       List<ConditionNode> _elseIfs = new LinkedList<>();
       Token token_record;
+      // the last removed EOL, it should be put back if no elif or else follows
+      Token end_of_line = null;
       while(remains.hasNext() && (is_elif(remains.peek()) || Utils.isEOL(remains.peek()))){
+        end_of_line = null;
         if(
             // ignore end of line
             // elif maybe like:
@@ -952,12 +1547,13 @@ public class AST {
               )
           );
           _elseIfs.add(collect_to_condition_node(nodesStack, ""));
-        }
+        }else end_of_line = token_record;
       }
 
       // else
       ASTNode _else = null;
-      remove_end_of_line(remains);
+      while(remains.hasNext() && Utils.isEOL(remains.peek()))
+        end_of_line = remains.next();
       if(remains.hasNext() && is_else(remains.peek())){
         remains.next();
         remove_end_of_line(remains);
@@ -965,7 +1561,9 @@ public class AST {
           throw new ASTProcessingException("else has no body!");
         recall(remains.next(), remains, operatorStack, nodesStack);
         _else = nodesStack.pop();
-      }
+      }else if(Objects.nonNull(end_of_line))
+        // the EOL ends this line, in a block the next line is handled separately
+        remains.push_back(end_of_line);
       nodesStack.add(new IfElse(TheIf, _elseIfs, _else));
     }
 
@@ -997,17 +1595,18 @@ public class AST {
     return Objects.equals(operator, token.value);
   }
 
-  // a static instance
+  // a static instance, for building without recorder
   private static TokenHandler HANDLER;
 
+  // the recorder is state of one building, so the handlers with recorder are not shared
   private static TokenHandler getTokenHandler(TokenHistoryRecorder recorder){
-    if(Objects.isNull(HANDLER))
-      buildHandler(recorder);
-    return HANDLER;
+    return buildHandler(recorder);
   }
 
   private static TokenHandler getTokenHandler(){
-    return getTokenHandler(null);
+    if(Objects.isNull(HANDLER))
+      HANDLER = buildHandler(null);
+    return HANDLER;
   }
 
   // when all the other handler can't handle this token throw out an ASTProcessingException
@@ -1045,8 +1644,8 @@ public class AST {
     }
   }
 
-  private static void buildHandler(TokenHistoryRecorder recorder){
-    HANDLER = new HandlerBuilder()
+  private static TokenHandler buildHandler(TokenHistoryRecorder recorder){
+    return new HandlerBuilder()
     .next(new NumberHandler())
     .next(new OperatorHandler())
     .next(new AssignmentHandler())
@@ -1057,6 +1656,10 @@ public class AST {
     .next(new WhileHandler())
     .next(new NewlineHandler())
     .next(new IfElHandler())
+    .next(new FunctionHandler())
+    .next(new ForHandler())
+    .next(new ImportHandler())
+    .next(new ReturnHandler())
     .next(new DefaultHandler())
     .build_with_each(el -> el.setTokenRecorder(recorder))
     .build();
@@ -1098,26 +1701,499 @@ public class AST {
     }
   }
 
-  public static Evaluator defaultTreeEvaluator() {
-    return Evaluator;
+  /**
+   * check the types of the tree before it's evaluated in {@code frame}, all the errors are reported together
+   * @throws TypeCheckException if any error found
+   */
+  public static VmyAST check(VmyAST ast, Frame frame){
+    final long start = VmyMetrics.Enabled ? System.nanoTime() : 0;
+    final VmyEvents.Check event = new VmyEvents.Check();
+    event.begin();
+    List<String> errors = new TypeChecker(frame).check(ast.root);
+    if(VmyMetrics.Enabled)
+      VmyMetrics.checked(System.nanoTime() - start);
+    event.end();
+    if(event.shouldCommit()){
+      event.script = ast.name;
+      event.errors = errors.size();
+      event.commit();
+    }
+    if(!errors.isEmpty())
+      throw new TypeCheckException(errors);
+    return ast;
   }
 
-  private static VmyTreeEvaluator Evaluator = new VmyTreeEvaluator();
+  /**
+   * a module parsed and checked once, its tree is shared (read only) by the frames importing it
+   * @see ModuleLoader
+   */
+  static final class Module {
+    final String path;
+    final String hash;
+    private final VmyAST tree;
+    // names declared by the module itself, the importing scripts can use them
+    private final Map<String, TypeChecker.Symbol> globals = new HashMap<>();
+    private final Map<String, FunctionNode> functions = new HashMap<>();
+    // modules imported by the module, their names are declared before the names of the module
+    private final List<String> imports = new ArrayList<>();
+
+    private Module(String _path, String _hash, VmyAST _tree, TypeChecker checker){
+      path = _path;
+      hash = _hash;
+      tree = _tree;
+      checker.globals.forEach((name, symbol) -> {
+        if(!checker.imported_names.contains(name)) globals.put(name, symbol);
+      });
+      checker.functions.forEach((key, function) -> {
+        if(!checker.imported_names.contains(key)) functions.put(key, function);
+      });
+      if(tree.root instanceof BlockNode block)
+        for(ASTNode node : block.process)
+          if(node instanceof ImportNode imported) imports.add(imported.path);
+    }
+  }
 
-  private static class VmyTreeEvaluator implements Evaluator{
-    private Global  _g = Global.getInstance();
+  // parse and check a module, it's checked with the default builtins
+  static Module module(String path, String hash, Scanner scanner){
+    VmyAST tree = build(scanner);
+    TypeChecker checker = new TypeChecker(new Global(BuiltinOps.builtinOps()));
+    List<String> errors = checker.check(tree.root);
+    if(!errors.isEmpty())
+      throw new TypeCheckException(errors.stream().map(error -> "in module " + path + " : " + error).toList());
+    return new Module(path, hash, tree, checker);
+  }
 
-    @Override
-    public Object eval(Tree tree) {
-      if(tree instanceof VmyAST ast){
-        return evalsub(ast.root);
-      }else
-        throw new EvaluatException("unrecognized AST");
-    }
+  // check the tree for the frame of the evaluator, the old evaluator has nothing to check
+  static VmyAST check(VmyAST ast, Evaluator evaluator){
+    return evaluator instanceof VariableStoreTreeEvaluator store ? check(ast, store._g) : ast;
+  }
 
-    Object evalsub(ASTNode node){
-      if(node instanceof ValNode val){
-        return val.value;
+  /**
+   * <p>infer the type of each expression and check assignments, val and calls before evaluating</p>
+   * <p>
+   *   Any is for the type not known until running, like params without type or the result of a call,
+   *   the checks with Any are left to the evaluator.
+   *   an assignment proved here is marked {@link AssignNode#checked}, the evaluator skips its checks
+   * </p>
+   */
+  private static class TypeChecker {
+    private static final VmyType Any = VmyTypes.BuiltinType.Any;
+
+    private final Frame frame;
+    private final List<String> errors = new ArrayList<>();
+    // global variables declared by the tree
+    private final Map<String, Symbol> globals = new HashMap<>();
+    // functions declared by the tree, key is name/arity
+    private final Map<String, FunctionNode> functions = new HashMap<>();
+    // bodies are checked after the top level, globals declared after a function can be used in it
+    private final List<FunctionNode> bodies = new ArrayList<>();
+    // modules imported by the tree, and the names (globals and name/arity of functions) declared by them
+    private final Set<String> imported = new HashSet<>();
+    private final Set<String> imported_names = new HashSet<>();
+
+    // the function being checked and the types of its slots
+    private FunctionNode function;
+    private VmyType[] local_types;
+
+    private record Symbol(VmyType type, boolean mutable) {}
+
+    TypeChecker(Frame _frame){
+      frame = _frame;
+    }
+
+    List<String> check(ASTNode root){
+
+      collect_functions(root);
+      check_node(root);
+      for(FunctionNode body : bodies)
+        check_function(body);
+      return errors;
+
+    }
+
+    private void collect_functions(ASTNode root){
+      if(root instanceof BlockNode block){
+        for(ASTNode node : block.process)
+          if(node instanceof FunctionNode fn){
+            if(frame.builtins().contains(fn.name))
+              error("function " + fn.name + " is builtin, can't be redeclared");
+            functions.put(fn.name + "/" + fn.params.size(), fn);
+          }
+      }
+    }
+
+    private void check_function(FunctionNode fn){
+
+      final FunctionNode outer = function;
+      final VmyType[] outer_types = local_types;
+      function = fn;
+      local_types = new VmyType[fn.slots];
+      for(int i=0; i<fn.slots; i++)
+        local_types[i] = Objects.isNull(fn.slot_types[i]) ? Any : fn.slot_types[i];
+      try{
+        check_node(fn.body);
+      }finally {
+        function = outer;
+        local_types = outer_types;
+      }
+
+    }
+
+    // in a declared function, not the frame of a top level statement
+    private boolean in_function(){
+      return Objects.nonNull(function) && !Utils.equal(function.name, Identifiers.For);
+    }
+
+    /**
+     * check the node and its children
+     * @return the type of the node value, {@link #Any} if it's not known
+     */
+    private VmyType check_node(ASTNode node){
+
+      if(Objects.isNull(node) || node instanceof EmptyNode){
+        return Any;
+      }else if(node instanceof ValNode val){
+        return Numbers.is_integer(val.value) ? VmyTypes.BuiltinType.Int : VmyTypes.BuiltinType.Double;
+      }else if(node instanceof LiteralNode literal){
+        return literal_type(literal);
+      }else if(node instanceof BlockNode block){
+        for(ASTNode sub : block.process)
+          check_node(sub);
+        return Any;
+      }else if(node instanceof CommonNode common){
+        return binary_type(common);
+      }else if(node instanceof AssignNode assignment){
+        return check_assignment(assignment);
+      }else if(node instanceof DeclareNode declaration){
+        if(Objects.isNull(declaration.type)){
+          error("declaration of " + declaration.identifier.value + " needs a type or a value");
+          return Any;
+        }
+        VmyType type = to_type(declaration.type);
+        declare(declaration, type);
+        return type;
+      }else if(node instanceof IdentifierNode identifier){
+        if(is_function_value(identifier.value)) return VmyTypes.BuiltinType.Function;
+        Symbol symbol = lookup(identifier.value);
+        return Objects.isNull(symbol) ? Any : symbol.type();
+      }else if(node instanceof LocalNode local){
+        return local_types[local.slot];
+      }else if(node instanceof LocalDeclareNode declaration){
+        return local_types[declaration.slot];
+      }else if(node instanceof CallNode call){
+        return call_type(call);
+      }else if(node instanceof ConditionNode condition){
+        check_condition(condition);
+        return Any;
+      }else if(node instanceof IfElse if_else){
+        check_condition(if_else.TheIf);
+        for(ConditionNode elif : if_else.Elif)
+          check_condition(elif);
+        check_node(if_else.Else);
+        return Any;
+      }else if(node instanceof ForRange loop){
+        range_bound(check_node(loop.start));
+        range_bound(check_node(loop.end));
+        check_node(loop.body);
+        return Any;
+      }else if(node instanceof ScopeNode scope){
+        check_function(scope.frame);
+        return Any;
+      }else if(node instanceof ReturnNode ret){
+        if(!in_function())
+          error("return should be in a function");
+        check_node(ret.expression);
+        return Any;
+      }else if(node instanceof FunctionNode fn){
+        bodies.add(fn);
+        return Any;
+      }else if(node instanceof ImportNode imported){
+        check_import(imported);
+        return Any;
+      }else if(node instanceof ListExpression list){
+        for(ASTNode element : list.elements)
+          check_node(element);
+        return Any;
+      }else if(node instanceof IndexNode index){
+        return index_type(index);
+      }
+      error("unrecognizable AST node " + node.getClass().getSimpleName());
+      return Any;
+
+    }
+
+    private VmyType literal_type(LiteralNode literal){
+      return switch (LiteralKind.values()[literal.tag()]){
+        case Int -> VmyTypes.BuiltinType.Int;
+        case Double -> VmyTypes.BuiltinType.Double;
+        case Char -> VmyTypes.BuiltinType.Char;
+        case Bool -> VmyTypes.BuiltinType.Boolean;
+        case String -> VmyTypes.BuiltinType.String;
+      };
+    }
+
+    private VmyType binary_type(CommonNode common){
+
+      VmyType left = check_node(common.left);
+      VmyType right = check_node(common.right);
+      BinaryOps op = BinaryOps.OpsMapper.get(common.OP);
+      if(Objects.isNull(op)){
+        error("op(" + common.OP + ") not support!");
+        return Any;
+      }
+      return switch (op){
+        case Concat -> VmyTypes.BuiltinType.String;
+        case EQ, NEQ -> VmyTypes.BuiltinType.Boolean;
+        case GT, LT -> {
+          number_type(common.OP, left, right);
+          yield VmyTypes.BuiltinType.Boolean;
+        }
+        default -> number_type(common.OP, left, right);
+      };
+
+    }
+
+    // Int op Int is Int, Double with another number is Double
+    private VmyType number_type(String op, VmyType left, VmyType right){
+
+      if(!is_number(left) || !is_number(right)){
+        error("op(" + op + ") not support " + left + " and " + right);
+        return Any;
+      }
+      if(left == Any || right == Any) return Any;
+      return left == VmyTypes.BuiltinType.Int && right == VmyTypes.BuiltinType.Int ?
+        VmyTypes.BuiltinType.Int :
+        VmyTypes.BuiltinType.Double;
+
+    }
+
+    private static boolean is_number(VmyType type){
+      return type == Any || type == VmyTypes.BuiltinType.Int || type == VmyTypes.BuiltinType.Double;
+    }
+
+    private void range_bound(VmyType type){
+      if(type != Any && type != VmyTypes.BuiltinType.Int)
+        error("range of for loop should be Int, but it's " + type);
+    }
+
+    private void check_condition(ConditionNode condition){
+
+      VmyType type = check_node(condition.condition);
+      if(type != Any && type != VmyTypes.BuiltinType.Boolean)
+        error("condition should be Boolean, but it's " + type);
+      check_node(condition.body);
+
+    }
+
+    private VmyType check_assignment(AssignNode assignment){
+
+      // the tree may be checked again for another frame, the proof of a former check isn't kept
+      assignment.checked = false;
+      final VmyType value = check_node(assignment.expression);
+      final boolean known = value != Any;
+      if(assignment.variable instanceof DeclareNode declaration){
+
+        VmyType type = value;
+        if(Objects.nonNull(declaration.type)){
+          type = to_type(declaration.type);
+          if(known) assignable(type, value);
+        }
+        declare(declaration, type);
+        // without a declared type, the variable is of the value type
+        assignment.checked = Objects.isNull(declaration.type) || known;
+
+      }else if(assignment.variable instanceof IdentifierNode identifier){
+
+        Symbol symbol = lookup(identifier.value);
+        if(Objects.isNull(symbol)) return value;
+        if(!symbol.mutable())
+          error("const variable (val) can't be assigned : " + identifier.value);
+        else if(symbol.type() != Any && known)
+          assignment.checked = assignable(symbol.type(), value);
+
+      }else if(assignment.variable instanceof LocalNode local){
+
+        VmyType declared = function.slot_types[local.slot];
+        if(!function.slot_mutable[local.slot])
+          error("const variable (val) can't be assigned : " + local.name);
+        else if(Objects.isNull(declared))
+          assignment.checked = true;
+        else if(known)
+          assignment.checked = assignable(declared, value);
+
+      }else if(assignment.variable instanceof LocalDeclareNode declaration){
+
+        VmyType declared = function.slot_types[declaration.slot];
+        if(Objects.isNull(declared)){
+          // a val never changes, its type is the value type
+          if(!function.slot_mutable[declaration.slot])
+            local_types[declaration.slot] = value;
+          assignment.checked = true;
+        }else if(known)
+          assignment.checked = assignable(declared, value);
+
+      }else if(assignment.variable instanceof IndexNode index){
+
+        // the element kind of the array is known at runtime
+        index_type(index);
+
+      }else
+        error("can't assign to " + assignment.variable.getClass().getSimpleName());
+      return value;
+
+    }
+
+    // type of an element is not known, like : a[i]
+    private VmyType index_type(IndexNode index){
+
+      VmyType target = check_node(index.target);
+      if(target != Any && target != VmyTypes.BuiltinType.Array)
+        error("index of " + target + " is not supported, it should be Array");
+      VmyType type = check_node(index.index);
+      if(type != Any && type != VmyTypes.BuiltinType.Int)
+        error("index of array should be Int, but it's " + type);
+      return Any;
+
+    }
+
+    private VmyType to_type(String name){
+      try{
+        return Utils.to_type(name);
+      }catch (IllegalArgumentException e){
+        error("unknown type " + name);
+        return Any;
+      }
+    }
+
+    private boolean assignable(VmyType variable_type, VmyType value_type){
+      if(Utils.equal(variable_type, value_type)) return true;
+      error("type " + value_type + " can not be assigned to type " + variable_type);
+      return false;
+    }
+
+    private VmyType call_type(CallNode call){
+
+      List<ASTNode> elements = call.params.elements;
+      VmyType[] arg_types = new VmyType[elements.size()];
+      for(int i=0; i<arg_types.length; i++)
+        arg_types[i] = check_node(elements.get(i));
+
+      FunctionNode declared = functions.get(call.identifier + "/" + arg_types.length);
+      if(Objects.nonNull(declared)){
+        for(int i=0; i<arg_types.length; i++){
+          VmyType param = declared.slot_types[i];
+          if(Objects.nonNull(param) && arg_types[i] != Any && !Utils.equal(param, arg_types[i]))
+            error(
+              "param " + declared.params.get(i) + " of function " + declared.name +
+              " is " + param + ", but got " + arg_types[i]
+            );
+        }
+        return Any;
+      }
+      if(Objects.nonNull(frame.functions().get(call.identifier, arg_types.length)))
+        return Any;
+
+      BuiltinOps builtins = frame.builtins();
+      if(!builtins.contains(call.identifier))
+        error("function " + call.identifier + " with " + arg_types.length + " params not declared");
+      else if(!builtins.accepts(call.identifier, arg_types))
+        error("function " + Utils.function_to_string(call.identifier, arg_types) + " not founded");
+      return Any;
+
+    }
+
+    // the names of the module are declared, a module is imported once
+    private void check_import(ImportNode node){
+      if(in_function())
+        error("import should be at top level");
+      else
+        check_import(node.path);
+    }
+
+    private void check_import(String path){
+
+      if(frame.imported(path) || !imported.add(path)) return;
+      final Module module;
+      try{
+        module = ModuleLoader.shared().load(path);
+      }catch (RuntimeException e){
+        error("import " + path + " : " + e.getMessage());
+        return;
+      }
+      for(String sub : module.imports)
+        check_import(sub);
+      module.globals.forEach((name, symbol) -> {
+        if(globals.containsKey(name) || Objects.nonNull(frame.local(name)))
+          error(name + " of module " + path + " is declared, can't redeclare it!");
+        else{
+          globals.put(name, symbol);
+          imported_names.add(name);
+        }
+      });
+      module.functions.forEach((key, function) -> {
+        if(Objects.isNull(functions.putIfAbsent(key, function))) imported_names.add(key);
+      });
+
+    }
+
+    private void declare(DeclareNode declaration, VmyType type){
+
+      final String name = declaration.identifier.value;
+      if(globals.containsKey(name) || Objects.nonNull(frame.local(name)))
+        error(name + " is declared, can't redeclare it!");
+      else
+        globals.put(name, new Symbol(type, Utils.is_mutable(declaration.declare)));
+
+    }
+
+    private Symbol lookup(String name){
+
+      Symbol symbol = globals.get(name);
+      if(Objects.nonNull(symbol)) return symbol;
+      Runtime.Variable variable = frame.local(name);
+      if(Objects.nonNull(variable))
+        return new Symbol(variable.getType(), variable.mutable());
+      error("variable " + name + " haven't declared!");
+      return null;
+
+    }
+
+    // a name of function is a value of it, like : pmap(xs, square), if no variable has the name
+    private boolean is_function_value(String name){
+
+      if(globals.containsKey(name) || Objects.nonNull(frame.local(name))) return false;
+      final String prefix = name + "/";
+      for(String key : functions.keySet())
+        if(key.startsWith(prefix)) return true;
+      return Objects.nonNull(frame.functions().reference(name));
+
+    }
+
+    private void error(String message){
+      errors.add(in_function() ? "in function " + function.name + " : " + message : message);
+    }
+  }
+
+  public static Evaluator defaultTreeEvaluator() {
+    return Evaluator;
+  }
+
+  private static VmyTreeEvaluator Evaluator = new VmyTreeEvaluator();
+
+  private static class VmyTreeEvaluator implements Evaluator{
+    private Global  _g = Global.getInstance();
+
+    @Override
+    public Object eval(Tree tree) {
+      if(tree instanceof VmyAST ast){
+        return evalsub(ast.root);
+      }else
+        throw new EvaluatException("unrecognized AST");
+    }
+
+    Object evalsub(ASTNode node){
+      if(node instanceof ValNode val){
+        return val.value;
       }else if(node instanceof CommonNode common){
         Object left = evalsub(common.left);
         Object right  = evalsub(common.right);
@@ -1174,15 +2250,216 @@ public class AST {
     return create ? new VariableStoreTreeEvaluator() : variableStoreTreeEvaluator();
   }
 
+  // a new evaluator stores variables in the frame
+  public static Evaluator evaluator(Frame frame){
+    return new VariableStoreTreeEvaluator(frame);
+  }
+
+  // a new evaluator stores variables in the frame, and records count and time of nodes to the profile
+  public static Evaluator profiler(Frame frame, Profile profile){
+    return new ProfilingEvaluator(frame, profile);
+  }
+
+  /**
+   * evaluator records each node it evaluates, see {@link Profile}
+   * <p>
+   *   it's a subclass, so the common evaluator has no check of profiling at all.
+   *   a tail call runs in the frame of its caller, it's recorded as part of the caller
+   * </p>
+   */
+  private static final class ProfilingEvaluator extends VariableStoreTreeEvaluator {
+    private final Profile profile;
+    private Profile.CallTree calls;
+    // time of children of the node being evaluated
+    private long children;
+
+    ProfilingEvaluator(Frame frame, Profile _profile){
+      // every node goes through eval_sub to be recorded
+      super(frame, false);
+      profile = _profile;
+      calls = _profile.root();
+    }
+
+    @Override
+    public Object eval(Tree tree) {
+      final long start = System.nanoTime();
+      try{
+        return super.eval(tree);
+      }finally {
+        profile.finish(System.nanoTime() - start);
+      }
+    }
+
+    @Override
+    Object eval_sub(ASTNode node){
+
+      if(Objects.isNull(node)) return super.eval_sub(node);
+      Profile.Stat stat = profile.stat(node);
+      if(Objects.isNull(stat))
+        stat = describe(node);
+
+      final Profile.CallTree caller = calls;
+      if(node instanceof CallNode call)
+        calls = caller.child(call.identifier);
+      final long outer = children;
+      children = 0;
+      final long start = System.nanoTime();
+      try{
+        return super.eval_sub(node);
+      }finally {
+        final long elapsed = System.nanoTime() - start;
+        stat.add(elapsed, elapsed - children);
+        // a call deeper than the max depth stays in its caller
+        if(calls != caller){
+          calls.add(elapsed);
+          calls = caller;
+        }
+        children = outer + elapsed;
+      }
+
+    }
+
+    // label of the node, with the function it's in
+    private Profile.Stat describe(ASTNode node){
+
+      final String in = (Objects.isNull(super.current) ? "" : super.current.name) + " : ";
+      if(node instanceof CallNode call)
+        return profile.add(node, in + "call " + call.identifier + "/" + call.params.elements.size(), Profile.Kind.Call, null);
+      if(node instanceof WhileLoop loop)
+        return profile.add(node, in + "while", Profile.Kind.Loop, loop.body);
+      if(node instanceof ForRange loop)
+        return profile.add(node, in + "for " + loop.name, Profile.Kind.Loop, loop.body);
+
+      String label;
+      if(node instanceof CommonNode common) label = "op " + common.OP;
+      else if(node instanceof AssignNode assignment) label = "assign " + name_of(assignment.variable);
+      else if(node instanceof LocalNode || node instanceof IdentifierNode) label = "get " + name_of(node);
+      else if(node instanceof FunctionNode function) label = "fn " + function.name;
+      else label = node.getClass().getSimpleName();
+      return profile.add(node, in + label, Profile.Kind.Node, null);
+
+    }
+
+    private static String name_of(ASTNode node){
+      if(node instanceof LocalNode local) return local.name;
+      if(node instanceof IdentifierNode identifier) return identifier.value;
+      if(node instanceof LocalDeclareNode declaration) return declaration.declaration.identifier.value;
+      if(node instanceof DeclareNode declaration) return declaration.identifier.value;
+      return node.getClass().getSimpleName();
+    }
+  }
+
   private static VariableStoreTreeEvaluator VSTEvaluator = new VariableStoreTreeEvaluator();
 
+  /**
+   * a declared function and the frame it's declared in, called from java it runs in a new evaluator
+   */
+  private static final class UserFunction implements Callable, Serializable {
+    private static final long serialVersionUID = 1L;
+    final FunctionNode function;
+    final Frame frame;
+
+    UserFunction(FunctionNode _function, Frame _frame){
+      function = _function;
+      frame = _frame;
+    }
+
+    @Override
+    public Object call(Object... params) {
+      return new VariableStoreTreeEvaluator(frame).invoke(function, params);
+    }
+
+    @Override
+    public Callable for_worker() {
+      final VariableStoreTreeEvaluator evaluator = new VariableStoreTreeEvaluator(frame);
+      return params -> evaluator.invoke(function, params);
+    }
+  }
+
+  /**
+   * <p>
+   *   values of Int, Double and Boolean are carried unboxed : {@link #eval_raw} evaluates a node to a tag and its bits,
+   *   slots of frames are a register file of tags and bits besides the objects, args and results of declared functions
+   *   are passed by them too. a value is boxed only when it escapes to java, like a builtin call, a global variable,
+   *   or an overflowed Int (promoted to Long)
+   * </p>
+   */
   private static class VariableStoreTreeEvaluator implements Evaluator{
-    private Global  _g = Global.getInstance();
+    private final Frame _g;
+    private final BuiltinOps builtins;
+
+    // tags of unboxed values, an Int is the int in bits, a Double is the raw long bits, a Boolean is 0 or 1
+    static final byte Boxed = 0;
+    static final byte Int = 1;
+    static final byte Real = 2;
+    static final byte Bool = 3;
+
+    // frames of declared functions, a frame is stack[base] until stack[base + function.slots]
+    // a slot is stack[i] if tags[i] is Boxed, else raw[i]
+    private Object[] stack = new Object[64];
+    private byte[] tags = new byte[64];
+    private long[] raw = new long[64];
+    // args arrays of builtin calls by depth of the calls and count of args, see args_buffer
+    private Object[][][] arg_buffers = new Object[8][][];
+    // declared functions of the call nodes in the frame of this evaluator, a tree is shared by frames and threads
+    // (like runs of CompiledScript), so the cache isn't kept in the node
+    private final Map<CallNode, DeclaredCache> declared_calls = new IdentityHashMap<>();
+    private int call_depth;
+    private int base;
+    private int top;
+    private FunctionNode current;
+    // result of eval_raw : bits for unboxed tags, boxed for Boxed
+    private long bits;
+    private Object boxed;
+    private final boolean unboxed;
+
+    // set by return, blocks stop when it's true
+    private boolean returning;
+    private byte returned_tag;
+    private long returned_bits;
+    private Object returned;
+    // set by a return of a call to declared function, the args are at stack[tail_args]
+    private FunctionNode tail_function;
+    private int tail_args;
+
+    VariableStoreTreeEvaluator(){
+      this(Global.getInstance());
+    }
+
+    VariableStoreTreeEvaluator(Frame frame){
+      this(frame, true);
+    }
+
+    VariableStoreTreeEvaluator(Frame frame, boolean _unboxed){
+      _g = frame;
+      builtins = frame.builtins();
+      unboxed = _unboxed;
+    }
 
     @Override
     public Object eval(Tree tree) {
       if(tree instanceof VmyAST ast){
-        return eval_sub(ast.root);
+        final long start = VmyMetrics.Enabled ? System.nanoTime() : 0;
+        final VmyEvents.Eval event = new VmyEvents.Eval();
+        event.begin();
+        try {
+          return eval_sub(ast.root);
+        } finally {
+          // a context evaluates many trees (like lines of the repl), their nodes aren't kept
+          declared_calls.clear();
+          if(VmyMetrics.Enabled)
+            VmyMetrics.evaluated(System.nanoTime() - start);
+          event.end();
+          if(event.shouldCommit()){
+            event.script = ast.name;
+            event.commit();
+          }
+          returning = false;
+          returned_tag = Boxed;
+          returned = null;
+          boxed = null;
+          tail_function = null;
+        }
       }else
         throw new EvaluatException("unrecognized AST");
     }
@@ -1194,18 +2471,29 @@ public class AST {
      */
     Object eval_sub(ASTNode node){
 
+      if(VmyMetrics.Enabled) VmyMetrics.node();
       if(node instanceof ValNode val){
         return val.value;
       }else if(node instanceof BlockNode block){
 
+        // indexed, an iterator is an allocation for each run of the block
         List<ASTNode> nodes = block.process;
-        for(ASTNode sub : nodes){
-          eval_sub(sub);
+        for(int i = 0, size = nodes.size(); i < size; i++){
+          final ASTNode sub = nodes.get(i);
+          // the value of a statement isn't used, an assignment needs no boxing
+          if(unboxed && sub instanceof AssignNode assignment){
+            if(VmyMetrics.Enabled) VmyMetrics.node();
+            assign(assignment);
+          }else
+            eval_sub(sub);
+          if(returning) break;
         }
         return null;
 
       } else if(node instanceof CommonNode common){
 
+        if(unboxed)
+          return box(eval_raw(common));
         return binary_op_call(
             common.OP ,
             eval_sub(common.left),
@@ -1226,10 +2514,12 @@ public class AST {
                 Utils.is_mutable(declaration.declare)
             )
         );
+      }else if(node instanceof LocalNode local){
+        return load(base + local.slot);
       }else if(node instanceof IdentifierNode identifier){
 
         try {
-          return get_variable(identifier.value);
+          return get_variable(identifier);
         }catch (Exception e){
           Utils.error(e.getMessage());
           return null;
@@ -1240,36 +2530,93 @@ public class AST {
       } else if(node instanceof CallNode call){
         return do_call(call);
       } else if( node instanceof WhileLoop while_loop){
-        while((boolean)eval_sub(while_loop.condition)){
+        while(condition(while_loop.condition)){
           eval_sub(while_loop.body);
+          if(returning) break;
         }
         return null;
       } else if(node instanceof IfElse ifElse){
         do_evaluate_if_else(ifElse);
         return null;
+      } else if(node instanceof ReturnNode ret){
+        do_return(ret);
+        return null;
+      } else if(node instanceof LocalDeclareNode declaration){
+        stack[base + declaration.slot] = null;
+        tags[base + declaration.slot] = Boxed;
+        return null;
+      } else if(node instanceof FunctionNode function){
+        _g.functions().define(function.name, function.params.size(), new UserFunction(function, _g));
+        return null;
+      } else if(node instanceof ForRange loop){
+        do_for_range(loop);
+        return null;
+      } else if(node instanceof ScopeNode scope){
+        invoke(scope.frame, List.of());
+        return null;
+      } else if(node instanceof IndexNode index){
+        return box(load_element(index));
+      } else if(node instanceof ImportNode imported){
+        // the module runs once in a frame, its declarations are in the frame then
+        AST.Module module = ModuleLoader.shared().load(imported.path);
+        if(_g.import_module(module.path))
+          eval_sub(module.tree.root);
+        return null;
       } else
-        throw new EvaluatException("unrecognizable AST node");
+        throw new EvaluatException("unrecognizable AST node " + (Objects.isNull(node) ? "null" : node.getClass().getSimpleName()));
     }
 
     // compare type
     // check if variable can be assigned
     Object handle_assignment_node(AssignNode assignment){
-      Object expression = eval_sub(assignment.expression);
-      VmyType expression_type = Utils.get_obj_type(expression);
+      return box(assign(assignment));
+    }
+
+    /**
+     * assign the value of expression, a local slot keeps it unboxed
+     * @return tag of the value, the value is in the registers
+     */
+    byte assign(AssignNode assignment){
+      // a checked assignment has been proved by TypeChecker
+      final boolean checked = assignment.checked;
+
+      if(assignment.variable instanceof LocalNode local){
+        final byte tag = eval_raw(assignment.expression);
+        if(!checked){
+          if(!current.slot_mutable[local.slot])
+            throw new EvaluatException("const variable (val) can't be assigned : " + local.name);
+          if(Objects.nonNull(current.slot_types[local.slot]))
+            can_assign(current.slot_types[local.slot], type_of(tag, boxed));
+        }
+        return store(base + local.slot, tag);
+      }else if(assignment.variable instanceof LocalDeclareNode declaration){
+        final byte tag = eval_raw(assignment.expression);
+        if(!checked && Objects.nonNull(current.slot_types[declaration.slot]))
+          can_assign(current.slot_types[declaration.slot], type_of(tag, boxed));
+        return store(base + declaration.slot, tag);
+      }else if(assignment.variable instanceof IndexNode index){
+        final Object array = get_value(eval_sub(index.target));
+        final int i = element_index(index.index);
+        return store_element(array, i, eval_raw(assignment.expression));
+      }
 
+      Object expression = eval_sub(assignment.expression);
       Object expression_value = get_value(expression);
       if(assignment.variable instanceof IdentifierNode identifier){
         try {
-          Runtime.VariableWithName identifier_variable = get_variable(identifier.value);
-          can_assign(identifier_variable, expression);
+          Runtime.VariableWithName identifier_variable = get_variable(identifier);
+          if(!checked)
+            can_assign(identifier_variable, expression);
           assign_to(identifier_variable.name(), identifier_variable, expression_value);
         }catch (Exception e){
           Utils.error(e.getMessage());
         }
       }else if(assignment.variable instanceof  DeclareNode declaration){
 
+        final VmyType expression_type = Utils.get_obj_type(expression);
         final VmyType declaration_type = Objects.isNull(declaration.type) ? expression_type : Utils.to_type(declaration.type);
-        can_assign(declaration_type, expression_type);
+        if(!checked)
+          can_assign(declaration_type, expression_type);
         assign_to(
             declaration.identifier.value,
             Runtime.declare_variable(
@@ -1281,7 +2628,233 @@ public class AST {
             expression_value
         );
       }
-      return expression_value;
+      return unbox(expression_value);
+    }
+
+    /**
+     * evaluate the node to the registers, Int, Double and Boolean are not boxed
+     * @return tag of the value, {@link #bits} has the unboxed value, {@link #boxed} has others
+     */
+    byte eval_raw(ASTNode node){
+
+      if(!unboxed)
+        return unbox(get_value(eval_sub(node)));
+      if(node instanceof CommonNode common && Objects.nonNull(common.op)){
+        if(VmyMetrics.Enabled) VmyMetrics.node();
+        final byte left = eval_raw(common.left);
+        final long left_bits = bits;
+        final Object left_boxed = boxed;
+        final byte right = eval_raw(common.right);
+        if(left != Boxed && right != Boxed){
+          final byte tag = raw_op(common.op, left, left_bits, right, bits);
+          if(tag != Boxed){
+            if(VmyMetrics.Enabled) VmyMetrics.binary_op(common.OP);
+            return tag;
+          }
+        }
+        // not a raw operation, or an Int overflowed
+        return unbox(binary_op_call(common.OP, box(left, left_bits, left_boxed), box(right, bits, boxed)));
+      }else if(node instanceof LocalNode local){
+        if(VmyMetrics.Enabled) VmyMetrics.node();
+        final int slot = base + local.slot;
+        final byte tag = tags[slot];
+        if(tag == Boxed) return unbox(stack[slot]);
+        bits = raw[slot];
+        return tag;
+      }else if(node instanceof ValNode val){
+        if(VmyMetrics.Enabled) VmyMetrics.node();
+        return unbox(val.value);
+      }else if(node instanceof LiteralNode literal){
+        if(VmyMetrics.Enabled) VmyMetrics.node();
+        return unbox(literal.val());
+      }else if(node instanceof CallNode call){
+        if(VmyMetrics.Enabled) VmyMetrics.node();
+        final FunctionSupport.Declared declared = declared_function(call);
+        if(Objects.nonNull(declared) && declared.target() instanceof UserFunction user){
+          final int frame = top;
+          push_args(user.function, call.params.elements, frame);
+          return run_frame(user.function, frame);
+        }
+        return unbox(do_call(call));
+      }else if(node instanceof IndexNode index){
+        if(VmyMetrics.Enabled) VmyMetrics.node();
+        return load_element(index);
+      }
+      return unbox(get_value(eval_sub(node)));
+
+    }
+
+    /**
+     * element of int[] or double[] is loaded unboxed
+     */
+    private byte load_element(IndexNode node){
+
+      final Object array = get_value(eval_sub(node.target));
+      final int i = element_index(node.index);
+      try{
+        if(array instanceof int[] ints){
+          bits = ints[i];
+          return Int;
+        }else if(array instanceof double[] doubles){
+          bits = Double.doubleToRawLongBits(doubles[i]);
+          return Real;
+        }else if(array instanceof Object[] objects)
+          return unbox(objects[i]);
+      }catch (ArrayIndexOutOfBoundsException e){
+        throw new EvaluatException("index " + i + " out of bounds for length " + ArrayLib.len(array));
+      }
+      throw new EvaluatException("index of " + Utils.display(array) + " is not supported, it should be Array");
+
+    }
+
+    private byte store_element(Object array, int i, byte tag){
+
+      try{
+        if(array instanceof int[] ints){
+          if(tag != Int)
+            throw new EvaluatException("element of Int array can't be " + Utils.display(box(tag)));
+          ints[i] = (int) bits;
+        }else if(array instanceof double[] doubles){
+          if(tag == Int) doubles[i] = (int) bits;
+          else if(tag == Real) doubles[i] = Double.longBitsToDouble(bits);
+          else throw new EvaluatException("element of Double array can't be " + Utils.display(box(tag)));
+        }else if(array instanceof Object[] objects)
+          objects[i] = box(tag);
+        else
+          throw new EvaluatException("index of " + Utils.display(array) + " is not supported, it should be Array");
+      }catch (ArrayIndexOutOfBoundsException e){
+        throw new EvaluatException("index " + i + " out of bounds for length " + ArrayLib.len(array));
+      }
+      return tag;
+
+    }
+
+    private int element_index(ASTNode index){
+      if(eval_raw(index) != Int)
+        throw new EvaluatException("index of array should be Int");
+      return (int) bits;
+    }
+
+    /**
+     * the operation of two unboxed values
+     * @return tag of the result, {@link #Boxed} if it can't be done unboxed
+     */
+    private byte raw_op(BinaryOps op, byte left, long left_bits, byte right, long right_bits){
+
+      if(left == Int && right == Int){
+        final int a = (int) left_bits;
+        final int b = (int) right_bits;
+        final long r;
+        switch (op){
+          case ADD -> r = (long) a + b;
+          case SUB -> r = (long) a - b;
+          case MULTI -> r = (long) a * b;
+          case DIVIDE -> r = (long) a / b;
+          case GT -> { return bool(a > b); }
+          case LT -> { return bool(a < b); }
+          case EQ -> { return bool(a == b); }
+          case NEQ -> { return bool(a != b); }
+          default -> { return Boxed; }
+        }
+        // an overflowed Int is promoted by BinaryOps
+        if((int) r != r) return Boxed;
+        bits = r;
+        return Int;
+      }
+      if(left == Bool || right == Bool){
+        if(left != Bool || right != Bool) return Boxed;
+        return switch (op){
+          case EQ -> bool(left_bits == right_bits);
+          case NEQ -> bool(left_bits != right_bits);
+          default -> Boxed;
+        };
+      }
+      // like Objects.equals, an Int is not equal to a Double
+      if(op == BinaryOps.EQ || op == BinaryOps.NEQ)
+        return bool((left == right && left_bits == right_bits) == (op == BinaryOps.EQ));
+      final double a = left == Int ? (int) left_bits : Double.longBitsToDouble(left_bits);
+      final double b = right == Int ? (int) right_bits : Double.longBitsToDouble(right_bits);
+      final double r;
+      switch (op){
+        case ADD -> r = a + b;
+        case SUB -> r = a - b;
+        case MULTI -> r = a * b;
+        case DIVIDE -> r = a / b;
+        case GT -> { return bool(a > b); }
+        case LT -> { return bool(a < b); }
+        default -> { return Boxed; }
+      }
+      bits = Double.doubleToRawLongBits(r);
+      return Real;
+
+    }
+
+    private byte bool(boolean value){
+      bits = value ? 1 : 0;
+      return Bool;
+    }
+
+    // condition of while and if, no Boolean is needed
+    boolean condition(ASTNode node){
+      final byte tag = eval_raw(node);
+      return tag == Bool ? bits != 0 : (boolean) box(tag);
+    }
+
+    // put the value to registers
+    private byte unbox(Object value){
+
+      if(value instanceof Integer i){
+        bits = i;
+        return Int;
+      }else if(value instanceof Double d){
+        bits = Double.doubleToRawLongBits(d);
+        return Real;
+      }else if(value instanceof Boolean b){
+        bits = b ? 1 : 0;
+        return Bool;
+      }
+      boxed = value;
+      return Boxed;
+
+    }
+
+    // the value of registers as an object
+    private Object box(byte tag){
+      return box(tag, bits, boxed);
+    }
+
+    private static Object box(byte tag, long _bits, Object _boxed){
+      return switch (tag){
+        case Int -> (int) _bits;
+        case Real -> Double.longBitsToDouble(_bits);
+        case Bool -> _bits != 0;
+        default -> _boxed;
+      };
+    }
+
+    private static VmyType type_of(byte tag, Object _boxed){
+      return switch (tag){
+        case Int -> VmyTypes.BuiltinType.Int;
+        case Real -> VmyTypes.BuiltinType.Double;
+        case Bool -> VmyTypes.BuiltinType.Boolean;
+        default -> Utils.get_obj_type(_boxed);
+      };
+    }
+
+    // store the registers to the slot
+    private byte store(int slot, byte tag){
+      tags[slot] = tag;
+      if(tag == Boxed)
+        stack[slot] = boxed;
+      else{
+        stack[slot] = null;
+        raw[slot] = bits;
+      }
+      return tag;
+    }
+
+    private Object load(int slot){
+      return tags[slot] == Boxed ? stack[slot] : box(tags[slot], raw[slot], null);
     }
 
     /**
@@ -1292,6 +2865,7 @@ public class AST {
      * @return call result , like : 1 + 2 -> 3
      */
     Object binary_op_call(String op, Object left , Object right){
+      if(VmyMetrics.Enabled) VmyMetrics.binary_op(op);
       if(Objects.isNull(right) || Objects.isNull(left))
         throw new EvaluatException(op + " can't handle null object");
       BinaryOps b_op = BinaryOps.OpsMapper.get(op);
@@ -1323,13 +2897,53 @@ public class AST {
       can_assign(variable.getType(), Utils.get_obj_type(value));
     }
 
+    /**
+     * the range is evaluated once, the loop counts on a java int and only stores it to the slot of variable
+     * @param loop {@link ForRange}
+     */
+    void do_for_range(ForRange loop){
+      final Number from = range_bound(eval_sub(loop.start));
+      final Number to = range_bound(eval_sub(loop.end));
+      if(!(from instanceof Integer && to instanceof Integer)){
+        wide_range(loop, Numbers.to_big(from), Numbers.to_big(to));
+        return;
+      }
+      final int end = (Integer) to;
+      final BlockNode body = loop.body;
+      final int slot = base + loop.slot;
+      for(int i = (Integer) from; i < end; i++){
+        stack[slot] = null;
+        tags[slot] = Int;
+        raw[slot] = i;
+        eval_sub(body);
+        if(returning) break;
+      }
+    }
+
+    // a bound out of int, the variable is a boxed Int of the smallest class
+    private void wide_range(ForRange loop, BigInteger from, BigInteger to){
+      final int slot = base + loop.slot;
+      for(BigInteger i = from; i.compareTo(to) < 0; i = i.add(BigInteger.ONE)){
+        stack[slot] = Numbers.normalize(i);
+        tags[slot] = Boxed;
+        eval_sub(loop.body);
+        if(returning) break;
+      }
+    }
+
+    private Number range_bound(Object bound){
+      if(get_value(bound) instanceof Number value && Numbers.is_integer(value))
+        return value;
+      throw new EvaluatException("range of for loop should be Int");
+    }
+
     /**
      * evaluate the code block if-else
      * @param if_else {@link IfElse}
      */
     void do_evaluate_if_else(IfElse if_else){
       ConditionNode the_if = if_else.TheIf;
-      if((boolean)eval_sub(the_if.condition)){
+      if(condition(the_if.condition)){
         eval_sub(the_if.body);
       }else if(!eval_elif(if_else.Elif) && Objects.nonNull(if_else.Else)){
         eval_sub(if_else.Else);
@@ -1338,7 +2952,7 @@ public class AST {
 
     boolean eval_elif(List<ConditionNode> _ifEls){
       for(ConditionNode _el : _ifEls){
-        if((boolean) eval_sub(_el.condition)){
+        if(condition(_el.condition)){
           eval_sub(_el.body);
           return true;
         }
@@ -1354,14 +2968,213 @@ public class AST {
      * @return
      */
     Object do_call(CallNode call_node){
-      // get params and check if the type is matched
-      // get the called function type
-      return FunctionSupport.call(
-          call_node.identifier,
-          call_node.params.elements.stream()
-              .map(param -> get_value(eval_sub(param)))
-              .toList()
-      );
+      List<ASTNode> elements = call_node.params.elements;
+      FunctionSupport.Declared declared = declared_function(call_node);
+      if(Objects.nonNull(declared)){
+        if(declared.target() instanceof UserFunction user)
+          return invoke(user.function, elements);
+        return declared.target().call(eval_args(elements));
+      }
+      // the call site picks the overload by the types of params and caches it
+      final int depth = call_depth;
+      final Object[] args = args_buffer(elements.size());
+      call_depth = depth + 1;
+      try{
+        // by index, an iterator may not be removed by the JIT
+        for(int i = 0; i < args.length; i++)
+          args[i] = get_value(eval_sub(elements.get(i)));
+        return call_node.call_site.call(builtins, args);
+      }finally {
+        Arrays.fill(args, null);
+        call_depth = depth;
+      }
+    }
+
+    /**
+     * the args array of a builtin call, it's reused by the calls of the same count of args at the same depth,
+     * a call in the args is one level deeper, so the arrays in use are not shared
+     */
+    private Object[] args_buffer(int arity){
+      if(call_depth == arg_buffers.length)
+        arg_buffers = Arrays.copyOf(arg_buffers, call_depth << 1);
+      Object[][] by_arity = arg_buffers[call_depth];
+      if(Objects.isNull(by_arity) || arity >= by_arity.length)
+        arg_buffers[call_depth] = by_arity = Arrays.copyOf(Objects.isNull(by_arity) ? new Object[0][] : by_arity, Math.max(arity + 1, 4));
+      Object[] args = by_arity[arity];
+      if(Objects.isNull(args))
+        by_arity[arity] = args = new Object[arity];
+      return args;
+    }
+
+    Object[] eval_args(List<ASTNode> elements){
+      Object[] args = new Object[elements.size()];
+      int i = 0;
+      for(ASTNode param : elements)
+        args[i++] = get_value(eval_sub(param));
+      return args;
+    }
+
+    /**
+     * find the function declared by script for the call, the result is cached by this evaluator
+     * @return {@link FunctionSupport.Declared} or null if it's not declared by script
+     */
+    FunctionSupport.Declared declared_function(CallNode call_node){
+
+      final FunctionSupport.FunctionTable table = _g.functions();
+      final DeclaredCache cache = declared_calls.get(call_node);
+      if(
+        Objects.nonNull(cache) &&
+        (Objects.nonNull(cache.declared()) || cache.version() == table.version())
+      ) return cache.declared();
+
+      FunctionSupport.Declared declared = table.get(call_node.identifier, call_node.params.elements.size());
+      declared_calls.put(call_node, new DeclaredCache(table.version(), declared));
+      return declared;
+
+    }
+
+    /**
+     * call a declared function, params are evaluated into the slots of the new frame directly
+     */
+    Object invoke(FunctionNode function, List<ASTNode> params){
+      final int frame = top;
+      push_args(function, params, frame);
+      return box(run_frame(function, frame));
+    }
+
+    /**
+     * call a declared function with evaluated params
+     */
+    Object invoke(FunctionNode function, Object[] params){
+      if(params.length != function.params.size())
+        throw new EvaluatException("function " + function.name + " needs " + function.params.size() + " params");
+      final int frame = top;
+      ensure_stack(frame + function.slots);
+      System.arraycopy(params, 0, stack, frame, params.length);
+      Arrays.fill(tags, frame, frame + params.length, Boxed);
+      top = frame + params.length;
+      return box(run_frame(function, frame));
+    }
+
+    private void push_args(FunctionNode function, List<ASTNode> params, int at){
+      ensure_stack(at + Math.max(function.slots, params.size()));
+      for(ASTNode param : params){
+        // evaluate first, the stack may be grown by the param evaluating
+        store(at++, eval_raw(param));
+        top = at;
+      }
+    }
+
+    /**
+     * run the function in frame, the params are already in slots,
+     * a tail call replaces the params and runs again in the same frame
+     * @return tag of the result, the result is in the registers
+     */
+    private byte run_frame(FunctionNode function, final int frame){
+
+      final int saved_base = base;
+      final FunctionNode saved_function = current;
+      try{
+        while(true){
+          check_params(function, frame);
+          base = frame;
+          current = function;
+          top = frame + function.slots;
+          Arrays.fill(stack, frame + function.params.size(), top, null);
+          Arrays.fill(tags, frame + function.params.size(), top, Boxed);
+
+          eval_sub(function.body);
+
+          returning = false;
+          if(Objects.nonNull(tail_function)){
+            function = tail_function;
+            tail_function = null;
+            System.arraycopy(stack, tail_args, stack, frame, function.params.size());
+            System.arraycopy(tags, tail_args, tags, frame, function.params.size());
+            System.arraycopy(raw, tail_args, raw, frame, function.params.size());
+            ensure_stack(frame + function.slots);
+            continue;
+          }
+          final byte tag = returned_tag;
+          bits = returned_bits;
+          boxed = returned;
+          returned_tag = Boxed;
+          returned = null;
+          return tag;
+        }
+      }finally {
+        Arrays.fill(stack, frame, Math.max(top, frame), null);
+        Arrays.fill(tags, frame, Math.max(top, frame), Boxed);
+        top = frame;
+        base = saved_base;
+        current = saved_function;
+      }
+
+    }
+
+    private void check_params(FunctionNode function, int frame){
+      for(int i=0; i<function.params.size(); i++)
+        if(Objects.nonNull(function.slot_types[i]) && (tags[frame + i] != Boxed || Objects.nonNull(stack[frame + i])))
+          can_assign(function.slot_types[i], type_of(tags[frame + i], stack[frame + i]));
+    }
+
+    private void ensure_stack(int size){
+      if(size > stack.length){
+        final int length = Math.max(size, stack.length << 1);
+        stack = Arrays.copyOf(stack, length);
+        tags = Arrays.copyOf(tags, length);
+        raw = Arrays.copyOf(raw, length);
+      }
+    }
+
+    /**
+     * return from function, if it returns a call of declared function, it won't call it here,
+     * the frame will be reused by the callee
+     */
+    void do_return(ReturnNode ret){
+
+      FunctionSupport.Declared declared;
+      if(
+        ret.is_tail_call() &&
+        Objects.nonNull(current) &&
+        Objects.nonNull(declared = declared_function((CallNode) ret.expression)) &&
+        declared.target() instanceof UserFunction user
+      ){
+        final int at = top;
+        push_args(user.function, ((CallNode) ret.expression).params.elements, at);
+        tail_function = user.function;
+        tail_args = at;
+      }else if(Objects.isNull(ret.expression)){
+        returned_tag = Boxed;
+        returned = null;
+      }else{
+        returned_tag = eval_raw(ret.expression);
+        returned_bits = bits;
+        returned = returned_tag == Boxed ? boxed : null;
+      }
+      returning = true;
+
+    }
+
+    /**
+     * the variable is looked up by the id of its name in the index of the frame, nothing is kept in the node,
+     * so the tree can be shared by frames and threads
+     */
+    Runtime.VariableWithName get_variable(IdentifierNode identifier){
+      final int symbol = identifier.symbol();
+      final Runtime.Variable variable = symbol != 0 ? _g.named(symbol) : _g.local(identifier.value);
+      // a variable may be declared with the name of function later
+      if(Objects.isNull(variable))
+        return function_value(identifier.value);
+      return variable instanceof Runtime.VariableWithName named ? named : Utils.variable_with_name(identifier.value, variable);
+    }
+
+    // a name of function is a value of it, like : pmap(xs, square)
+    private Runtime.VariableWithName function_value(String name){
+      final Callable reference = _g.functions().reference(name);
+      if(Objects.isNull(reference))
+        throw new EvaluatException("variable " + name + " haven't declared!");
+      return Utils.variable_with_name(name, Runtime.constant(VmyTypes.BuiltinType.Function, reference));
     }
 
     Runtime.VariableWithName get_variable(String name){
@@ -1390,6 +3203,8 @@ public class AST {
      */
     Object get_value(Object obj){
       if(obj instanceof Runtime.VariableWithName variable) {
+        // a function value isn't in the frame
+        if(variable.getValue() instanceof Callable function) return function;
         return Runtime.get_value(variable.name(), _g);
       }
       return obj;
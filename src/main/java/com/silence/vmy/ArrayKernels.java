@@ -0,0 +1,64 @@
+package com.silence.vmy;
+
+/**
+ * <p>element-wise and reducing loops of the array builtins, see {@link ArrayLib}</p>
+ * <p>
+ *   {@link VectorArrayKernels} runs them by SIMD of the Vector API if the module jdk.incubator.vector is added
+ *   (java --add-modules jdk.incubator.vector ...), else {@link ScalarArrayKernels} is used.
+ *   -Dvmy.vector=false turns the Vector API off.
+ * </p>
+ */
+interface ArrayKernels {
+
+  ArrayKernels Kernels = load();
+
+  private static ArrayKernels load(){
+
+    if(
+      !Boolean.parseBoolean(System.getProperty("vmy.vector", "true")) ||
+      ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()
+    ) return new ScalarArrayKernels();
+    try{
+      // loaded by name, the class links to the incubator module
+      return (ArrayKernels) Class.forName("com.silence.vmy.VectorArrayKernels").getDeclaredConstructor().newInstance();
+    }catch (ReflectiveOperationException | LinkageError e){
+      return new ScalarArrayKernels();
+    }
+
+  }
+
+  String name();
+
+  /**
+   * a + b of each element
+   * @throws ArithmeticException if an int element overflows
+   */
+  int[] add(int[] a, int[] b);
+
+  double[] add(double[] a, double[] b);
+
+  /**
+   * a * b of each element
+   * @throws ArithmeticException if an int element overflows
+   */
+  int[] mul(int[] a, int[] b);
+
+  double[] mul(double[] a, double[] b);
+
+  // sum of products, in long, it can't overflow for an int array
+  long dot(int[] a, int[] b);
+
+  double dot(double[] a, double[] b);
+
+  long sum(int[] a);
+
+  double sum(double[] a);
+
+  int min(int[] a);
+
+  double min(double[] a);
+
+  int max(int[] a);
+
+  double max(double[] a);
+}
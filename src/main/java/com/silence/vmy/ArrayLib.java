@@ -0,0 +1,251 @@
+package com.silence.vmy;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>arrays and the bulk functions of them, bound as builtin functions</p>
+ * <p>
+ *   an array is an int[], a double[] or an Object[] chosen by the type of its elements, like :
+ *   array(10, 0) is an int[], array(10, 0.0) is a double[], array_of(1, 2.5) is a double[].
+ *   the loops of bulk functions on int[] and double[] are done by {@link ArrayKernels}
+ * </p>
+ */
+public class ArrayLib {
+  private ArrayLib(){}
+
+  private static final ArrayKernels kernels = ArrayKernels.Kernels;
+
+  /**
+   * @param n length
+   * @param init initial value of each element, its type chooses the kind of array
+   */
+  @VmyFunction
+  public static Object array(int n, Object init){
+
+    if(n < 0)
+      throw new VmyRuntimeException("length of array can't be negative : " + n);
+    if(init instanceof Integer i){
+      int[] ints = new int[n];
+      if(i != 0) Arrays.fill(ints, i);
+      return ints;
+    }else if(init instanceof Double d){
+      double[] doubles = new double[n];
+      if(d != 0) Arrays.fill(doubles, d);
+      return doubles;
+    }
+    Object[] objects = new Object[n];
+    Arrays.fill(objects, init);
+    return objects;
+
+  }
+
+  // array_of(1, 2, 3), it's registered as varargs function by BuiltinOps
+  static Object array_of(Object[] elements){
+
+    boolean ints = true;
+    boolean numbers = true;
+    for(Object element : elements){
+      ints &= element instanceof Integer;
+      numbers &= element instanceof Integer || element instanceof Double;
+    }
+    if(ints){
+      int[] array = new int[elements.length];
+      for(int i = 0; i < array.length; i++) array[i] = (Integer) elements[i];
+      return array;
+    }else if(numbers){
+      double[] array = new double[elements.length];
+      for(int i = 0; i < array.length; i++) array[i] = ((Number) elements[i]).doubleValue();
+      return array;
+    }
+    return elements.clone();
+
+  }
+
+  @VmyFunction
+  public static int len(Object a){
+
+    if(a instanceof int[] ints) return ints.length;
+    else if(a instanceof double[] doubles) return doubles.length;
+    else if(a instanceof Object[] objects) return objects.length;
+    throw not_array("len", a);
+
+  }
+
+  @VmyFunction
+  public static Object add(Object a, Object b){
+
+    same_length("add", a, b);
+    if(a instanceof int[] x && b instanceof int[] y)
+      return kernels.add(x, y);
+    else if(is_numbers(a) && is_numbers(b))
+      return kernels.add(doubles(a), doubles(b));
+    return each(a, b, BinaryOps.ADD);
+
+  }
+
+  @VmyFunction
+  public static Object mul(Object a, Object b){
+
+    same_length("mul", a, b);
+    if(a instanceof int[] x && b instanceof int[] y)
+      return kernels.mul(x, y);
+    else if(is_numbers(a) && is_numbers(b))
+      return kernels.mul(doubles(a), doubles(b));
+    return each(a, b, BinaryOps.MULTI);
+
+  }
+
+  @VmyFunction
+  public static Object dot(Object a, Object b){
+
+    same_length("dot", a, b);
+    if(a instanceof int[] x && b instanceof int[] y)
+      return Numbers.normalize(kernels.dot(x, y));
+    else if(is_numbers(a) && is_numbers(b))
+      return kernels.dot(doubles(a), doubles(b));
+    Object acc = 0;
+    for(Object product : (Object[]) each(a, b, BinaryOps.MULTI))
+      acc = BinaryOps.ADD.apply(acc, product);
+    return acc;
+
+  }
+
+  @VmyFunction
+  public static Object sum(Object a){
+
+    if(a instanceof int[] ints)
+      return Numbers.normalize(kernels.sum(ints));
+    else if(a instanceof double[] doubles)
+      return kernels.sum(doubles);
+    Object acc = 0;
+    for(Object element : objects("sum", a))
+      acc = BinaryOps.ADD.apply(acc, element);
+    return acc;
+
+  }
+
+  @VmyFunction
+  public static Object min(Object a){
+
+    if(len(a) == 0)
+      throw new VmyRuntimeException("min of empty array");
+    if(a instanceof int[] ints)
+      return kernels.min(ints);
+    else if(a instanceof double[] doubles)
+      return kernels.min(doubles);
+    return reduce(objects("min", a), BinaryOps.LT);
+
+  }
+
+  @VmyFunction
+  public static Object max(Object a){
+
+    if(len(a) == 0)
+      throw new VmyRuntimeException("max of empty array");
+    if(a instanceof int[] ints)
+      return kernels.max(ints);
+    else if(a instanceof double[] doubles)
+      return kernels.max(doubles);
+    return reduce(objects("max", a), BinaryOps.GT);
+
+  }
+
+  /**
+   * set each element to the value
+   * @return the array
+   */
+  @VmyFunction
+  public static Object fill(Object a, Object value){
+
+    if(a instanceof int[] ints){
+      if(!(value instanceof Integer i))
+        throw new VmyRuntimeException("element of Int array can't be " + Utils.display(value));
+      Arrays.fill(ints, i);
+    }else if(a instanceof double[] doubles){
+      if(!(value instanceof Integer || value instanceof Double))
+        throw new VmyRuntimeException("element of Double array can't be " + Utils.display(value));
+      Arrays.fill(doubles, ((Number) value).doubleValue());
+    }else
+      Arrays.fill(objects("fill", a), value);
+    return a;
+
+  }
+
+  @VmyFunction
+  public static Object copy(Object a){
+
+    if(a instanceof int[] ints) return ints.clone();
+    else if(a instanceof double[] doubles) return doubles.clone();
+    return objects("copy", a).clone();
+
+  }
+
+  // name of the kernels in use, like : vector 256 bits
+  static String kernels(){
+    return kernels.name();
+  }
+
+  private static boolean is_numbers(Object a){
+    return a instanceof int[] || a instanceof double[];
+  }
+
+  private static double[] doubles(Object a){
+
+    if(a instanceof double[] doubles) return doubles;
+    int[] ints = (int[]) a;
+    double[] doubles = new double[ints.length];
+    for(int i = 0; i < ints.length; i++) doubles[i] = ints[i];
+    return doubles;
+
+  }
+
+  private static Object[] objects(String function, Object a){
+
+    if(a instanceof Object[] objects) return objects;
+    throw not_array(function, a);
+
+  }
+
+  static Object element(Object a, int i){
+
+    if(a instanceof int[] ints) return ints[i];
+    else if(a instanceof double[] doubles) return doubles[i];
+    return ((Object[]) a)[i];
+
+  }
+
+  // element-wise operation of arrays with any elements
+  private static Object[] each(Object a, Object b, BinaryOps op){
+
+    Object[] result = new Object[len(a)];
+    for(int i = 0; i < result.length; i++)
+      result[i] = op.apply(element(a, i), element(b, i));
+    return result;
+
+  }
+
+  // the element e that op(e, others) is true, like min by <
+  private static Object reduce(Object[] elements, BinaryOps op){
+
+    Object acc = elements[0];
+    for(int i = 1; i < elements.length; i++)
+      if((boolean) op.apply(elements[i], acc)) acc = elements[i];
+    return acc;
+
+  }
+
+  private static void same_length(String function, Object a, Object b){
+
+    final int length = len(a);
+    if(length != len(b))
+      throw new VmyRuntimeException(function + " of arrays with length " + length + " and " + len(b));
+
+  }
+
+  private static VmyRuntimeException not_array(String function, Object a){
+    return new VmyRuntimeException(
+      function + " needs an array, but got " + (Objects.isNull(a) ? "null" : Utils.get_obj_type(a))
+    );
+  }
+}
@@ -1,69 +1,182 @@
 package com.silence.vmy;
 
-import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * <p>binary operations of numbers, strings and any objects</p>
+ * <p>
+ *   integers are Integer, Long or BigInteger, the smallest one holding the value (see {@link Numbers#normalize}),
+ *   Int op Int is tried first without allocation except boxing, an overflowed result is promoted to Long,
+ *   Long to BigInteger (like {@link Math#addExact}). a Double with another number is a Double.
+ * </p>
+ */
 public enum BinaryOps {
   ADD{
 
     @Override
-    public Object apply(Object obj1, Object obj2) {
-      return shortStrategyApply(obj1, obj2, "add");
+    Object ints(int a, int b) {
+      final int r = a + b;
+      // overflowed if both operands have a sign different from the result
+      if(((a ^ r) & (b ^ r)) < 0) return (long) a + b;
+      return r;
+    }
+
+    @Override
+    Object longs(long a, long b) {
+      return Numbers.normalize(Math.addExact(a, b));
+    }
+
+    @Override
+    Object bigs(BigInteger a, BigInteger b) {
+      return Numbers.normalize(a.add(b));
+    }
+
+    @Override
+    Object doubles(double a, double b) {
+      return a + b;
     }
 
   },
   SUB{
 
     @Override
-    public Object apply(Object obj1, Object obj2) {
-      return shortStrategyApply(obj1, obj2, "sub");
+    Object ints(int a, int b) {
+      final int r = a - b;
+      if(((a ^ b) & (a ^ r)) < 0) return (long) a - b;
+      return r;
+    }
+
+    @Override
+    Object longs(long a, long b) {
+      return Numbers.normalize(Math.subtractExact(a, b));
+    }
+
+    @Override
+    Object bigs(BigInteger a, BigInteger b) {
+      return Numbers.normalize(a.subtract(b));
+    }
+
+    @Override
+    Object doubles(double a, double b) {
+      return a - b;
     }
 
   },
   MULTI {
+
     @Override
-    public Object apply(Object obj1, Object obj2) {
-      return shortStrategyApply(obj1, obj2, "multi");
+    Object ints(int a, int b) {
+      return Numbers.normalize((long) a * b);
     }
+
+    @Override
+    Object longs(long a, long b) {
+      return Numbers.normalize(Math.multiplyExact(a, b));
+    }
+
+    @Override
+    Object bigs(BigInteger a, BigInteger b) {
+      return Numbers.normalize(a.multiply(b));
+    }
+
+    @Override
+    Object doubles(double a, double b) {
+      return a * b;
+    }
+
   },
   DIVIDE {
 
     @Override
-    public Object apply(Object obj1, Object obj2) {
-      return shortStrategyApply(obj1, obj2, "divide");
+    Object ints(int a, int b) {
+      // Integer.MIN_VALUE / -1 is the only overflow
+      if(b == -1) return Numbers.normalize(-(long) a);
+      return a / b;
+    }
+
+    @Override
+    Object longs(long a, long b) {
+      if(a == Long.MIN_VALUE && b == -1)
+        throw new ArithmeticException("long overflow");
+      return Numbers.normalize(a / b);
+    }
+
+    @Override
+    Object bigs(BigInteger a, BigInteger b) {
+      return Numbers.normalize(a.divide(b));
+    }
+
+    @Override
+    Object doubles(double a, double b) {
+      return a / b;
     }
 
   },
   Concat {
     @Override
     public Object apply(Object obj1, Object obj2) {
-      return obj1.toString() + obj2.toString();
+      return Utils.display(obj1) + Utils.display(obj2);
     }
   },
   GT{ /* > */
+
     @Override
-    public Object apply(Object obj1, Object obj2) {
-      return shortStrategyApply(obj1, obj2, "gt");
+    Object ints(int a, int b) {
+      return a > b;
+    }
+
+    @Override
+    Object longs(long a, long b) {
+      return a > b;
     }
+
+    @Override
+    Object bigs(BigInteger a, BigInteger b) {
+      return a.compareTo(b) > 0;
+    }
+
+    @Override
+    Object doubles(double a, double b) {
+      return a > b;
+    }
+
   },
   LT{/* < */
+
     @Override
-    public Object apply(Object obj1, Object obj2) {
-      return shortStrategyApply(obj1, obj2, "lt");
+    Object ints(int a, int b) {
+      return a < b;
+    }
+
+    @Override
+    Object longs(long a, long b) {
+      return a < b;
     }
+
+    @Override
+    Object bigs(BigInteger a, BigInteger b) {
+      return a.compareTo(b) < 0;
+    }
+
+    @Override
+    Object doubles(double a, double b) {
+      return a < b;
+    }
+
   },
   EQ{/* == */
     @Override
     public Object apply(Object obj1, Object obj2) {
-      return Objects.equals(obj1, obj2);
+      return equal(obj1, obj2);
     }
   },
   NEQ {
     @Override
     public Object apply(Object obj1, Object obj2) {
-      return !Objects.equals(obj1, obj2);
+      return !equal(obj1, obj2);
     }
   }
   ;
@@ -86,108 +199,55 @@ public enum BinaryOps {
     );
   }
 
-  static Object shortStrategyApply(Object p1, Object p2, String name){
-
-    if(p1 instanceof Number n1 && p2 instanceof Number n2){
-      if(n1 instanceof Integer && n2 instanceof Integer ){
-        return invoke(p1, p2, name, int.class);
-      }else if(n1 instanceof Double  && n2 instanceof Double ){
-        return invoke(p1, p2, name, double.class);
-      }else{
-        return invoke(asDouble(p1),asDouble(p2), name, double.class);
-      }
-    }else
-      throw new OpsException("ops not support not Number type");
-
-  }
-
-  static double asDouble(Object obj){
-
-    if(obj instanceof Integer p1int){
-      return (double) p1int;
-    }else if(obj instanceof Double p1double)
-      return p1double;
-    else 
-      throw new OpsException("can't convert" + obj.getClass().getName() +" to double");
-
-  }
-
   /**
-   * call this class static function
-   * @param p1
-   * @param p2
-   * @param name
-   * @param type
-   * @return
+   * numeric operations, Int op Int goes first
    */
-  static Object invoke( Object p1, Object p2, String name, Class<?> type){
-    
-    MethodHandle method = switch (name){
-      case "gt", "eq", "lt" -> Utils.getOpsStaticMethod(name, boolean.class, type, type);
-      default -> Utils.getOpsStaticMethod(name, type, type, type);
-    };
-
-    try {
-      return Objects.isNull(method) ? null : method.invoke(p1, p2);
-    } catch (Throwable e) {
-      e.printStackTrace();
-      return null;
-    }
-
-  }
-  
-  public abstract Object apply(Object obj1, Object obj2);
-
-  static boolean lt(int a, int b){
-    return a < b;
-  }
-
-  static boolean lt(double a, double b){
-    return a < b;
-  }
-
-  static boolean eq(int a, int b){
-    return a == b;
-  }
-
-  static boolean eq(double a, double b){
-    return a == b;
-  }
-  static boolean gt(int a, int b){
-    return a > b;
-  }
+  public Object apply(Object obj1, Object obj2){
+    if(obj1 instanceof Integer a && obj2 instanceof Integer b)
+      return ints(a, b);
+    return numeric(obj1, obj2);
+  }
+
+  // the operands are promoted to the wider one of them
+  private Object numeric(Object p1, Object p2){
+
+    final int rank = Math.max(Numbers.rank(p1), Numbers.rank(p2));
+    if(rank == Numbers.Floating)
+      return doubles(((Number) p1).doubleValue(), ((Number) p2).doubleValue());
+    if(rank != Numbers.Big)
+      try{
+        return longs(((Number) p1).longValue(), ((Number) p2).longValue());
+      }catch (ArithmeticException overflow){
+        if(((Number) p2).longValue() == 0) throw overflow; // divided by zero
+      }
+    return bigs(Numbers.to_big((Number) p1), Numbers.to_big((Number) p2));
 
-  static boolean gt(double a, double b){
-    return a > b;
   }
 
-  static int divide(int a, int b){
-    return a / b;
+  Object ints(int a, int b){
+    return longs(a, b);
   }
 
-  static double divide(double a, double b){
-    return a / b;
+  // a ByteSlice is equal to the String of the same chars
+  static boolean equal(Object obj1, Object obj2){
+    if(obj1 instanceof ByteSlice || obj2 instanceof ByteSlice)
+      return obj1 instanceof CharSequence a && obj2 instanceof CharSequence b && CharSequence.compare(a, b) == 0;
+    return Objects.equals(obj1, obj2);
   }
 
-  static  int multi(int a, int b) {
-    return a * b;
-  }
-  static  double multi(double a, double b){
-    return a * b;
-  }
-  static int add(int a, int b){
-    return a + b;
+  /**
+   * @throws ArithmeticException if the result overflows, then it's done by {@link #bigs}
+   */
+  Object longs(long a, long b){
+    throw new OpsException("op " + name() + " not support numbers");
   }
 
-  static int sub(int a, int b){
-    return a - b;
+  Object bigs(BigInteger a, BigInteger b){
+    throw new OpsException("op " + name() + " not support numbers");
   }
 
-  static double add(double a, double b) {
-    return a + b;
+  Object doubles(double a, double b){
+    throw new OpsException("op " + name() + " not support numbers");
   }
 
-  static double sub(double a, double b){
-    return a - b;
-  }
 }
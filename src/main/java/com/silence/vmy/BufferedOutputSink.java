@@ -0,0 +1,229 @@
+package com.silence.vmy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>an {@link OutputSink} writes to a reusable byte buffer, the buffer is written to the channel when</p>
+ * <p>1. it's full</p>
+ * <p>2. a line ends and the last flush is older than the flush interval (0 means each line)</p>
+ * <p>3. {@link #flush()} is called</p>
+ * <p>numbers are formatted into the buffer directly, no string is built for them</p>
+ */
+public class BufferedOutputSink implements OutputSink {
+  public static final int DefaultSize = 1 << 16;
+  public static final long DefaultFlushInterval = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final WritableByteChannel channel;
+  private final byte[] buffer;
+  private final ByteBuffer view;
+  private final long flush_interval;
+  private int count;
+  private long last_flush;
+
+  public BufferedOutputSink(OutputStream out){
+    this(Channels.newChannel(out), DefaultSize, DefaultFlushInterval);
+  }
+
+  /**
+   * @param _channel where bytes go
+   * @param size size of buffer
+   * @param _flush_interval nanoseconds, 0 means flush at each new line
+   */
+  public BufferedOutputSink(WritableByteChannel _channel, int size, long _flush_interval){
+    channel = _channel;
+    buffer = new byte[Math.max(size, 64)];
+    view = ByteBuffer.wrap(buffer);
+    flush_interval = _flush_interval;
+    last_flush = System.nanoTime();
+  }
+
+  @Override
+  public void write(CharSequence chars) {
+
+    // the bytes are utf-8 already
+    if(chars instanceof ByteSlice slice){
+      write(slice);
+      return;
+    }
+    final int length = chars.length();
+    for(int i=0; i<length; i++){
+      char c = chars.charAt(i);
+      if(c < 0x80){
+        if(count == buffer.length) flush_buffer();
+        buffer[count++] = (byte) c;
+      }else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))){
+        write_code_point(Character.toCodePoint(c, chars.charAt(++i)));
+      }else write_code_point(c);
+    }
+
+  }
+
+  private void write(ByteSlice slice){
+    for(int from = 0, size = slice.size(); from < size; ){
+      if(count == buffer.length) flush_buffer();
+      final int n = Math.min(size - from, buffer.length - count);
+      slice.copy(from, buffer, count, n);
+      count += n;
+      from += n;
+    }
+  }
+
+  @Override
+  public void write(char c) {
+    if(c < 0x80){
+      ensure(1);
+      buffer[count++] = (byte) c;
+    }else write_code_point(c);
+  }
+
+  // utf-8
+  private void write_code_point(int cp){
+
+    ensure(4);
+    if(cp < 0x800){
+      buffer[count++] = (byte) (0xC0 | (cp >> 6));
+    }else if(cp < 0x10000){
+      if(Character.isSurrogate((char) cp)){
+        buffer[count++] = '?';
+        return;
+      }
+      buffer[count++] = (byte) (0xE0 | (cp >> 12));
+      buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+    }else{
+      buffer[count++] = (byte) (0xF0 | (cp >> 18));
+      buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+      buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+    }
+    buffer[count++] = (byte) (0x80 | (cp & 0x3F));
+
+  }
+
+  @Override
+  public void write(int i) {
+    write((long) i);
+  }
+
+  @Override
+  public void write(long l) {
+
+    if(l == Long.MIN_VALUE){
+      write("-9223372036854775808");
+      return;
+    }
+    ensure(20);
+    if(l < 0){
+      buffer[count++] = '-';
+      l = -l;
+    }
+    final int start = count;
+    do{
+      buffer[count++] = (byte) ('0' + (l % 10));
+      l /= 10;
+    }while(l != 0);
+    reverse(start, count - 1);
+
+  }
+
+  private static final double[] Power = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+      1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17
+  };
+  // 2^53, longs below it are exact in double
+  private static final double ExactLimit = 9.007199254740992E15;
+
+  /**
+   * same output as {@link Double#toString(double)},
+   * a value in [0.001, 10^7) is written by its shortest decimal fraction which rounds back to it,
+   * the others fallback to {@link Double#toString(double)}
+   */
+  @Override
+  public void write(double d) {
+
+    final double abs = Math.abs(d);
+    if(abs >= 1e-3 && abs < 1e7){
+      for(int p=0; p<Power.length; p++){
+        final double scaled = abs * Power[p];
+        if(scaled >= ExactLimit) break;
+        final long digits = Math.round(scaled);
+        if(digits / Power[p] != abs) continue;
+        // integer part . fraction part
+        final long unit = (long) Power[p];
+        if(d < 0) write('-');
+        write(digits / unit);
+        write('.');
+        if(p == 0){
+          write('0');
+          return;
+        }
+        ensure(p);
+        long fraction = digits % unit;
+        for(int i=count + p - 1; i>=count; i--){
+          buffer[i] = (byte) ('0' + (fraction % 10));
+          fraction /= 10;
+        }
+        count += p;
+        return;
+      }
+    }
+    write(Double.toString(d));
+
+  }
+
+  @Override
+  public void write(boolean b) {
+    write(b ? "true" : "false");
+  }
+
+  @Override
+  public void newline() {
+
+    write('\n');
+    if(flush_interval <= 0){
+      flush();
+      return;
+    }
+    long now = System.nanoTime();
+    if(now - last_flush >= flush_interval)
+      flush();
+
+  }
+
+  @Override
+  public void flush() {
+    flush_buffer();
+    last_flush = System.nanoTime();
+  }
+
+  private void ensure(int size){
+    if(count + size > buffer.length)
+      flush_buffer();
+  }
+
+  private void flush_buffer(){
+
+    if(count == 0) return;
+    view.clear().limit(count);
+    try {
+      while(view.hasRemaining())
+        channel.write(view);
+    } catch (IOException e) {
+      throw new VmyRuntimeException("output failed : " + e.getMessage());
+    } finally {
+      count = 0;
+    }
+
+  }
+
+  private void reverse(int from, int to){
+    while(from < to){
+      byte temp = buffer[from];
+      buffer[from++] = buffer[to];
+      buffer[to--] = temp;
+    }
+  }
+}
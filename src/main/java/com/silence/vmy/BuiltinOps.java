@@ -3,11 +3,12 @@ package com.silence.vmy;
 import com.silence.vmy.FunctionSupport.FunctionFactory;
 import com.silence.vmy.FunctionSupport.FunctionRegister;
 import com.silence.vmy.FunctionSupport.FunctionType;
+import com.silence.vmy.FunctionSupport.Overload;
 
 import java.util.*;
 
 
-public class BuiltinOps 
+public class BuiltinOps
   implements FunctionRegister, FunctionFactory
 {
   private BuiltinOps(){}
@@ -29,25 +30,137 @@ public class BuiltinOps
     return INSTANCE;
   }
 
-  private TreeMap<FunctionType, List<Callable>> type_mapper = new TreeMap<>(Utils::function_type_compare);
-  private TreeMap<String, List<Callable>> name_mapper = new TreeMap<>();
+  /**
+   * new builtins with the default functions, functions registered to it are not seen by others
+   */
+  public static BuiltinOps create(){
+    BuiltinOps builtins = new BuiltinOps();
+    builtins.register_builtins();
+    return builtins;
+  }
+
+  // function name -> all overloads of the name
+  private final Map<String, Overloads> name_mapper = new HashMap<>();
+
+  /**
+   * overloads of one function name, indexed by the count of params
+   */
+  private static final class Overloads {
+    private Overload[][] by_arity = new Overload[0][];
+    private Overload[] varargs = new Overload[0];
+
+    void add(Overload overload){
+
+      FunctionType type = overload.type();
+      if(type.varargs()){
+        varargs = append(varargs, overload);
+        return;
+      }
+      int arity = type.types().size();
+      if(arity >= by_arity.length)
+        by_arity = Arrays.copyOf(by_arity, arity + 1);
+      by_arity[arity] = append(Objects.isNull(by_arity[arity]) ? new Overload[0] : by_arity[arity], overload);
+
+    }
+
+    /**
+     * the overload with max score wins, exact arity overloads go first
+     */
+    Overload best(VmyType[] arg_types){
+
+      Overload best = null;
+      int best_score = -1;
+      if(arg_types.length < by_arity.length && Objects.nonNull(by_arity[arg_types.length]))
+        for(Overload overload : by_arity[arg_types.length]){
+          int score = FunctionSupport.match_score(overload.type(), arg_types);
+          if(score > best_score){
+            best = overload;
+            best_score = score;
+          }
+        }
+      if(Objects.nonNull(best)) return best;
+      for(Overload overload : varargs){
+        int score = FunctionSupport.match_score(overload.type(), arg_types);
+        if(score > best_score){
+          best = overload;
+          best_score = score;
+        }
+      }
+      return best;
+
+    }
+
+    boolean accepts(VmyType[] arg_types){
+
+      if(arg_types.length < by_arity.length && Objects.nonNull(by_arity[arg_types.length]))
+        for(Overload overload : by_arity[arg_types.length])
+          if(FunctionSupport.may_match(overload.type(), arg_types)) return true;
+      for(Overload overload : varargs)
+        if(FunctionSupport.may_match(overload.type(), arg_types)) return true;
+      return false;
+
+    }
+
+    boolean contains(FunctionType type){
+
+      Overload[] same_kind = type.varargs() ?
+        varargs : type.types().size() < by_arity.length ?
+        by_arity[type.types().size()] :
+        null;
+      if(Objects.isNull(same_kind)) return false;
+      for(Overload overload : same_kind)
+        if(Utils.function_type_compare(overload.type(), type) == 0) return true;
+      return false;
+
+    }
+
+    private static Overload[] append(Overload[] overloads, Overload overload){
+      Overload[] update = Arrays.copyOf(overloads, overloads.length + 1);
+      update[overloads.length] = overload;
+      return update;
+    }
+  }
 
   @Override
   public Callable get_function(String name, FunctionType type) {
 
-    // just looking by name
-    List<Callable> with_name = name_mapper.get(name);
-    return Objects.isNull(with_name) ? null : with_name.get(0);
+    Overloads with_name = name_mapper.get(name);
+    if(Objects.isNull(with_name)) return null;
+    Overload overload = with_name.best(type.types().toArray(new VmyType[0]));
+    return Objects.isNull(overload) ? null : overload.callable();
+
+  }
+
+  @Override
+  public Overload resolve(String name, Object[] args) {
+
+    Overloads with_name = name_mapper.get(name);
+    return Objects.isNull(with_name) ? null : with_name.best(FunctionSupport.arg_types(args));
+
+  }
+
+  public boolean contains(String name){
+    return name_mapper.containsKey(name);
+  }
+
+  /**
+   * if some overload of the function may be called with args of {@code arg_types}, used by type checking
+   * @param arg_types types of args, {@link VmyTypes.BuiltinType#Any} if unknown
+   */
+  public boolean accepts(String name, VmyType[] arg_types){
+
+    Overloads with_name = name_mapper.get(name);
+    return Objects.nonNull(with_name) && with_name.accepts(arg_types);
 
   }
 
   @Override
   public void register(String name, FunctionType type, Callable callable) {
 
-    if(name_mapper.containsKey(name))
+    Overloads overloads = name_mapper.computeIfAbsent(name, key -> new Overloads());
+    if(overloads.contains(type))
       Utils.warning("registered function : " + Utils.function_to_string(name, type));
-    type_mapper.computeIfAbsent(type, key -> new ArrayList<>()).add(callable);
-    name_mapper.computeIfAbsent(name, key -> new ArrayList<>()).add(callable);
+    overloads.add(new Overload(name, type, callable));
 
   }
 
@@ -57,14 +170,21 @@ public class BuiltinOps
   private void register_builtins(){
     register(
         Identifiers.Print,
-        FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Any),
+        FunctionSupport.varargsFunctionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Any),
         params -> {
-          for(Object param : params)
-            System.out.print(param);
-          System.out.println();
+          OutputSink.current().write_line(params);
           return null;
         }
     );
+    register(
+        "array_of",
+        FunctionSupport.varargsFunctionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Any),
+        ArrayLib::array_of
+    );
+    NativeFunctions.bind(StdLib.class, this);
+    NativeFunctions.bind(ArrayLib.class, this);
+    NativeFunctions.bind(ParallelLib.class, this);
+    NativeFunctions.bind(CsvLib.class, this);
   }
 
 }
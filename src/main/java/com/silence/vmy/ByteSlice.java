@@ -0,0 +1,148 @@
+package com.silence.vmy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * <p>a String of vmy viewing bytes (utf-8) of a buffer, nothing is copied until {@link #toString()}</p>
+ * <p>
+ *   it's used for the records of stream mode and {@link CsvReader}, the buffer is a heap one or a mapped file,
+ *   a slice is reused for the next record, so it's only valid for the current record, to_string(line) keeps a copy.
+ *   chars of an ascii slice are read from bytes directly, others are decoded once
+ * </p>
+ */
+public final class ByteSlice implements CharSequence {
+  private ByteBuffer bytes;
+  private int offset;
+  private int length;
+  private boolean ascii;
+  // decoded, null if not yet
+  private String string;
+  // for parse, created when it's first used
+  private Numbers.Literal literal;
+
+  ByteSlice(){}
+
+  ByteSlice(ByteBuffer _bytes, int _offset, int _length, boolean _ascii){
+    set(_bytes, _offset, _length, _ascii);
+  }
+
+  ByteSlice set(ByteBuffer _bytes, int _offset, int _length, boolean _ascii){
+    bytes = _bytes;
+    offset = _offset;
+    length = _length;
+    ascii = _ascii;
+    string = null;
+    return this;
+  }
+
+  // count of bytes
+  int size(){
+    return length;
+  }
+
+  /**
+   * copy bytes[from, from + n) of the slice to dst
+   */
+  void copy(int from, byte[] dst, int at, int n){
+    bytes.get(offset + from, dst, at, n);
+  }
+
+  @Override
+  public int length() {
+    return ascii ? length : toString().length();
+  }
+
+  @Override
+  public char charAt(int index) {
+    if(!ascii) return toString().charAt(index);
+    if(index < 0 || index >= length)
+      throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length);
+    return (char) bytes.get(offset + index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if(!ascii) return toString().subSequence(start, end);
+    if(start < 0 || end > length || start > end)
+      throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") out of bounds for length " + length);
+    return new ByteSlice(bytes, offset + start, end - start, true);
+  }
+
+  /**
+   * parse the decimal number from bytes, like : 12, -1.5, blanks around it are skipped
+   * @return an Int of the smallest class, or a Double
+   * @throws NumberFormatException if it's not a number
+   */
+  Number parse(){
+
+    int i = offset;
+    int end = offset + length;
+    while(i < end && is_blank(bytes.get(i))) i++;
+    while(end > i && is_blank(bytes.get(end - 1))) end--;
+    final boolean negative = i < end && bytes.get(i) == '-';
+    if(i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) i++;
+    if(i == end)
+      throw new NumberFormatException("not a number : " + this);
+
+    if(Objects.isNull(literal)) literal = new Numbers.Literal();
+    final Numbers.Literal decoder = literal.reset();
+    boolean digits = false;
+    for(; i < end; i++){
+      final byte b = bytes.get(i);
+      if(b >= '0' && b <= '9'){
+        decoder.digit((char) b);
+        digits = true;
+      }else if(b == '.' && !decoder.floating())
+        decoder.point();
+      // like 1e5, rare
+      else
+        return Double.parseDouble(toString().trim());
+    }
+    if(!digits)
+      throw new NumberFormatException("not a number : " + this);
+    final Number value = decoder.value();
+    return negative ? Numbers.negate(value) : value;
+
+  }
+
+  private static boolean is_blank(byte b){
+    return b == ' ' || b == '\t';
+  }
+
+  @Override
+  public String toString() {
+    if(Objects.isNull(string)){
+      if(bytes.hasArray())
+        string = new String(bytes.array(), bytes.arrayOffset() + offset, length, charset());
+      else{
+        byte[] copy = new byte[length];
+        copy(0, copy, 0, length);
+        string = new String(copy, charset());
+      }
+    }
+    return string;
+  }
+
+  private Charset charset(){
+    return ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+  }
+
+  // equal to the CharSequence of the same chars, a String isn't equal to it, see BinaryOps.EQ
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof CharSequence chars && CharSequence.compare(this, chars) == 0;
+  }
+
+  // same as the hash of the String
+  @Override
+  public int hashCode() {
+    if(!ascii) return toString().hashCode();
+    int hash = 0;
+    for(int i = offset, end = offset + length; i < end; i++)
+      hash = 31 * hash + bytes.get(i);
+    return hash;
+  }
+}
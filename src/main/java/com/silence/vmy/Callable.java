@@ -4,5 +4,16 @@ package com.silence.vmy;
  * builtin function support, every builtin function should implement this interface
  */
 public interface Callable {
+  /**
+   * @param params the array may be reused by the caller after the call, a callable keeping the params copies them
+   */
   Object call(Object ...params);
+
+  /**
+   * a callable used by one thread only, like a worker of parallel builtins,
+   * a function declared by script gets an evaluator (and frames) of its own for it
+   */
+  default Callable for_worker(){
+    return this;
+  }
 }
@@ -0,0 +1,119 @@
+package com.silence.vmy;
+
+import java.io.FileNotFoundException;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>a script parsed and type checked once, it can be run many times, by many threads at the same time</p>
+ * <p>
+ *   each run has a global frame of its own, the input variables (bindings) are declared in it before running,
+ *   like :
+ * </p>
+ * <pre>
+ *   CompiledScript rule = CompiledScript.compile("let passed = (score > 60)", "score");
+ *   rule.run(Map.of("score", 80)).get("passed"); // true
+ * </pre>
+ * <p>it can be saved by {@link #snapshot()}, the restored one runs with the default builtins</p>
+ */
+public final class CompiledScript implements Serializable {
+  private static final long serialVersionUID = 1L;
+  private final AST.VmyAST ast;
+  private final Set<String> inputs;
+  private final transient BuiltinOps builtins;
+
+  private CompiledScript(AST.VmyAST _ast, Set<String> _inputs, BuiltinOps _builtins){
+    ast = _ast;
+    inputs = _inputs;
+    builtins = _builtins;
+  }
+
+  /**
+   * @param script vmy script
+   * @param inputs names of input variables, they can be of any type
+   * @throws TypeCheckException if the script has type errors
+   */
+  public static CompiledScript compile(String script, String... inputs){
+    return compile(script, BuiltinOps.builtinOps(), inputs);
+  }
+
+  public static CompiledScript compile(String script, BuiltinOps builtins, String... inputs){
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(script, false)){
+      return compile(scanner, builtins, inputs);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new VmyRuntimeException(e.getMessage());
+    }
+  }
+
+  public static CompiledScript compile_file(String file, String... inputs){
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(file)){
+      return compile(scanner, BuiltinOps.builtinOps(), inputs);
+    } catch (FileNotFoundException e) {
+      throw new VmyRuntimeException("script " + file + " not found");
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new VmyRuntimeException(e.getMessage());
+    }
+  }
+
+  static CompiledScript compile(Scanner scanner, BuiltinOps builtins, String... inputs){
+
+    AST.VmyAST ast = AST.build(scanner);
+    // inputs are Any when checking, the assignments of them are checked when running
+    Global template = new Global(builtins);
+    for(String input : inputs)
+      Runtime.declare_variable(template, input, VmyTypes.BuiltinType.Any);
+    AST.check(ast, template);
+    return new CompiledScript(ast, Set.of(inputs), builtins);
+
+  }
+
+  /**
+   * run the script in a new frame
+   * @param bindings values of input variables, each of the inputs should have a value
+   * @return name -> value of all global variables after running, inputs included
+   */
+  public Map<String, Object> run(Map<String, ?> bindings){
+    Global global = new Global(builtins);
+    bind(global, bindings);
+    AST.evaluator(global).eval(ast);
+    return global.values();
+  }
+
+  Global bind(Global global, Map<String, ?> bindings){
+
+    for(String input : inputs){
+      Object value = bindings.get(input);
+      if(Objects.isNull(value))
+        throw new VmyRuntimeException("input " + input + " has no value");
+      global.put(input, Runtime.declare_variable(global, input, Utils.get_obj_type(value)), value);
+    }
+    return global;
+
+  }
+
+  public byte[] snapshot(){
+    return Snapshot.write(this);
+  }
+
+  public static CompiledScript restore(byte[] image){
+    return Snapshot.read(image, CompiledScript.class);
+  }
+
+  private Object readResolve(){
+    return new CompiledScript(ast, inputs, BuiltinOps.builtinOps());
+  }
+
+  AST.VmyAST ast(){
+    return ast;
+  }
+
+  public Set<String> inputs(){
+    return inputs;
+  }
+}
@@ -0,0 +1,52 @@
+package com.silence.vmy;
+
+import java.nio.file.Path;
+
+/**
+ * <p>csv builtins, bound as builtin functions, like :</p>
+ * <pre>
+ *   fn add_price(fields, nr) {
+ *     total = total + to_double(fields[2])
+ *   }
+ *   csv_each("orders.csv", add_price)
+ * </pre>
+ * <p>the fields are views of the mapped file, see {@link CsvReader}, to_string(field) keeps a copy</p>
+ */
+public class CsvLib {
+  private CsvLib(){}
+
+  /**
+   * call f(fields, nr) for each record of the file, fields are separated by ','
+   * @return count of records
+   */
+  @VmyFunction
+  public static long csv_each(String path, Callable f){
+    return each(path, (byte) ',', f);
+  }
+
+  /**
+   * @param separator one ascii char, like "|"
+   */
+  @VmyFunction
+  public static long csv_each(String path, String separator, Callable f){
+    if(separator.length() != 1 || separator.charAt(0) >= 0x80 || separator.charAt(0) == '"')
+      throw new VmyRuntimeException("separator of csv should be one ascii char, but got " + separator);
+    return each(path, (byte) separator.charAt(0), f);
+  }
+
+  private static long each(String path, byte separator, Callable f){
+
+    // one evaluator for all records
+    final Callable worker = f.for_worker();
+    final Object[] args = new Object[2];
+    try(CsvReader reader = CsvReader.open(Path.of(path), separator)){
+      while(reader.next()){
+        args[0] = reader.fields();
+        args[1] = Numbers.normalize(reader.records());
+        worker.call(args);
+      }
+      return reader.records();
+    }
+
+  }
+}
@@ -0,0 +1,203 @@
+package com.silence.vmy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>reads delimited records (csv) of a file, the file is mapped by windows, nothing is copied for a record</p>
+ * <p>
+ *   a field is a {@link ByteSlice} of the window, parsed to number from bytes by to_int and to_double,
+ *   the fields are reused by the next record. a field may be quoted like "a,b", "" in it is a quote,
+ *   then the separator and new line in it are chars of the field. empty lines are skipped
+ * </p>
+ * <pre>
+ *   try(CsvReader reader = CsvReader.open(path, (byte) ',')){
+ *     while(reader.next())
+ *       use(reader.fields());
+ *   }
+ * </pre>
+ */
+public final class CsvReader implements Closeable {
+  static final int Window = 1 << 26;
+
+  private final FileChannel channel;
+  private final long size;
+  private final byte separator;
+
+  private MappedByteBuffer window;
+  // file position of window[0]
+  private long window_start;
+  private int window_size;
+  // start of the next record in window
+  private int position;
+  private long records;
+
+  // [starts[i], ends[i]) of the fields of current record, and if it's quoted
+  private int[] starts = new int[8];
+  private int[] ends = new int[8];
+  private boolean[] quoted = new boolean[8];
+  private ByteSlice[] slices = new ByteSlice[0];
+  private Object[] fields = new Object[0];
+
+  private CsvReader(FileChannel _channel, byte _separator, int _window_size) throws IOException {
+    channel = _channel;
+    size = _channel.size();
+    separator = _separator;
+    window_size = _window_size;
+    map(0);
+  }
+
+  public static CsvReader open(Path path, byte separator){
+    return open(path, separator, Window);
+  }
+
+  static CsvReader open(Path path, byte separator, int window_size){
+    try {
+      return new CsvReader(FileChannel.open(path, StandardOpenOption.READ), separator, window_size);
+    } catch (IOException e) {
+      throw new VmyRuntimeException("can't read " + path + " : " + e.getMessage());
+    }
+  }
+
+  private void map(long start) throws IOException {
+    window_start = start;
+    window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(window_size, size - start));
+    position = 0;
+  }
+
+  /**
+   * move to the next record
+   * @return false if there is no more
+   */
+  public boolean next(){
+    try {
+      while(true){
+        final int limit = window.limit();
+        if(position == limit && window_start + limit == size) return false;
+        final int end = scan(position, limit);
+        if(end >= 0){
+          // an empty line
+          if(end == position || (end == position + 1 && window.get(position) == '\r')){
+            position = end + 1;
+            continue;
+          }
+          position = end + 1;
+          records++;
+          return true;
+        }
+        if(window_start + limit == size){
+          // the last record has no new line
+          position = limit;
+          records++;
+          return true;
+        }
+        // the record is cut by the window, map the next window from it, a record longer than a window doubles it
+        if(position == 0) window_size = Math.multiplyExact(window_size, 2);
+        map(window_start + position);
+      }
+    } catch (IOException e) {
+      throw new VmyRuntimeException("read failed : " + e.getMessage());
+    }
+  }
+
+  /**
+   * find the fields of the record from {@code from}
+   * @return the index of the new line ending the record, -1 if it's not ended in the window
+   */
+  private int scan(final int from, final int limit){
+
+    final MappedByteBuffer bytes = window;
+    int count = 0;
+    int start = from;
+    int bits = 0;
+    boolean in_quotes = false;
+    int i = from;
+    for(; i < limit; i++){
+      final byte b = bytes.get(i);
+      bits |= b;
+      if(b == '"'){
+        if(!in_quotes) in_quotes = i == start;
+        // "" in quotes is a quote, the next byte is skipped
+        else if(i + 1 < limit && bytes.get(i + 1) == '"') i++;
+        else in_quotes = false;
+      }else if(!in_quotes && (b == separator || b == '\n')){
+        count = field(count, start, b == '\n' && i > start && bytes.get(i - 1) == '\r' ? i - 1 : i);
+        start = i + 1;
+        if(b == '\n') break;
+      }
+    }
+    if(i == limit){
+      // the end of the last window ends the record
+      if(window_start + limit != size) return -1;
+      count = field(count, start, limit);
+    }
+    fields(count, bits >= 0);
+    return i == limit ? -1 : i;
+
+  }
+
+  // the field is [from, to), quotes are removed
+  private int field(int count, int from, int to){
+
+    if(count == starts.length){
+      starts = Arrays.copyOf(starts, count << 1);
+      ends = Arrays.copyOf(ends, count << 1);
+      quoted = Arrays.copyOf(quoted, count << 1);
+    }
+    final boolean quotes = to - from >= 2 && window.get(from) == '"' && window.get(to - 1) == '"';
+    starts[count] = quotes ? from + 1 : from;
+    ends[count] = quotes ? to - 1 : to;
+    quoted[count] = quotes;
+    return count + 1;
+
+  }
+
+  private void fields(int count, boolean ascii){
+
+    if(slices.length < count){
+      int i = slices.length;
+      slices = Arrays.copyOf(slices, Math.max(count, i << 1));
+      for(; i < slices.length; i++) slices[i] = new ByteSlice();
+    }
+    // the array is reused while the count of fields is the same
+    if(fields.length != count)
+      fields = new Object[count];
+    for(int i = 0; i < count; i++){
+      final ByteSlice slice = slices[i].set(window, starts[i], ends[i] - starts[i], ascii);
+      fields[i] = quoted[i] && has_quote(starts[i], ends[i]) ? slice.toString().replace("\"\"", "\"") : slice;
+    }
+
+  }
+
+  private boolean has_quote(int from, int to){
+    for(int i = from; i < to; i++)
+      if(window.get(i) == '"') return true;
+    return false;
+  }
+
+  /**
+   * fields of the current record, valid until the next one
+   */
+  public Object[] fields(){
+    return fields;
+  }
+
+  // count of records read
+  public long records(){
+    return records;
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new VmyRuntimeException("close failed : " + e.getMessage());
+    }
+  }
+}
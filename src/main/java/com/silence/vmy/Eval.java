@@ -18,16 +18,45 @@ public class Eval {
       Hell , welcome to vmy!
       version 0.1
       """;
+  // a repl of a session, lines are cached and continued until braces are closed
   public static void repl(){
-    repl(AST.variableStoreTreeEvaluator());
+    final OutputSink sink = OutputSink.current();
+    sink.write(notice);
+    sink.newline();
+    ReplSession session = new ReplSession();
+    Scanner scanner = new Scanner(System.in);
+    while(true){
+      prompt(sink, session.continued() ? ". " : "> ");
+      if(!scanner.hasNextLine()) break;
+      String input = scanner.nextLine();
+
+      if(Objects.equals(input, "#")) break;
+      if(input.trim().length() == 0 && !session.continued()) continue;
+
+      try{
+        Object ans = session.eval_line(input);
+        if(Objects.nonNull(ans)){
+          sink.write(ans);
+          sink.newline();
+        }
+      }catch (Exception e){
+        session.cancel();
+        Utils.error(e.getMessage());
+      }finally {
+        sink.flush();
+      }
+    }
+    scanner.close();
   }
 
   public static void repl(final AST.Evaluator evaluator){
-    System.out.println(notice);
+    final OutputSink sink = OutputSink.current();
+    sink.write(notice);
+    sink.newline();
     String input = "";
     Scanner scanner = new Scanner(System.in);
     while(!Objects.equals(input, "#")){
-      System.out.print("> ");
+      prompt(sink, "> ");
       input = scanner.nextLine();
 
       if(input.trim().length() == 0 ) continue;
@@ -38,13 +67,24 @@ public class Eval {
 
       try{
         Object ans = eval(input, evaluator);
-        if(Objects.nonNull(ans))
-          System.out.println(ans);
+        if(Objects.nonNull(ans)){
+          sink.write(ans);
+          sink.newline();
+        }
       }catch (Exception e){
         Utils.error(e.getMessage());
+      }finally {
+        sink.flush();
       }
     }
   }
+
+  // the prompt is shown before reading, so it's flushed without a newline
+  private static void prompt(OutputSink sink, String prompt){
+    sink.write(prompt);
+    sink.flush();
+  }
+
   /**
    * assign specific {@link AST.Evaluator}
    * @param expression vmy language expression like : let a = 1
@@ -55,7 +95,7 @@ public class Eval {
     return Scripts.run_with_file_input_scanner(
         expression,
         false,
-        scanner -> evaluator.eval(AST.build(scanner))
+        scanner -> evaluator.eval(AST.check(AST.build(scanner), evaluator))
     );
   }
 
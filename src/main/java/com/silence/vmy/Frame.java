@@ -1,5 +1,7 @@
 package com.silence.vmy;
 
+import java.util.Objects;
+
 /**
  * <p>runtime frame</>
  * <P>a runtime stack for vmy runtime</P>
@@ -10,8 +12,36 @@ public interface Frame {
   // get local variable from current frame
   Runtime.Variable local(String _name);
 
+  // get local variable with its name by the id of the name, see Symbols
+  default Runtime.VariableWithName named(int symbol){
+    final String name = Symbols.name(symbol);
+    final Runtime.Variable variable = local(name);
+    return Objects.isNull(variable) ? null : Utils.variable_with_name(name, variable);
+  }
+
   // put variable and it's value
   void put(String name ,Runtime.Variable head, Object value);
 
   Object get_obj(Long identity);
+
+  // functions declared by script in this frame
+  FunctionSupport.FunctionTable functions();
+
+  // if the module (path of it) is imported to this frame
+  default boolean imported(String module){
+    return false;
+  }
+
+  /**
+   * record the module is imported to this frame
+   * @return false if it's imported already
+   */
+  default boolean import_module(String module){
+    throw new VmyRuntimeException("modules can't be imported to this frame");
+  }
+
+  // builtin functions can be called in this frame
+  default BuiltinOps builtins(){
+    return BuiltinOps.builtinOps();
+  }
 }
@@ -0,0 +1,135 @@
+package com.silence.vmy;
+
+import javax.script.Bindings;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link Bindings} on a {@link Global} frame, a binding is the vmy variable itself, nothing is copied when accessing
+ */
+final class FrameBindings extends AbstractMap<String, Object> implements Bindings {
+  private final Global global;
+
+  FrameBindings(Global _global){
+    global = _global;
+  }
+
+  Global global(){
+    return global;
+  }
+
+  @Override
+  public Object put(String name, Object value) {
+
+    Runtime.Variable variable = global.local(name);
+    Object previous = Objects.isNull(variable) ? null : Runtime.get_value(name, global);
+    VmyType type = Objects.isNull(value) ? VmyTypes.BuiltinType.Any : Utils.get_obj_type(value);
+    // the host may change the type of a binding, then it's a new variable
+    if(Objects.nonNull(variable) && !Utils.equal(variable.getType(), type)){
+      global.remove(name);
+      variable = null;
+    }
+    if(Objects.isNull(variable))
+      variable = Runtime.declare_variable(global, name, type);
+    global.put(name, variable, value);
+    return previous;
+
+  }
+
+  @Override
+  public Object get(Object name) {
+    return name instanceof String key && Objects.nonNull(global.local(key)) ? Runtime.get_value(key, global) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object name) {
+    return name instanceof String key && Objects.nonNull(global.local(key));
+  }
+
+  @Override
+  public Object remove(Object name) {
+    Object previous = get(name);
+    if(name instanceof String key)
+      global.remove(key);
+    return previous;
+  }
+
+  /**
+   * the variables of the frame, removing from the set or its iterator removes the variable,
+   * an iterator walks the names when it's created
+   */
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        final Iterator<String> names = new ArrayList<>(global.names()).iterator();
+        return new Iterator<>() {
+          private String current;
+
+          @Override
+          public boolean hasNext() {
+            return names.hasNext();
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            current = names.next();
+            return new Binding(current);
+          }
+
+          @Override
+          public void remove() {
+            if(Objects.isNull(current))
+              throw new IllegalStateException();
+            global.remove(current);
+            current = null;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return global.names().size();
+      }
+    };
+  }
+
+  // an entry reads and writes the variable
+  private final class Binding implements Entry<String, Object> {
+    private final String name;
+
+    Binding(String _name){
+      name = _name;
+    }
+
+    @Override
+    public String getKey() {
+      return name;
+    }
+
+    @Override
+    public Object getValue() {
+      return get(name);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      return put(name, value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Entry<?, ?> entry && name.equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode() ^ Objects.hashCode(getValue());
+    }
+  }
+}
@@ -1,9 +1,12 @@
 package com.silence.vmy;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * all builtin call can get here
@@ -13,30 +16,20 @@ public class FunctionSupport {
 
   // call a function
   public static Object call(String name, List<Object> params){
-    Callable func = lookup_function(name, params);
-    return func.call(params.toArray(new Object[0]));
+    Object[] args = params.toArray();
+    return lookup_function(name, args).callable().call(args);
   }
 
   /**
    * lookup the function
    * @param name function name
-   * @param params function params
-   * @return {@link Callable}
+   * @param args function params
+   * @return {@link Overload}
    */
-  private static Callable lookup_function(String name, List<Object> params){
-    FunctionType function_type = functionType(
-            Unknown ,
-            /* params' types */params.stream()
-              .map(Utils::get_obj_type)
-              .collect(Collectors.toList())
-              .toArray(new VmyType[0])
-    );
-    Callable func = BuiltinOps.builtinOps().get_function(
-        name,
-        function_type
-    );
+  private static Overload lookup_function(String name, Object[] args){
+    Overload func = BuiltinOps.builtinOps().resolve(name, args);
     if(Objects.isNull(func))
-      throw new RuntimeException("function " + Utils.function_to_string(name, function_type) + " not founded");
+      throw new RuntimeException("function " + Utils.function_to_string(name, arg_types(args)) + " not founded");
     return func;
   }
 
@@ -66,6 +59,13 @@ public class FunctionSupport {
      * @see FunctionSupport#UserDefined
      */
     int tag();
+
+    /**
+     * @return true if the last param type can be repeated, like : print(a, b, c)
+     */
+    default boolean varargs(){
+      return false;
+    }
   }
 
   /**
@@ -86,15 +86,43 @@ public class FunctionSupport {
      * @return {@link Callable} or {@code null}
      */
     Callable get_function(String name, FunctionType type);
+
+    /**
+     * pick the best overload for the actual arguments
+     * @param name function name
+     * @param args evaluated arguments
+     * @return {@link Overload} or {@code null}
+     */
+    Overload resolve(String name, Object[] args);
+  }
+
+  /**
+   * a registered function with its signature
+   */
+  public record Overload(String name, FunctionType type, Callable callable) {
+
+    /**
+     * @return true if every argument type is accepted, so the call site needs no type guard
+     */
+    boolean accept_any(){
+      for(VmyType type : type.types())
+        if(type != VmyTypes.BuiltinType.Any) return false;
+      return true;
+    }
   }
 
   public static FunctionType functionType(int _tag, VmyType ...types){
-    return new DefaultFuncTypeImpl(new ArrayList<>(List.of(types)), _tag);
+    return new DefaultFuncTypeImpl(new ArrayList<>(List.of(types)), _tag, false);
+  }
+
+  public static FunctionType varargsFunctionType(int _tag, VmyType ...types){
+    return new DefaultFuncTypeImpl(new ArrayList<>(List.of(types)), _tag, true);
   }
 
   private record DefaultFuncTypeImpl(
-    List<VmyType> types, 
-    int tag
+    List<VmyType> types,
+    int tag,
+    boolean varargs
   ) implements FunctionType {
 
     @Override
@@ -102,4 +130,308 @@ public class FunctionSupport {
       return i < types.size() ? types.get(i) : null;
     }
   }
+
+  /**
+   * how well the {@code type} fits {@code arg_types}
+   * @return -1 if not match, else the count of params that matched exactly (not by Any)
+   */
+  static int match_score(FunctionType type, VmyType[] arg_types){
+
+    List<VmyType> params = type.types();
+    int fixed = type.varargs() ? params.size() - 1 : params.size();
+    if(arg_types.length < fixed || (!type.varargs() && arg_types.length != fixed))
+      return -1;
+
+    int score = 0;
+    for(int i=0; i<arg_types.length; i++){
+      VmyType expected = params.get(Math.min(i, params.size() - 1));
+      if(expected == VmyTypes.BuiltinType.Any) continue;
+      if(!Utils.equal(expected, arg_types[i])) return -1;
+      score++;
+    }
+    return score;
+
+  }
+
+  /**
+   * if {@code type} may accept the args of {@code arg_types}, an Any arg may be of every type
+   */
+  static boolean may_match(FunctionType type, VmyType[] arg_types){
+
+    List<VmyType> params = type.types();
+    int fixed = type.varargs() ? params.size() - 1 : params.size();
+    if(arg_types.length < fixed || (!type.varargs() && arg_types.length != fixed))
+      return false;
+
+    for(int i=0; i<arg_types.length; i++){
+      VmyType expected = params.get(Math.min(i, params.size() - 1));
+      if(
+        expected != VmyTypes.BuiltinType.Any &&
+        arg_types[i] != VmyTypes.BuiltinType.Any &&
+        !Utils.equal(expected, arg_types[i])
+      ) return false;
+    }
+    return true;
+
+  }
+
+  static VmyType[] arg_types(Object[] args){
+    VmyType[] types = new VmyType[args.length];
+    for(int i=0; i<args.length; i++)
+      types[i] = Objects.isNull(args[i]) ? VmyTypes.BuiltinType.Any : Utils.get_obj_type(args[i]);
+    return types;
+  }
+
+  /**
+   * <p>inline cache for one call expression, like : print(a) </p>
+   * <p>
+   *   it remembers the resolved {@link Overload} together with the classes of the arguments it was resolved for,
+   *   so a call with the same argument classes doesn't look up the function again (monomorphic),
+   *   up to {@link CallSite#PolymorphicLimit} different shapes are remembered (polymorphic),
+   *   beyond that every call is resolved (megamorphic).
+   * </p>
+   * <p>
+   *   a call site can be shared by threads (a tree of {@link CompiledScript} or a module),
+   *   entries are immutable and a new array of them is published by a volatile write, so a thread sees it filled,
+   *   two threads adding at the same time may lose one entry, it's resolved again by the next call
+   * </p>
+   */
+  public static final class CallSite implements Serializable {
+    private static final long serialVersionUID = 1L;
+    static final int PolymorphicLimit = 4;
+    private static final Entry[] Empty = new Entry[0];
+
+    private final String name;
+    private transient volatile Entry[] entries = Empty;
+    private transient volatile boolean megamorphic;
+
+    public CallSite(String _name){
+      name = _name;
+    }
+
+    public String name(){
+      return name;
+    }
+
+    // the cache is not saved, a restored call site starts empty
+    private Object readResolve(){
+      return new CallSite(name);
+    }
+
+    public Object call(Object[] args){
+      return call(BuiltinOps.builtinOps(), args);
+    }
+
+    public Object call(FunctionFactory factory, Object[] args){
+      if(VmyMetrics.Enabled) VmyMetrics.builtin_call(name);
+      // the event is created only when it's recorded, so a call allocates nothing
+      if(!VmyEvents.SlowBuiltinCalls.isEnabled())
+        return target(factory, args).call(args);
+      final VmyEvents.SlowBuiltinCall event = new VmyEvents.SlowBuiltinCall();
+      event.begin();
+      final Object result = target(factory, args).call(args);
+      event.end();
+      // committed only when it's longer than the threshold
+      if(event.shouldCommit()){
+        event.function = name;
+        event.args = args.length;
+        event.commit();
+      }
+      return result;
+    }
+
+    /**
+     * get the callable for args, the cached one if the guard passes
+     */
+    Callable target(FunctionFactory factory, Object[] args){
+
+      final Entry[] cached = entries;
+      for(Entry entry : cached)
+        if(entry.factory == factory && entry.test(args))
+          return entry.overload.callable();
+
+      Overload overload = factory.resolve(name, args);
+      if(Objects.isNull(overload))
+        throw new VmyRuntimeException("function " + Utils.function_to_string(name, arg_types(args)) + " not founded");
+      if(!megamorphic){
+        if(cached.length < PolymorphicLimit){
+          Entry[] update = Arrays.copyOf(cached, cached.length + 1);
+          update[cached.length] = Entry.of(factory, overload, args);
+          entries = update;
+        }else megamorphic = true;
+      }
+      return overload.callable();
+
+    }
+
+    private record Entry(
+      FunctionFactory factory,
+      Overload overload,
+      int arity,
+      Class<?>[] classes
+    ) {
+
+      static Entry of(FunctionFactory factory, Overload overload, Object[] args){
+
+        if(overload.accept_any())
+          return new Entry(factory, overload, overload.type().varargs() ? -1 : args.length, null);
+        Class<?>[] classes = new Class<?>[args.length];
+        for(int i=0; i<args.length; i++)
+          classes[i] = Objects.isNull(args[i]) ? null : args[i].getClass();
+        return new Entry(factory, overload, args.length, classes);
+
+      }
+
+      boolean test(Object[] args){
+
+        if(arity != -1 && arity != args.length) return false;
+        if(Objects.isNull(classes)) return true;
+        for(int i=0; i<classes.length; i++){
+          Object arg = args[i];
+          if((Objects.isNull(arg) ? null : arg.getClass()) != classes[i]) return false;
+        }
+        return true;
+
+      }
+    }
+  }
+
+  /**
+   * a function declared by vmy script, like : fn add(a, b) { return a + b }
+   * <p>the holder is kept when the function is redeclared, so a call expression can cache it</p>
+   */
+  public static final class Declared implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String name;
+    private final int arity;
+    private Callable target;
+
+    Declared(String _name, int _arity, Callable _target){
+      name = _name;
+      arity = _arity;
+      target = _target;
+    }
+
+    public String name(){
+      return name;
+    }
+
+    public int arity(){
+      return arity;
+    }
+
+    public Callable target(){
+      return target;
+    }
+  }
+
+  /**
+   * a function named in the script as a value, the declared one or the builtin is chosen by the count of args
+   * when it's called, so it sees the functions declared later
+   */
+  public static final class Reference implements Callable, Serializable {
+    private static final long serialVersionUID = 1L;
+    private final FunctionTable table;
+    private final String name;
+    private final CallSite builtin;
+
+    Reference(FunctionTable _table, String _name){
+      table = _table;
+      name = _name;
+      builtin = new CallSite(_name);
+    }
+
+    @Override
+    public Object call(Object... params) {
+      return target(params.length).call(params);
+    }
+
+    // the arity of a worker call is usually the same, the last target is kept
+    @Override
+    public Callable for_worker() {
+      return new Callable() {
+        private Callable target;
+        private int arity = -1;
+
+        @Override
+        public Object call(Object... params) {
+          if(params.length != arity){
+            target = target(params.length).for_worker();
+            arity = params.length;
+          }
+          return target.call(params);
+        }
+      };
+    }
+
+    private Callable target(int arity){
+      Declared declared = table.get(name, arity);
+      if(Objects.nonNull(declared)) return declared.target();
+      if(table.builtins.contains(name)) return params -> builtin.call(table.builtins, params);
+      throw new VmyRuntimeException("function " + name + " with " + arity + " params not found");
+    }
+
+    @Override
+    public String toString() {
+      return "fn " + name;
+    }
+  }
+
+  /**
+   * functions declared in a {@link Frame}, indexed by name and count of params
+   */
+  public static final class FunctionTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final Map<String, Declared[]> declared = new HashMap<>();
+    // names of builtins can't be declared, not saved in snapshot, see relink
+    private transient BuiltinOps builtins;
+    // changed when a new (name, arity) is declared, the cached 'not found' is invalid then
+    private int version;
+
+    public FunctionTable(){
+      this(BuiltinOps.builtinOps());
+    }
+
+    public FunctionTable(BuiltinOps _builtins){
+      builtins = _builtins;
+    }
+
+    public Declared get(String name, int arity){
+      Declared[] by_arity = declared.get(name);
+      return Objects.nonNull(by_arity) && arity < by_arity.length ? by_arity[arity] : null;
+    }
+
+    public void define(String name, int arity, Callable target){
+
+      if(builtins.contains(name))
+        throw new VmyRuntimeException("function " + name + " is builtin, can't be redeclared");
+      Declared[] by_arity = declared.getOrDefault(name, new Declared[0]);
+      if(arity < by_arity.length && Objects.nonNull(by_arity[arity])){
+        by_arity[arity].target = target;
+        return;
+      }
+      if(arity >= by_arity.length)
+        by_arity = Arrays.copyOf(by_arity, arity + 1);
+      by_arity[arity] = new Declared(name, arity, target);
+      declared.put(name, by_arity);
+      version++;
+
+    }
+
+    public int version(){
+      return version;
+    }
+
+    /**
+     * the function as a value, like pmap(xs, square)
+     * @return a {@link Reference} or null if no function has the name
+     */
+    public Callable reference(String name){
+      return declared.containsKey(name) || builtins.contains(name) ? new Reference(this, name) : null;
+    }
+
+    void relink(BuiltinOps _builtins){
+      builtins = _builtins;
+    }
+  }
 }
@@ -1,9 +1,23 @@
 package com.silence.vmy;
 
+import java.io.Serializable;
 import java.util.*;
 
-public class Global implements Frame {
-  private Global(){}
+public class Global implements Frame, Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private Global(){
+    this(BuiltinOps.builtinOps());
+  }
+
+  /**
+   * a global frame of its own, like the frame of {@link VmyContext}
+   * @param _builtins builtin functions can be called in the frame
+   */
+  public Global(BuiltinOps _builtins){
+    builtins = _builtins;
+    functions = new FunctionSupport.FunctionTable(_builtins);
+  }
 
   private static Global INSTANCE = new Global();
 
@@ -14,6 +28,15 @@ public class Global implements Frame {
   private Map<String, Object> primitives = new TreeMap<>();
   private ObjPool objPool = Runtime.create_pool();
   private Map<String, Runtime.Variable> variables = new HashMap<>();
+  // variables indexed by id of the name, sized by the variables of this frame, null if it's not built.
+  // ids are of the process, so it's built again for a restored frame.
+  // workers of ParallelLib read it, a new index is built aside and published at once
+  private transient volatile SymbolIndex symbols;
+  // builtins are registered by java, they are not saved in snapshot, see relink
+  private transient BuiltinOps builtins;
+  private final FunctionSupport.FunctionTable functions;
+  // paths of imported modules
+  private final Set<String> modules = new HashSet<>();
 
   @Deprecated
   public void put(String _name, Object _value){
@@ -44,6 +67,49 @@ public class Global implements Frame {
     return variables.get(_name);
   }
 
+  @Override
+  public Runtime.VariableWithName named(int symbol) {
+    SymbolIndex index = symbols;
+    if(Objects.isNull(index)) symbols = index = index();
+    final int[] keys = index.keys();
+    final int mask = keys.length - 1;
+    for(int i = symbol & mask; ; i = (i + 1) & mask){
+      if(keys[i] == symbol){
+        final Runtime.VariableWithName found = index.values()[i];
+        if(Objects.nonNull(found)) return found;
+        // the key of a variable being added by another thread, its value isn't seen yet
+        final String name = Symbols.name(symbol);
+        final Runtime.Variable variable = variables.get(name);
+        return Objects.isNull(variable) ? null : Utils.variable_with_name(name, variable);
+      }
+      if(keys[i] == 0) return null;
+    }
+  }
+
+  // open addressing, 0 of keys is empty, keys and values are published together
+  private record SymbolIndex(int[] keys, Runtime.VariableWithName[] values) {}
+
+  // build the index of all variables, a name the symbol table can't keep is only found by the String
+  private SymbolIndex index(){
+    int length = 16;
+    while(length < variables.size() << 1) length <<= 1;
+    final SymbolIndex index = new SymbolIndex(new int[length], new Runtime.VariableWithName[length]);
+    variables.forEach((name, variable) -> index(index, name, variable));
+    return index;
+  }
+
+  private static void index(SymbolIndex index, String name, Runtime.Variable variable){
+    final int symbol = Symbols.intern(name);
+    if(symbol == 0) return;
+    final int[] keys = index.keys();
+    final int mask = keys.length - 1;
+    int i = symbol & mask;
+    while(keys[i] != 0 && keys[i] != symbol) i = (i + 1) & mask;
+    // the name is kept with the variable, so a lookup allocates nothing
+    index.values()[i] = Utils.variable_with_name(name, variable);
+    keys[i] = symbol;
+  }
+
   @Override
   public void put(String name, Runtime.Variable head, Object value) {
 
@@ -58,12 +124,75 @@ public class Global implements Frame {
         head.setValue(hash_code);
       }else head.setValue(value);
 
-    variables.putIfAbsent(name, head);
+    final SymbolIndex index = symbols;
+    if(Objects.isNull(variables.putIfAbsent(name, head)) && Objects.nonNull(index)){
+      if(variables.size() << 1 > index.keys().length) symbols = index();
+      else index(index, name, head);
+    }
 
   }
 
+  /**
+   * remove a variable
+   * @return the removed variable or null
+   */
+  public Runtime.Variable remove(String name){
+    Runtime.Variable removed = variables.remove(name);
+    if(Objects.nonNull(removed)){
+      // removing is rare, the index is built again when it's used
+      symbols = null;
+    }
+    return removed;
+  }
+
+  @Override
+  public boolean imported(String module) {
+    return modules.contains(module);
+  }
+
+  @Override
+  public boolean import_module(String module) {
+    return modules.add(module);
+  }
+
+  /**
+   * @return names of all variables, a view
+   */
+  public Set<String> names(){
+    return Collections.unmodifiableSet(variables.keySet());
+  }
+
+  /**
+   * @return name -> value of all variables
+   */
+  public Map<String, Object> values(){
+    Map<String, Object> values = new HashMap<>();
+    for(String name : variables.keySet())
+      values.put(name, Runtime.get_value(name, this));
+    return values;
+  }
+
   @Override
   public Object get_obj(Long identity) {
     return objPool.get(identity);
   }
+
+  @Override
+  public FunctionSupport.FunctionTable functions() {
+    return functions;
+  }
+
+  @Override
+  public BuiltinOps builtins() {
+    return builtins;
+  }
+
+  /**
+   * link a restored frame to the builtins
+   */
+  Global relink(BuiltinOps _builtins){
+    builtins = _builtins;
+    functions.relink(_builtins);
+    return this;
+  }
 }
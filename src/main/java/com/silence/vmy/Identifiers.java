@@ -49,6 +49,16 @@ final public class Identifiers {
   public static final String If = "if";
   public static final String Elif = "elif";
   public static final String Else = "else";
+  public static final String Function = "fn";
+  public static final String Return = "return";
+  public static final String For = "for";
+  public static final String In = "in";
+  // range of for loop, like : 0..10
+  public static final String Range = "..";
+  public static final String Import = "import";
+  // index of array, like : a[0]
+  public static final String OpenBracket = "[";
+  public static final String ClosingBracket = "]";
 
   static{
     // set builtinOperators
@@ -0,0 +1,143 @@
+package com.silence.vmy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * <p>runs whole vmy programs (like scripts/bench) and reports ops/s, p50/p99 and allocated bytes of each run</p>
+ * <p>allocated bytes are of all threads, a script like parallel_sum allocates on the workers of pmap</p>
+ * <p>
+ *   a run is lexing, parsing, checking and evaluating the script in a new {@link VmyContext},
+ *   output of the scripts is dropped
+ * </p>
+ * <p>Main -bench [-w warmup] [-n runs] [script or directory ...], default is scripts/bench</p>
+ */
+public final class MacroBenchmark {
+  private MacroBenchmark(){}
+
+  public static final int DefaultWarmup = 3;
+  public static final int DefaultRuns = 10;
+
+  /**
+   * @param p50 median time of a run, in nanoseconds
+   * @param p99 99th percentile time of a run, in nanoseconds
+   * @param allocated bytes allocated by a run in all threads, -1 if the jvm can't tell
+   */
+  public record Result(String script, int runs, double ops_per_second, long p50, long p99, long allocated) {
+    @Override
+    public String toString() {
+      return String.format("%-24s %6d %10.2f %10.3f %10.3f %14s",
+          script, runs, ops_per_second, p50 / 1e6, p99 / 1e6, allocated < 0 ? "n/a" : allocated);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+
+    int warmup = DefaultWarmup;
+    int runs = DefaultRuns;
+    List<Path> paths = new ArrayList<>();
+    for(int i=0; i<args.length; i++){
+      switch (args[i]){
+        case "-w" -> warmup = Integer.parseInt(args[++i]);
+        case "-n" -> runs = Integer.parseInt(args[++i]);
+        default -> paths.add(Path.of(args[i]));
+      }
+    }
+    if(paths.isEmpty()) paths.add(Path.of("scripts", "bench"));
+
+    System.out.printf("%-24s %6s %10s %10s %10s %14s%n", "script", "runs", "ops/s", "p50(ms)", "p99(ms)", "alloc(B)/run");
+    for(Path script : scripts(paths))
+      System.out.println(run(script, warmup, runs));
+
+  }
+
+  // scripts in the paths, .vmy files of a directory in order of name
+  static List<Path> scripts(List<Path> paths) throws IOException {
+    List<Path> scripts = new ArrayList<>();
+    for(Path path : paths){
+      if(Files.isDirectory(path)){
+        try(Stream<Path> files = Files.list(path)){
+          files.filter(file -> file.toString().endsWith(".vmy")).sorted().forEach(scripts::add);
+        }
+      }else scripts.add(path);
+    }
+    return scripts;
+  }
+
+  public static Result run(Path script, int warmup, int runs){
+
+    final String file = script.toString();
+    final OutputSink dropped = new BufferedOutputSink(OutputStream.nullOutputStream());
+    for(int i=0; i<warmup; i++)
+      new VmyContext(false, dropped).eval_file(file);
+
+    final com.sun.management.ThreadMXBean threads = thread_bean();
+    long[] times = new long[runs];
+    long allocated = 0;
+    for(int i=0; i<runs; i++){
+      final long[] ids = Objects.isNull(threads) ? null : threads.getAllThreadIds();
+      final long[] bytes = Objects.isNull(threads) ? null : threads.getThreadAllocatedBytes(ids);
+      final long start = System.nanoTime();
+      new VmyContext(false, dropped).eval_file(file);
+      times[i] = System.nanoTime() - start;
+      if(Objects.nonNull(threads)) allocated += allocated_since(threads, ids, bytes);
+    }
+
+    Arrays.sort(times);
+    final long total = Arrays.stream(times).sum();
+    return new Result(
+        script.getFileName().toString(),
+        runs,
+        total == 0 ? 0 : runs * 1e9 / total,
+        percentile(times, 50),
+        percentile(times, 99),
+        Objects.isNull(threads) ? -1 : allocated / Math.max(runs, 1)
+    );
+
+  }
+
+  // nearest rank of sorted times
+  private static long percentile(long[] sorted, int percent){
+    if(sorted.length == 0) return 0;
+    int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+    return sorted[Math.max(rank - 1, 0)];
+  }
+
+  private static com.sun.management.ThreadMXBean thread_bean(){
+    return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads &&
+      threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled() ?
+      threads :
+      null;
+  }
+
+  /**
+   * bytes allocated by the live threads since the counts of ids,
+   * a thread started in the run counts from 0, a thread ended in the run isn't counted
+   */
+  private static long allocated_since(com.sun.management.ThreadMXBean threads, long[] ids, long[] bytes){
+
+    final long[] now_ids = threads.getAllThreadIds();
+    final long[] now = threads.getThreadAllocatedBytes(now_ids);
+    long allocated = 0;
+    for(int i=0; i<now_ids.length; i++){
+      if(now[i] < 0) continue;
+      long before = 0;
+      for(int j=0; j<ids.length; j++)
+        if(ids[j] == now_ids[i]){
+          before = Math.max(bytes[j], 0);
+          break;
+        }
+      allocated += now[i] - before;
+    }
+    return allocated;
+
+  }
+}
@@ -1,21 +1,90 @@
 package com.silence.vmy;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 public class Main {
-  public static void main(String[] args) {
-    String[] strings = handle_args(args);
+  public static void main(String[] args) throws IOException {
+    // -bench [-w warmup] [-n runs] [scripts] : run the macro benchmarks
+    if(args.length > 0 && Bench.equals(args[0])){
+      MacroBenchmark.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+    List<String> remains = new ArrayList<>(Arrays.asList(args));
+    // -metrics : turn on the metrics before any use of them, and dump them on exit
+    if(remains.remove(Metrics)){
+      System.setProperty("vmy.metrics", "true");
+      java.lang.Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(VmyMetrics.metrics().dump())));
+    }
+    // -prof file : profile the scripts, write the report to stderr and collapsed stacks to the file
+    String collapsed = null;
+    int prof = remains.indexOf(Prof);
+    if(prof >= 0){
+      if(prof + 1 >= remains.size())
+        throw new RuntimeException("-prof needs a file for collapsed stacks");
+      collapsed = remains.remove(prof + 1);
+      remains.remove(prof);
+    }
+    // -j N : run the scripts by N threads
+    int jobs = 1;
+    int j = remains.indexOf(Jobs);
+    if(j >= 0){
+      if(j + 1 >= remains.size())
+        throw new RuntimeException("-j needs count of jobs");
+      jobs = Integer.parseInt(remains.remove(j + 1));
+      remains.remove(j);
+    }
+    // -e 'script' -stream [-F ,] [-begin 'script'] [-end 'script'] [files] : run the script for each line
+    if(remains.remove(Stream)){
+      String script = option(remains, Script);
+      if(Objects.isNull(script))
+        throw new RuntimeException("-stream needs a script by -e");
+      String separator = option(remains, Separator);
+      if(Objects.nonNull(separator) && separator.equals("\\t")) separator = "\t";
+      if(Objects.nonNull(separator) && (separator.length() != 1 || separator.charAt(0) >= 0x80))
+        throw new RuntimeException("-F needs one ascii char");
+      String begin = option(remains, Begin);
+      String end = option(remains, End);
+      StreamFilter.run(script, begin, end, Objects.isNull(separator) ? 0 : (byte) separator.charAt(0), remains);
+      return;
+    }
+    String[] strings = handle_args(remains.toArray(new String[0]));
     if(Objects.nonNull(strings) && strings.length > 0 )
     switch (strings[0]){
       case Repl:
         Eval.repl();
         break;
       case Run:
-        Scripts.run(Arrays.copyOfRange(strings, 1, strings.length));
+        if(Objects.isNull(collapsed))
+          Scripts.run(Arrays.copyOfRange(strings, 1, strings.length), jobs);
+        else
+          profile(Arrays.copyOfRange(strings, 1, strings.length), collapsed);
         break;
     }
   }
 
+  private static void profile(String[] scripts, String collapsed){
+    Profile profile = Scripts.profile(scripts);
+    System.err.print(profile.report());
+    try {
+      profile.write_collapsed(Path.of(collapsed));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // remove the flag and its value, null if there is no such flag
+  private static String option(List<String> args, String flag){
+    int index = args.indexOf(flag);
+    if(index < 0) return null;
+    if(index + 1 >= args.size())
+      throw new RuntimeException(flag + " needs a value");
+    String value = args.remove(index + 1);
+    args.remove(index);
+    return value;
+  }
+
   private static String[] handle_args(String[] args){
     Map<String, Integer> string_index_mapper = new HashMap<>();
     for(int i=0; i < args.length; i++){
@@ -37,6 +106,15 @@ public class Main {
 
   private static final String Repl = "-sh";
   private static final String Run  = "-r";
+  private static final String Prof = "-prof";
+  private static final String Metrics = "-metrics";
+  private static final String Bench = "-bench";
+  private static final String Jobs = "-j";
+  private static final String Stream = "-stream";
+  private static final String Script = "-e";
+  private static final String Separator = "-F";
+  private static final String Begin = "-begin";
+  private static final String End = "-end";
   /**
    * string -> tokenize() ->
    *
@@ -0,0 +1,188 @@
+package com.silence.vmy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>loads modules of import, like : import "lib/math.vmy"</p>
+ * <p>
+ *   a module is parsed and checked once per process, it's cached by its path, an import only reads the time and size
+ *   of the file. a file changed in the last {@link #Racy} ms may be changed again in the same tick of the time,
+ *   so it's read and compared by the hash of its content, a changed file is compiled again.
+ *   the tree of a module is shared by all contexts and threads importing it, each frame runs it once to have its declarations
+ * </p>
+ * <p>
+ *   an import cycle is found by the modules being compiled and the modules their threads wait for,
+ *   so a cycle across threads fails instead of waiting forever
+ * </p>
+ */
+public final class ModuleLoader {
+  private static final ModuleLoader Shared = new ModuleLoader();
+  static final long Racy = 2000;
+
+  public static ModuleLoader shared(){
+    return Shared;
+  }
+
+  // path -> module, a module is compiled by the first thread, the others wait for it
+  private final Map<String, Entry> modules = new ConcurrentHashMap<>();
+  // thread -> the module it waits for
+  private final Map<Thread, Entry> waits = new ConcurrentHashMap<>();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder compiles = new LongAdder();
+
+  /**
+   * @param path absolute path of the module
+   */
+  AST.Module load(String path){
+
+    loads.increment();
+    final Stamp stamp = stamp(path);
+    Entry entry = modules.get(path);
+    if(Objects.isNull(entry) || !entry.unchanged(stamp)){
+      final String source = read(path);
+      final String hash = hash(source);
+      final Entry created = new Entry(hash, new FutureTask<>(() -> compile(path, hash, source)));
+      // the same content is not compiled again
+      entry = modules.merge(path, created, (old, fresh) -> old.hash.equals(fresh.hash) ? old : fresh);
+      entry.stamp = stamp;
+      if(entry == created){
+        compiles.increment();
+        created.compiler = Thread.currentThread();
+        try{
+          created.task.run();
+        }finally {
+          created.compiler = null;
+        }
+      }
+    }
+    return await(path, entry);
+
+  }
+
+  private AST.Module await(String path, Entry entry){
+
+    final Thread current = Thread.currentThread();
+    if(!entry.task.isDone()){
+      waits.put(current, entry);
+      if(cycle(entry)){
+        waits.remove(current);
+        throw new ASTProcessingException("import cycle at module " + path);
+      }
+    }
+    try{
+      return entry.task.get();
+    }catch (ExecutionException e){
+      // a failed module is compiled again by next import
+      modules.remove(path, entry);
+      throw e.getCause() instanceof RuntimeException runtime ? runtime : new VmyRuntimeException(e.getCause().getMessage());
+    }catch (InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new VmyRuntimeException("interrupted when loading module " + path);
+    }finally {
+      waits.remove(current);
+    }
+
+  }
+
+  /**
+   * if the thread compiling the module waits (through other modules and threads) for current thread
+   */
+  private boolean cycle(Entry entry){
+
+    final Thread current = Thread.currentThread();
+    Entry waited = entry;
+    for(int i = 0; Objects.nonNull(waited) && i <= waits.size(); i++){
+      final Thread compiler = waited.compiler;
+      if(Objects.isNull(compiler)) return false;
+      if(compiler == current) return true;
+      waited = waits.get(compiler);
+    }
+    return false;
+
+  }
+
+  private static AST.Module compile(String path, String hash, String source) throws Exception {
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(source, path)){
+      return AST.module(path, hash, scanner);
+    }
+  }
+
+  private static Stamp stamp(String path){
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(Path.of(path), BasicFileAttributes.class);
+      return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size(), System.currentTimeMillis());
+    } catch (IOException e) {
+      throw new VmyRuntimeException("module " + path + " can't be read : " + e.getMessage());
+    }
+  }
+
+  private static String read(String path){
+    try {
+      return Files.readString(Path.of(path));
+    } catch (IOException e) {
+      throw new VmyRuntimeException("module " + path + " can't be read : " + e.getMessage());
+    }
+  }
+
+  private static String hash(String source){
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // count of imports, include the cached ones
+  public long loads(){
+    return loads.sum();
+  }
+
+  // count of modules parsed and checked
+  public long compiles(){
+    return compiles.sum();
+  }
+
+  // drop all cached modules
+  public void clear(){
+    modules.clear();
+  }
+
+  // time and size of the file when it's checked
+  private record Stamp(long modified, long size, long checked) {}
+
+  private static final class Entry {
+    final String hash;
+    final FutureTask<AST.Module> task;
+    volatile Stamp stamp;
+    // the thread compiling it, null when it's done
+    volatile Thread compiler;
+
+    Entry(String _hash, FutureTask<AST.Module> _task){
+      hash = _hash;
+      task = _task;
+    }
+
+    // the file is not changed since it's checked, and not changed just before it
+    boolean unchanged(Stamp now){
+      final Stamp checked = stamp;
+      return Objects.nonNull(checked) &&
+        checked.modified() == now.modified() &&
+        checked.size() == now.size() &&
+        checked.checked() - checked.modified() > Racy;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.silence.vmy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>bind java static methods as vmy functions ({@link FunctionSupport#Native})</p>
+ * <p>
+ *   the method handle is adapted once when binding : params are unboxed from Object, the return value is boxed,
+ *   and params are spread from the Object[] of {@link Callable#call(Object...)},
+ *   then a call is just one invokeExact, no reflection.
+ * </p>
+ */
+public class NativeFunctions {
+  private NativeFunctions(){}
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+  // (Object)String, see text
+  private static final MethodHandle Text = filter("text", String.class);
+  // (Object)int and (Object)long, see int_arg and long_arg
+  private static final MethodHandle IntArg = filter("int_arg", int.class);
+  private static final MethodHandle LongArg = filter("long_arg", long.class);
+
+  private static final Map<Class<?>, VmyType> JavaTypes = Map.ofEntries(
+      Map.entry(int.class, VmyTypes.BuiltinType.Int),
+      Map.entry(Integer.class, VmyTypes.BuiltinType.Int),
+      Map.entry(long.class, VmyTypes.BuiltinType.Int),
+      Map.entry(Long.class, VmyTypes.BuiltinType.Int),
+      // an Int of any class : Integer, Long or BigInteger
+      Map.entry(Number.class, VmyTypes.BuiltinType.Int),
+      Map.entry(double.class, VmyTypes.BuiltinType.Double),
+      Map.entry(Double.class, VmyTypes.BuiltinType.Double),
+      Map.entry(boolean.class, VmyTypes.BuiltinType.Boolean),
+      Map.entry(Boolean.class, VmyTypes.BuiltinType.Boolean),
+      Map.entry(char.class, VmyTypes.BuiltinType.Char),
+      Map.entry(Character.class, VmyTypes.BuiltinType.Char),
+      Map.entry(String.class, VmyTypes.BuiltinType.String),
+      // a String or a ByteSlice, it's passed as it is
+      Map.entry(CharSequence.class, VmyTypes.BuiltinType.String),
+      Map.entry(int[].class, VmyTypes.BuiltinType.Array),
+      Map.entry(double[].class, VmyTypes.BuiltinType.Array),
+      Map.entry(Object[].class, VmyTypes.BuiltinType.Array),
+      Map.entry(Callable.class, VmyTypes.BuiltinType.Function),
+      Map.entry(Object.class, VmyTypes.BuiltinType.Any)
+  );
+
+  /**
+   * bind all static methods marked with {@link VmyFunction} of the class to builtin functions
+   * @param clazz class has static methods
+   */
+  public static void bind(Class<?> clazz){
+    bind(clazz, BuiltinOps.builtinOps());
+  }
+
+  public static void bind(Class<?> clazz, FunctionSupport.FunctionRegister register){
+
+    for(Method method : clazz.getMethods()){
+      VmyFunction function = method.getAnnotation(VmyFunction.class);
+      if(Objects.isNull(function)) continue;
+      bind(function.value().isEmpty() ? method.getName() : function.value(), method, register);
+    }
+
+  }
+
+  /**
+   * bind one public static method
+   * @param name function name in vmy
+   * @param method {@link Method}
+   */
+  public static void bind(String name, Method method, FunctionSupport.FunctionRegister register){
+
+    if(!Modifier.isStatic(method.getModifiers()))
+      throw new VmyRuntimeException("native function " + name + " should be static method");
+    try {
+      bind(name, lookup.unreflect(method), register);
+    } catch (IllegalAccessException e) {
+      throw new VmyRuntimeException("native function " + name + " is not accessible : " + e.getMessage());
+    }
+
+  }
+
+  /**
+   * bind a method handle, its params types should be one of Int, Double, Boolean, Char, String or Object (Any)
+   * @param name function name in vmy
+   * @param handle {@link MethodHandle}
+   */
+  public static void bind(String name, MethodHandle handle, FunctionSupport.FunctionRegister register){
+
+    if(handle.isVarargsCollector())
+      throw new VmyRuntimeException("native function " + name + " with varargs is not supported");
+    MethodType type = handle.type();
+    VmyType[] param_types = new VmyType[type.parameterCount()];
+    for(int i=0; i<param_types.length; i++)
+      param_types[i] = to_vmy_type(name, type.parameterType(i));
+    register.register(
+        name,
+        FunctionSupport.functionType(FunctionSupport.Native, param_types),
+        new NativeCallable(adapt(handle))
+    );
+
+  }
+
+  /**
+   * (A, B ...)R  ->  (Object[])Object
+   */
+  static MethodHandle adapt(MethodHandle handle){
+    int count = handle.type().parameterCount();
+    // a String param may get a ByteSlice (it's copied, a CharSequence param keeps the view),
+    // an int or long param may get a wider Int
+    for(int i=0; i<count; i++){
+      final Class<?> param = handle.type().parameterType(i);
+      if(param == String.class)
+        handle = MethodHandles.filterArguments(handle, i, Text);
+      else if(param == int.class)
+        handle = MethodHandles.filterArguments(handle, i, IntArg);
+      else if(param == long.class)
+        handle = MethodHandles.filterArguments(handle, i, LongArg);
+    }
+    return handle
+        .asType(MethodType.genericMethodType(count))
+        .asSpreader(Object[].class, count);
+  }
+
+  private static MethodHandle filter(String name, Class<?> type){
+    try {
+      return MethodHandles.lookup().findStatic(NativeFunctions.class, name, MethodType.methodType(type, Object.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private static String text(Object obj){
+    return obj instanceof ByteSlice slice ? slice.toString() : (String) obj;
+  }
+
+  // the Int of a param of java int, a Long or BigInteger doesn't fit in it
+  private static int int_arg(Object obj){
+    if(obj instanceof Long || obj instanceof BigInteger)
+      throw new VmyRuntimeException("Int " + obj + " is out of range of the param");
+    return (Integer) obj;
+  }
+
+  private static long long_arg(Object obj){
+    if(obj instanceof BigInteger)
+      throw new VmyRuntimeException("Int " + obj + " is out of range of the param");
+    return obj instanceof Integer i ? i : (Long) obj;
+  }
+
+  private static VmyType to_vmy_type(String name, Class<?> clazz){
+    VmyType type = JavaTypes.get(clazz);
+    if(Objects.isNull(type))
+      throw new VmyRuntimeException("native function " + name + " has not supported param type " + clazz.getName());
+    return type;
+  }
+
+  private static final class NativeCallable implements Callable {
+    // type : (Object[])Object
+    private final MethodHandle invoker;
+
+    NativeCallable(MethodHandle _invoker){
+      invoker = _invoker;
+    }
+
+    @Override
+    public Object call(Object... params) {
+      try {
+        Object result = (Object) invoker.invokeExact(params);
+        // a long result is an Int of the smallest class
+        return result instanceof Long l ? Numbers.normalize(l) : result;
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new VmyRuntimeException(e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.silence.vmy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * the numeric tower : Int (Integer -> Long -> BigInteger) and Double
+ */
+final class Numbers {
+  private Numbers(){}
+
+  // rank of number, an operation is done by the wider one of its operands
+  static final int Small = 0;
+  static final int Wide = 1;
+  static final int Big = 2;
+  static final int Floating = 3;
+
+  static int rank(Object number){
+
+    if(number instanceof Integer || number instanceof Short || number instanceof Byte)
+      return Small;
+    else if(number instanceof Long)
+      return Wide;
+    else if(number instanceof BigInteger)
+      return Big;
+    else if(number instanceof Number)
+      return Floating;
+    throw new OpsException("ops not support not Number type");
+
+  }
+
+  static boolean is_integer(Object number){
+    return number instanceof Integer || number instanceof Long || number instanceof BigInteger;
+  }
+
+  /**
+   * the smallest integer holding the value, so equal integers have the same class
+   */
+  static Number normalize(long value){
+    if((int) value == value) return (int) value;
+    return value;
+  }
+
+  static Number normalize(BigInteger value){
+    return value.bitLength() < 64 ? normalize(value.longValue()) : value;
+  }
+
+  static BigInteger to_big(Number number){
+    return number instanceof BigInteger big ? big : BigInteger.valueOf(number.longValue());
+  }
+
+  // compare two Ints of any class
+  static int compare(Number a, Number b){
+    if(a instanceof BigInteger || b instanceof BigInteger)
+      return to_big(a).compareTo(to_big(b));
+    return Long.compare(a.longValue(), b.longValue());
+  }
+
+  static Number negate(Number number){
+
+    if(number instanceof Integer i)
+      return normalize(-(long) i);
+    else if(number instanceof Long l)
+      return l == Long.MIN_VALUE ? BigInteger.valueOf(l).negate() : normalize(-l);
+    else if(number instanceof BigInteger big)
+      return normalize(big.negate());
+    return -number.doubleValue();
+
+  }
+
+  // 10^n, n <= 22, is exact in double
+  private static final double[] Pow10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+    1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * <p>decodes a number literal char by char, like : 12, 1.5</p>
+   * <p>
+   *   digits go to a long, then a BigInteger if it's too long. a double with at most 15 digits and 22 decimals
+   *   is mantissa / 10^decimals which is exact, others are rounded by {@link BigDecimal}
+   * </p>
+   */
+  static final class Literal {
+    private long mantissa;
+    private BigInteger big;
+    private int decimals;
+    private boolean floating;
+
+    Literal reset(){
+      mantissa = 0;
+      big = null;
+      decimals = 0;
+      floating = false;
+      return this;
+    }
+
+    void digit(char c){
+
+      final int d = c - '0';
+      if(Objects.isNull(big) && mantissa > (Long.MAX_VALUE - d) / 10)
+        big = BigInteger.valueOf(mantissa);
+      if(Objects.isNull(big))
+        mantissa = mantissa * 10 + d;
+      else
+        big = big.multiply(BigInteger.TEN).add(BigInteger.valueOf(d));
+      if(floating) decimals++;
+
+    }
+
+    // the point of a double
+    void point(){
+      floating = true;
+    }
+
+    boolean floating(){
+      return floating;
+    }
+
+    Number value(){
+
+      if(!floating)
+        return Objects.isNull(big) ? normalize(mantissa) : normalize(big);
+      if(Objects.isNull(big) && mantissa < (1L << 53) && decimals < Pow10.length)
+        return mantissa / Pow10[decimals];
+      return new BigDecimal(Objects.isNull(big) ? BigInteger.valueOf(mantissa) : big, decimals).doubleValue();
+
+    }
+  }
+}
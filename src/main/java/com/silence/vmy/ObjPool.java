@@ -17,4 +17,7 @@ public interface ObjPool {
   Object get(Long identity);
 
   boolean exists(Long identity);
+
+  // count of objects in the pool
+  int size();
 }
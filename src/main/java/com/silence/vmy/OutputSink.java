@@ -0,0 +1,161 @@
+package com.silence.vmy;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.util.Objects;
+
+/**
+ * <p>where the output of script goes, like print("hello")</p>
+ * <p>a sink is not thread safe, each running script should have its own one</p>
+ */
+public interface OutputSink {
+
+  void write(CharSequence chars);
+
+  void write(char c);
+
+  void write(int i);
+
+  void write(long l);
+
+  void write(double d);
+
+  void write(boolean b);
+
+  /**
+   * write an object, the common types are written without building a string
+   * @param obj any object
+   */
+  default void write(Object obj){
+    if(obj instanceof Integer i) write(i.intValue());
+    else if(obj instanceof Double d) write(d.doubleValue());
+    else if(obj instanceof Long l) write(l.longValue());
+    else if(obj instanceof CharSequence chars) write(chars);
+    else if(obj instanceof Boolean b) write(b.booleanValue());
+    else if(obj instanceof Character c) write(c.charValue());
+    else write(Utils.display(obj));
+  }
+
+  // end of a line, the sink may flush by its policy here
+  void newline();
+
+  /**
+   * write the pieces and end the line, a shared sink writes the line at once
+   * @param pieces objects of the line, the array isn't kept
+   */
+  default void write_line(Object[] pieces){
+    for(Object piece : pieces) write(piece);
+    newline();
+  }
+
+  void flush();
+
+  /**
+   * the sink of standard output, it flushes each line when there is a console,
+   * when the output is redirected it writes to the file channel by big blocks.
+   * it's shared by all threads have no bound sink (like contexts of a {@link VmyContextPool}), so it's synchronized
+   */
+  static OutputSink stdout(){
+    return Holder.Stdout;
+  }
+
+  /**
+   * @return the sink bound to current thread, or {@link OutputSink#stdout()}
+   */
+  static OutputSink current(){
+    OutputSink bound = Holder.Current.get();
+    return Objects.isNull(bound) ? Holder.Stdout : bound;
+  }
+
+  /**
+   * bind a sink to current thread
+   * @param sink {@link OutputSink}, null to unbind
+   * @return the previous bound sink, may be null
+   */
+  static OutputSink bind(OutputSink sink){
+    OutputSink previous = Holder.Current.get();
+    if(Objects.isNull(sink)) Holder.Current.remove();
+    else Holder.Current.set(sink);
+    return previous;
+  }
+
+  final class Holder {
+    private Holder(){}
+
+    private static final ThreadLocal<OutputSink> Current = new ThreadLocal<>();
+    private static final OutputSink Stdout = create_stdout();
+
+    private static OutputSink create_stdout(){
+
+      final boolean interactive = Objects.nonNull(System.console());
+      BufferedOutputSink sink = new BufferedOutputSink(
+          new FileOutputStream(FileDescriptor.out).getChannel(),
+          interactive ? 1 << 12 : BufferedOutputSink.DefaultSize,
+          interactive ? 0 : BufferedOutputSink.DefaultFlushInterval
+      );
+      final OutputSink shared = new Shared(sink);
+      java.lang.Runtime.getRuntime().addShutdownHook(new Thread(shared::flush));
+      return shared;
+
+    }
+  }
+
+  // a sink shared by threads, each call holds the lock of it, a line of write_line isn't split
+  final class Shared implements OutputSink {
+    private final OutputSink sink;
+
+    Shared(OutputSink _sink){
+      sink = _sink;
+    }
+
+    @Override
+    public synchronized void write(CharSequence chars) {
+      sink.write(chars);
+    }
+
+    @Override
+    public synchronized void write(char c) {
+      sink.write(c);
+    }
+
+    @Override
+    public synchronized void write(int i) {
+      sink.write(i);
+    }
+
+    @Override
+    public synchronized void write(long l) {
+      sink.write(l);
+    }
+
+    @Override
+    public synchronized void write(double d) {
+      sink.write(d);
+    }
+
+    @Override
+    public synchronized void write(boolean b) {
+      sink.write(b);
+    }
+
+    @Override
+    public synchronized void write(Object obj) {
+      sink.write(obj);
+    }
+
+    @Override
+    public synchronized void newline() {
+      sink.newline();
+    }
+
+    @Override
+    public synchronized void write_line(Object[] pieces) {
+      sink.write_line(pieces);
+    }
+
+    @Override
+    public synchronized void flush() {
+      sink.flush();
+    }
+  }
+}
@@ -0,0 +1,288 @@
+package com.silence.vmy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * <p>parallel builtins on arrays and ranges, bound as builtin functions</p>
+ * <p>
+ *   the elements are split in halves until a part is not longer than the threshold, the parts are run by
+ *   the common {@link ForkJoinPool} with work stealing, like :
+ *   pmap(xs, square), pfilter(0, 100, is_prime), preduce(xs, add, 0), pforeach(xs, show).
+ *   a range is [from, to) like the for loop.
+ * </p>
+ * <p>
+ *   each part calls the function by {@link Callable#for_worker()}, a declared function runs in frames of its own,
+ *   the global variables are shared, a function run by workers shouldn't assign them.
+ *   lines printed by workers are whole, but in no order
+ * </p>
+ */
+public class ParallelLib {
+  private ParallelLib(){}
+
+  // elements run sequentially by one task, -Dvmy.parallel.threshold
+  private static volatile int threshold = Math.max(1, Integer.getInteger("vmy.parallel.threshold", 1 << 10));
+
+  /**
+   * set the sequential threshold
+   * @return the previous one
+   */
+  public static int threshold(int _threshold){
+    if(_threshold < 1)
+      throw new VmyRuntimeException("threshold should be positive : " + _threshold);
+    int previous = threshold;
+    threshold = _threshold;
+    return previous;
+  }
+
+  /**
+   * @return the array of f(e) for each element e, its kind is chosen like array_of
+   */
+  @VmyFunction
+  public static Object pmap(Object a, Callable f){
+    return map(ArrayLib.len(a), i -> ArrayLib.element(a, i), f);
+  }
+
+  @VmyFunction
+  public static Object pmap(int from, int to, Callable f){
+    return map(length(from, to), i -> from + i, f);
+  }
+
+  /**
+   * @return the elements that f(e) is true, in the order of the array, the array is of the same kind
+   */
+  @VmyFunction
+  public static Object pfilter(Object a, Callable f){
+
+    final int[] kept = (int[]) run(new Job(Op.Filter, i -> ArrayLib.element(a, i), f, null, null), ArrayLib.len(a));
+    if(a instanceof int[] ints){
+      int[] result = new int[kept.length];
+      for(int i = 0; i < kept.length; i++) result[i] = ints[kept[i]];
+      return result;
+    }else if(a instanceof double[] doubles){
+      double[] result = new double[kept.length];
+      for(int i = 0; i < kept.length; i++) result[i] = doubles[kept[i]];
+      return result;
+    }
+    Object[] objects = (Object[]) a;
+    Object[] result = new Object[kept.length];
+    for(int i = 0; i < kept.length; i++) result[i] = objects[kept[i]];
+    return result;
+
+  }
+
+  @VmyFunction
+  public static Object pfilter(int from, int to, Callable f){
+
+    final int[] kept = (int[]) run(new Job(Op.Filter, i -> from + i, f, null, null), length(from, to));
+    for(int i = 0; i < kept.length; i++) kept[i] += from;
+    return kept;
+
+  }
+
+  /**
+   * fold the elements by f, each part starts from identity and the results of parts are folded by f too,
+   * so f should be associative and identity should be the identity of it, like : preduce(xs, add, 0)
+   */
+  @VmyFunction
+  public static Object preduce(Object a, Callable f, Object identity){
+    return run(new Job(Op.Reduce, i -> ArrayLib.element(a, i), f, identity, null), ArrayLib.len(a));
+  }
+
+  @VmyFunction
+  public static Object preduce(int from, int to, Callable f, Object identity){
+    return run(new Job(Op.Reduce, i -> from + i, f, identity, null), length(from, to));
+  }
+
+  @VmyFunction
+  public static void pforeach(Object a, Callable f){
+    run(new Job(Op.Foreach, i -> ArrayLib.element(a, i), f, null, null), ArrayLib.len(a));
+  }
+
+  @VmyFunction
+  public static void pforeach(int from, int to, Callable f){
+    run(new Job(Op.Foreach, i -> from + i, f, null, null), length(from, to));
+  }
+
+  private static Object map(int length, IntFunction<Object> elements, Callable f){
+
+    final Object[] results = new Object[length];
+    run(new Job(Op.Map, elements, f, null, results), length);
+    return ArrayLib.array_of(results);
+
+  }
+
+  private static int length(int from, int to){
+    return Math.max(0, to - from);
+  }
+
+  private static Object run(Job job, int length){
+    final Task task = new Task(job, 0, length);
+    // a short one isn't worth the hand-off to the pool
+    return length <= threshold ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+  }
+
+  private enum Op {
+    Map,
+    Filter,
+    Reduce,
+    Foreach
+  }
+
+  // what all parts share, output is the sink of the caller
+  private record Job(Op op, IntFunction<Object> elements, Callable f, Object identity, Object[] results, OutputSink output){
+    Job(Op op, IntFunction<Object> elements, Callable f, Object identity, Object[] results){
+      this(op, elements, f, identity, results, OutputSink.current());
+    }
+  }
+
+  private static final class Task extends RecursiveTask<Object> {
+    private final Job job;
+    private final int from;
+    private final int to;
+
+    Task(Job _job, int _from, int _to){
+      job = _job;
+      from = _from;
+      to = _to;
+    }
+
+    @Override
+    protected Object compute() {
+
+      if(to - from <= threshold)
+        return part();
+      final int middle = (from + to) >>> 1;
+      final Task right = new Task(job, middle, to);
+      right.fork();
+      final Object left = new Task(job, from, middle).compute();
+      return merge(left, right.join());
+
+    }
+
+    private Object part(){
+
+      final LineSink sink = new LineSink(job.output);
+      final OutputSink previous = OutputSink.bind(sink);
+      try {
+        final Callable f = job.f.for_worker();
+        final IntFunction<Object> elements = job.elements;
+        switch (job.op){
+          case Map -> {
+            for(int i = from; i < to; i++)
+              job.results[i] = f.call(elements.apply(i));
+            return null;
+          }
+          case Filter -> {
+            int[] kept = new int[to - from];
+            int count = 0;
+            for(int i = from; i < to; i++)
+              if(is_true(f.call(elements.apply(i)))) kept[count++] = i;
+            return count == kept.length ? kept : Arrays.copyOf(kept, count);
+          }
+          case Reduce -> {
+            Object acc = job.identity;
+            for(int i = from; i < to; i++)
+              acc = f.call(acc, elements.apply(i));
+            return acc;
+          }
+          default -> {
+            for(int i = from; i < to; i++)
+              f.call(elements.apply(i));
+            return null;
+          }
+        }
+      } finally {
+        sink.flush();
+        OutputSink.bind(previous);
+      }
+
+    }
+
+    private Object merge(Object left, Object right){
+
+      return switch (job.op){
+        case Filter -> {
+          int[] l = (int[]) left, r = (int[]) right;
+          int[] kept = Arrays.copyOf(l, l.length + r.length);
+          System.arraycopy(r, 0, kept, l.length, r.length);
+          yield kept;
+        }
+        case Reduce -> job.f.for_worker().call(left, right);
+        default -> null;
+      };
+
+    }
+
+    private static boolean is_true(Object result){
+      if(result instanceof Boolean b) return b;
+      throw new VmyRuntimeException("function of pfilter should return Boolean, but got " + Utils.display(result));
+    }
+  }
+
+  /**
+   * keeps the pieces of a line, the line is written to the shared sink at once when it ends
+   */
+  private static final class LineSink implements OutputSink {
+    private final OutputSink shared;
+    private final List<Object> line = new ArrayList<>();
+
+    LineSink(OutputSink _shared){
+      shared = _shared;
+    }
+
+    @Override
+    public void write(CharSequence chars) {
+      line.add(chars.toString());
+    }
+
+    @Override
+    public void write(char c) {
+      line.add(c);
+    }
+
+    @Override
+    public void write(int i) {
+      line.add(i);
+    }
+
+    @Override
+    public void write(long l) {
+      line.add(l);
+    }
+
+    @Override
+    public void write(double d) {
+      line.add(d);
+    }
+
+    @Override
+    public void write(boolean b) {
+      line.add(b);
+    }
+
+    @Override
+    public void newline() {
+      synchronized (shared){
+        for(Object piece : line) shared.write(piece);
+        shared.newline();
+      }
+      line.clear();
+    }
+
+    // the rest of a line not ended
+    @Override
+    public void flush() {
+      if(line.isEmpty()) return;
+      synchronized (shared){
+        for(Object piece : line) shared.write(piece);
+      }
+      line.clear();
+    }
+  }
+
+}
@@ -0,0 +1,174 @@
+package com.silence.vmy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>what a profiling evaluator records : count, total and self time of each evaluated node, and a tree of calls</p>
+ * <p>
+ *   {@link #report()} is a text report of hot nodes, loops and call sites,
+ *   {@link #collapsed()} is collapsed stacks (like "main;fib;fib 1200") that flame graph tools can read
+ * </p>
+ * <p>a profile is filled by one evaluator, it's not thread safe</p>
+ */
+public final class Profile {
+  private static final int Top = 20;
+  // deeper calls are recorded at this depth, a deep recursion doesn't make a huge tree
+  private static final int MaxDepth = 256;
+
+  public enum Kind { Node, Loop, Call }
+
+  // one node of the script
+  public static final class Stat {
+    final String label;
+    final Kind kind;
+    // the body of loop, its count is the iterations
+    final Object body;
+    long count;
+    long total;
+    long self;
+
+    Stat(String _label, Kind _kind, Object _body){
+      label = _label;
+      kind = _kind;
+      body = _body;
+    }
+
+    void add(long _total, long _self){
+      count++;
+      total += _total;
+      self += _self;
+    }
+  }
+
+  // a function on the call stack
+  static final class CallTree {
+    final String name;
+    final int depth;
+    final Map<String, CallTree> children = new HashMap<>();
+    long count;
+    long total;
+
+    CallTree(String _name, int _depth){
+      name = _name;
+      depth = _depth;
+    }
+
+    CallTree child(String _name){
+      if(depth >= MaxDepth) return this;
+      CallTree child = children.get(_name);
+      if(Objects.isNull(child))
+        children.put(_name, child = new CallTree(_name, depth + 1));
+      return child;
+    }
+
+    void add(long elapsed){
+      count++;
+      total += elapsed;
+    }
+
+    long self(){
+      long self = total;
+      for(CallTree child : children.values())
+        self -= child.total;
+      return Math.max(self, 0);
+    }
+  }
+
+  private final Map<Object, Stat> stats = new IdentityHashMap<>();
+  private final CallTree root = new CallTree("main", 0);
+
+  Stat stat(Object node){
+    return stats.get(node);
+  }
+
+  Stat add(Object node, String label, Kind kind, Object body){
+    Stat stat = new Stat("#" + stats.size() + " " + label, kind, body);
+    stats.put(node, stat);
+    return stat;
+  }
+
+  CallTree root(){
+    return root;
+  }
+
+  // time of the top level nodes
+  void finish(long elapsed){
+    root.add(elapsed);
+  }
+
+  public String report(){
+
+    StringBuilder report = new StringBuilder()
+      .append("== vmy profile, total ").append(ms(root.total)).append(" ms ==\n");
+
+    report.append("-- hot nodes (self time)\n");
+    header(report, "count", "total(ms)", "self(ms)", "node");
+    for(Stat stat : top(null, Comparator.comparingLong(stat -> stat.self)))
+      row(report, stat.count, stat.total, stat.self, stat.label);
+
+    report.append("-- hot loops (total time)\n");
+    header(report, "runs", "total(ms)", "iterations", "loop");
+    for(Stat stat : top(Kind.Loop, Comparator.comparingLong(stat -> stat.total))){
+      Stat body = stats.get(stat.body);
+      report.append(String.format("%12d %12s %12d  %s%n", stat.count, ms(stat.total), Objects.isNull(body) ? 0 : body.count, stat.label));
+    }
+
+    report.append("-- hot call sites (total time)\n");
+    header(report, "calls", "total(ms)", "avg(us)", "call");
+    for(Stat stat : top(Kind.Call, Comparator.comparingLong(stat -> stat.total)))
+      report.append(String.format("%12d %12s %12.3f  %s%n", stat.count, ms(stat.total), stat.total / 1000.0 / stat.count, stat.label));
+    return report.toString();
+
+  }
+
+  /**
+   * collapsed stacks, each line is a stack of calls and the self time (us) of the last one
+   */
+  public String collapsed(){
+    StringBuilder lines = new StringBuilder();
+    collapse(root, root.name, lines);
+    return lines.toString();
+  }
+
+  public void write_collapsed(Path file) throws IOException {
+    Files.writeString(file, collapsed());
+  }
+
+  private static void collapse(CallTree tree, String stack, StringBuilder lines){
+    long self = tree.self() / 1000;
+    if(self > 0)
+      lines.append(stack).append(' ').append(self).append('\n');
+    for(CallTree child : tree.children.values())
+      collapse(child, stack + ";" + child.name, lines);
+  }
+
+  private List<Stat> top(Kind kind, Comparator<Stat> order){
+    List<Stat> selected = new ArrayList<>();
+    for(Stat stat : stats.values())
+      if(stat.count > 0 && (Objects.isNull(kind) || stat.kind == kind))
+        selected.add(stat);
+    selected.sort(order.reversed());
+    return selected.subList(0, Math.min(Top, selected.size()));
+  }
+
+  private static void header(StringBuilder report, String a, String b, String c, String d){
+    report.append(String.format("%12s %12s %12s  %s%n", a, b, c, d));
+  }
+
+  private static void row(StringBuilder report, long count, long total, long self, String label){
+    report.append(String.format("%12d %12s %12s  %s%n", count, ms(total), ms(self), label));
+  }
+
+  private static String ms(long nanos){
+    return String.format("%.3f", nanos / 1e6);
+  }
+}
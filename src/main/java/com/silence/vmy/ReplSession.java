@@ -0,0 +1,123 @@
+package com.silence.vmy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>a repl session, lines are evaluated one by one in a {@link VmyContext} of the session</p>
+ * <p>
+ *   one scanner is reused by all lines, a line is parsed and checked once, the tree is cached by the text of the line,
+ *   a repeated line (like a loop run again) goes to the evaluator directly.
+ *   global variables are resolved once by the nodes of the cached tree
+ * </p>
+ * <p>a line with unclosed braces is continued by the next lines, like "while(i < 3) {"</p>
+ */
+public final class ReplSession {
+  public static final int DefaultCacheSize = 1024;
+
+  private final VmyContext context;
+  private final Map<String, AST.VmyAST> compiled;
+  // lines of an unfinished statement
+  private final StringBuilder pending = new StringBuilder();
+  private int open_braces;
+  private Scripts.FileInputScanner scanner;
+  // trees are checked for the frame, they're dropped when the frame changes
+  private Frame compiled_for;
+
+  public ReplSession(){
+    this(new VmyContext(), DefaultCacheSize);
+  }
+
+  public ReplSession(VmyContext _context, int cache_size){
+    context = _context;
+    compiled = new LinkedHashMap<>(64, 0.75f, true){
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, AST.VmyAST> eldest) {
+        return size() > cache_size;
+      }
+    };
+  }
+
+  /**
+   * evaluate a line, or keep it if its braces are not closed
+   * @param line a line of vmy script
+   * @return result of the line, null if it's continued
+   */
+  public Object eval_line(String line){
+
+    if(pending.length() > 0) pending.append('\n');
+    pending.append(line);
+    open_braces += braces(line);
+    if(open_braces > 0) return null;
+
+    final String source = pending.toString();
+    pending.setLength(0);
+    open_braces = 0;
+    return eval(source);
+
+  }
+
+  /**
+   * evaluate a complete script in the session
+   */
+  public Object eval(String source){
+
+    if(compiled_for != context.frame()){
+      compiled.clear();
+      compiled_for = context.frame();
+    }
+    AST.VmyAST tree = compiled.get(source);
+    if(Objects.isNull(tree)){
+      tree = AST.check(parse(source), context.frame());
+      compiled.put(source, tree);
+    }
+    return context.run(tree, false);
+
+  }
+
+  private AST.VmyAST parse(String source){
+    if(Objects.isNull(scanner)){
+      try {
+        scanner = new Scripts.FileInputScanner(source, false);
+      } catch (Exception e) {
+        throw new VmyRuntimeException(e.getMessage());
+      }
+    } else scanner.reset(source);
+    return AST.build(scanner);
+  }
+
+  // true if some lines are waiting for closing braces
+  public boolean continued(){
+    return pending.length() > 0;
+  }
+
+  // drop the unfinished lines
+  public void cancel(){
+    pending.setLength(0);
+    open_braces = 0;
+  }
+
+  public int cached(){
+    return compiled.size();
+  }
+
+  public VmyContext context(){
+    return context;
+  }
+
+  // count of { minus count of }, out of strings and comments
+  private static int braces(String line){
+    int count = 0;
+    boolean in_string = false;
+    for(int i=0; i<line.length(); i++){
+      char c = line.charAt(i);
+      if(c == '"') in_string = !in_string;
+      else if(in_string) continue;
+      else if(c == '#') break;
+      else if(c == '{') count++;
+      else if(c == '}') count--;
+    }
+    return count;
+  }
+}
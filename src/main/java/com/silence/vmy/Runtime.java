@@ -1,5 +1,10 @@
 package com.silence.vmy;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.WeakHashMap;
@@ -14,8 +19,25 @@ public class Runtime {
     boolean mutable();
   }
 
-  private static class DefaultOPool implements ObjPool {
-    private Map<Long, Object> objectMapper = new WeakHashMap<>();
+  private static class DefaultOPool implements ObjPool, Serializable {
+    private static final long serialVersionUID = 1L;
+    private transient Map<Long, Object> objectMapper = new WeakHashMap<>();
+
+    DefaultOPool(){
+      if(VmyMetrics.Enabled) VmyMetrics.pool(this);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      out.writeObject(new HashMap<>(objectMapper));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      objectMapper = new WeakHashMap<>((Map<Long, Object>) in.readObject());
+      if(VmyMetrics.Enabled) VmyMetrics.pool(this);
+    }
 
     @Override
     public void put(Long identity, Object obj) {
@@ -33,6 +55,11 @@ public class Runtime {
     public boolean exists(Long identity) {
       return objectMapper.containsKey(identity);
     }
+
+    @Override
+    public int size() {
+      return objectMapper.size();
+    }
   }
 
   // create a pool to store objects
@@ -60,7 +87,8 @@ public class Runtime {
     return OBJPool.get(identity);
   }
 
-  private static class DefaultVariableImpl implements Variable{
+  private static class DefaultVariableImpl implements Variable, Serializable{
+    private static final long serialVersionUID = 1L;
 
     private final VmyType type;
     private Object value;
@@ -91,6 +119,7 @@ public class Runtime {
   }
 
   private static class ImmutableVariable extends DefaultVariableImpl {
+    private static final long serialVersionUID = 1L;
 
     public ImmutableVariable(VmyType _Type) {
       super(_Type);
@@ -102,6 +131,13 @@ public class Runtime {
     }
   }
 
+  // a variable can't be assigned, holding the value
+  public static Variable constant(VmyType type, Object value){
+    Variable variable = new ImmutableVariable(type);
+    variable.setValue(value);
+    return variable;
+  }
+
   public static interface WithName {
     String name();
   }
@@ -0,0 +1,141 @@
+package com.silence.vmy;
+
+/**
+ * plain loops of {@link ArrayKernels}, also the tails of {@link VectorArrayKernels}
+ */
+class ScalarArrayKernels implements ArrayKernels {
+
+  @Override
+  public String name() {
+    return "scalar";
+  }
+
+  @Override
+  public int[] add(int[] a, int[] b) {
+    return add(a, b, new int[a.length], 0);
+  }
+
+  int[] add(int[] a, int[] b, int[] r, int from){
+    for(int i = from; i < a.length; i++)
+      r[i] = Math.addExact(a[i], b[i]);
+    return r;
+  }
+
+  @Override
+  public double[] add(double[] a, double[] b) {
+    return add(a, b, new double[a.length], 0);
+  }
+
+  double[] add(double[] a, double[] b, double[] r, int from){
+    for(int i = from; i < a.length; i++)
+      r[i] = a[i] + b[i];
+    return r;
+  }
+
+  @Override
+  public int[] mul(int[] a, int[] b) {
+    int[] r = new int[a.length];
+    for(int i = 0; i < a.length; i++)
+      r[i] = Math.multiplyExact(a[i], b[i]);
+    return r;
+  }
+
+  @Override
+  public double[] mul(double[] a, double[] b) {
+    return mul(a, b, new double[a.length], 0);
+  }
+
+  double[] mul(double[] a, double[] b, double[] r, int from){
+    for(int i = from; i < a.length; i++)
+      r[i] = a[i] * b[i];
+    return r;
+  }
+
+  @Override
+  public long dot(int[] a, int[] b) {
+    return dot(a, b, 0, 0);
+  }
+
+  long dot(int[] a, int[] b, long acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc += (long) a[i] * b[i];
+    return acc;
+  }
+
+  @Override
+  public double dot(double[] a, double[] b) {
+    return dot(a, b, 0, 0);
+  }
+
+  double dot(double[] a, double[] b, double acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc += a[i] * b[i];
+    return acc;
+  }
+
+  @Override
+  public long sum(int[] a) {
+    return sum(a, 0, 0);
+  }
+
+  long sum(int[] a, long acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc += a[i];
+    return acc;
+  }
+
+  @Override
+  public double sum(double[] a) {
+    return sum(a, 0, 0);
+  }
+
+  double sum(double[] a, double acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc += a[i];
+    return acc;
+  }
+
+  @Override
+  public int min(int[] a) {
+    return min(a, Integer.MAX_VALUE, 0);
+  }
+
+  int min(int[] a, int acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc = Math.min(acc, a[i]);
+    return acc;
+  }
+
+  @Override
+  public double min(double[] a) {
+    return min(a, Double.POSITIVE_INFINITY, 0);
+  }
+
+  double min(double[] a, double acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc = Math.min(acc, a[i]);
+    return acc;
+  }
+
+  @Override
+  public int max(int[] a) {
+    return max(a, Integer.MIN_VALUE, 0);
+  }
+
+  int max(int[] a, int acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc = Math.max(acc, a[i]);
+    return acc;
+  }
+
+  @Override
+  public double max(double[] a) {
+    return max(a, Double.NEGATIVE_INFINITY, 0);
+  }
+
+  double max(double[] a, double acc, int from){
+    for(int i = from; i < a.length; i++)
+      acc = Math.max(acc, a[i]);
+    return acc;
+  }
+}
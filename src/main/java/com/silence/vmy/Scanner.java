@@ -24,6 +24,12 @@ public interface Scanner {
    */
   boolean hasNext();
 
+  /**
+   * put the token back, it will be the next token
+   * @param token {@link Token}
+   */
+  void push_back(Token token);
+
   /**
    * register a {@link TokenHistoryRecorder} to record each used Token, 
    * if want to this function full work,you need implement it by yourself.
@@ -35,4 +41,11 @@ public interface Scanner {
     return false;
   }
 
+  /**
+   * name of the source, like the file path, used by events and errors
+   */
+  default String name(){
+    return "<script>";
+  }
+
 }
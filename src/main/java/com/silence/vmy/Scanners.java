@@ -58,6 +58,11 @@ public class Scanners {
       return !tokens.isEmpty();
     }
 
+    @Override
+    public void push_back(Token token) {
+      tokens.add(0, token);
+    }
+
     void checkNotEmpty(){
       while(tokens.isEmpty() && pos < source.length())
         doScan();
@@ -155,28 +160,46 @@ public class Scanners {
 
     @Override
     protected int doHandle(List<Token> tokens, String source, int start) {
-      final StringBuilder builder = new StringBuilder();
+      final Numbers.Literal literal = new Numbers.Literal();
       int walk = start;
-      boolean is_float = false;
+      char c;
       while(
         walk < source.length() && 
-        (Objects.equals('.', source.charAt(walk)) || Character.isDigit(source.charAt(walk)))
+        ((c = source.charAt(walk)) == '.' || Character.isDigit(c)) &&
+        // stop at range, like : 0..10
+        !source.startsWith(Identifiers.Range, walk)
       ){
-        builder.append(source.charAt(walk));
-        if(Objects.equals('.', source.charAt(walk))) 
-          is_float = true;
+        if(c == '.') literal.point();
+        else literal.digit(c);
         walk++;
       }
       tokens.add(
         new Token(
-          is_float ? Token.DOUBLE_V : Token.INT_V,
-          builder.toString()
+          literal.floating() ? Token.DOUBLE_V : Token.INT_V,
+          source.substring(start, walk),
+          -1,
+          literal.value()
         )
       );
       return walk;
     }
   }
 
+  // range of for loop, like : 0..10
+  static final class RangeHandler extends BaseHandler {
+
+    @Override
+    protected boolean canHandle(List<Token> tokens, String source, int start) {
+      return source.startsWith(Identifiers.Range, start);
+    }
+
+    @Override
+    protected int doHandle(List<Token> tokens, String source, int start) {
+      tokens.add(new Token(Token.Identifier, Identifiers.Range));
+      return start + Identifiers.Range.length();
+    }
+  }
+
   private static class CommaHandler extends OrderedHandler {
     public CommaHandler() {
       super(Utils.Order.Three.level());
@@ -274,13 +297,13 @@ public class Scanners {
     }
 
     /**
-     * get identifier tag , while -> Builtin, bool (true, false) -> literal, print -> BuiltinCall
+     * get identifier tag , while fn return -> Builtin, bool (true, false) -> literal, print -> BuiltinCall
      * @param identifier
      * @return {@code int}
      */
     int identifier_tag(String identifier){
       return switch (identifier){
-        case Identifiers.While -> Token.Builtin;
+        case Identifiers.While, Identifiers.Function, Identifiers.Return, Identifiers.For, Identifiers.In, Identifiers.Import -> Token.Builtin;
         case Identifiers.True , Identifiers.False -> Token.Literal;
         case Identifiers.Print -> Token.BuiltinCall;
         default -> {
@@ -339,6 +362,7 @@ public class Scanners {
     .next(new BlackHandler())
     .next(new CommaHandler())
     .next(new BracesHandler())
+    .next(new RangeHandler())
 //        .next(new )
     .next(new DefaultHandler())
     .build();
@@ -4,9 +4,15 @@ import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -29,11 +35,108 @@ public class Scripts {
    * @param script_files files of script
    */
   public static void run(String[] script_files){
-    for (String file_path : script_files)
-      do_with_file_input_scanner(
-          file_path,
-          eval_with_scanner()
+    try {
+      for (String file_path : script_files)
+        do_with_file_input_scanner(
+            file_path,
+            eval_with_scanner()
+        );
+    } finally {
+      OutputSink.current().flush();
+    }
+  }
+
+  /**
+   * run scripts by {@code jobs} threads, each script runs in a context of its own.
+   * output of a script is buffered, it's written after the output of scripts before it, like the serial run
+   * <p>timing of all the scripts is written to stderr at the end</p>
+   * @param script_files files of script
+   * @param jobs max count of scripts running at the same time
+   */
+  public static void run(String[] script_files, int jobs){
+
+    if(jobs <= 1){
+      run(script_files);
+      return;
+    }
+    final long start = System.nanoTime();
+    final ExecutorService workers = Executors.newFixedThreadPool(Math.min(jobs, Math.max(script_files.length, 1)));
+    // output of the scripts goes to the sink of current thread, like the serial run
+    final OutputSink sink = OutputSink.current();
+    try{
+      List<Future<ScriptRun>> runs = new ArrayList<>(script_files.length);
+      for(String file_path : script_files)
+        runs.add(workers.submit(() -> run_buffered(file_path)));
+
+      long busy = 0;
+      int failed = 0;
+      for(Future<ScriptRun> future : runs){
+        ScriptRun run = future.get();
+        // the bytes are utf-8, the sink copies them as they are
+        sink.write(new ByteSlice(ByteBuffer.wrap(run.output()), 0, run.output().length, false));
+        busy += run.nanos();
+        if(Objects.nonNull(run.error())){
+          failed++;
+          // the output of the script goes before its error
+          sink.flush();
+          System.err.println("[vmy] " + run.file() + " failed : " + run.error().getMessage());
+        }
+      }
+      sink.flush();
+      System.err.printf(
+          "[vmy] %d scripts by %d jobs in %d ms, %d ms in scripts, %d failed%n",
+          script_files.length,
+          jobs,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          TimeUnit.NANOSECONDS.toMillis(busy),
+          failed
       );
+      if(failed > 0)
+        throw new VmyRuntimeException(failed + " of " + script_files.length + " scripts failed");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new VmyRuntimeException("interrupted");
+    } catch (ExecutionException e) {
+      throw new VmyRuntimeException(e.getCause().getMessage());
+    } finally {
+      sink.flush();
+      workers.shutdownNow();
+    }
+
+  }
+
+  // a script run by a worker, its output and error
+  private record ScriptRun(String file, byte[] output, long nanos, Exception error) {}
+
+  private static ScriptRun run_buffered(String file_path){
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final long start = System.nanoTime();
+    Exception error = null;
+    try{
+      new VmyContext(false, new BufferedOutputSink(output)).eval_file(file_path);
+    }catch (Exception e){
+      error = e;
+    }
+    return new ScriptRun(file_path, output.toByteArray(), System.nanoTime() - start, error);
+  }
+
+  /**
+   * run scripts and record them to one profile
+   * @param script_files files of script
+   * @return the profile, see {@link Profile#report()}
+   */
+  public static Profile profile(String[] script_files){
+    final Profile profile = new Profile();
+    try {
+      for (String file_path : script_files)
+        do_with_file_input_scanner(
+            file_path,
+            scanner -> new VmyContext().profile(profile).eval(scanner)
+        );
+    } finally {
+      OutputSink.current().flush();
+    }
+    return profile;
   }
 
   public static void do_with_file_input_scanner(
@@ -58,7 +161,8 @@ public class Scripts {
    * @return {@link Consumer }
    */
   public static Consumer<Scripts.FileInputScanner> eval_with_scanner() {
-    return scanner -> AST.evaluator(true).eval(AST.build(scanner));
+    // each script runs in a context of its own
+    return scanner -> new VmyContext().eval(scanner);
   }
 
   /**
@@ -118,10 +222,19 @@ public class Scripts {
     ) throws FileNotFoundException {
 
       this.file_path = file_path_or_pure_string;
+      this.is_file = is_file_path;
+      lex.begin();
       init(file_path_or_pure_string, is_file_path);
 
     }
 
+    // scan the source string, errors and imports take it as the file of the name, like a module
+    FileInputScanner(String source, String file_name) throws FileNotFoundException {
+      this(source, false);
+      file_path = file_name;
+      is_file = true;
+    }
+
     /**
      * init resource
      * @param filename_or_string_expression
@@ -168,13 +281,51 @@ public class Scripts {
     private ByteArrayInputStream arr_origin;
     private List<Token> tokens;
     private ByteBuffer buffer;
-    private final String file_path;
+    private String file_path;
+    private boolean is_file;
+    // committed when closed or reset, if it's recording
+    private VmyEvents.Lex lex = new VmyEvents.Lex();
     private int pos;
     private int record;
     private LinkedList<Character> cs;
+    private final Numbers.Literal number_literal = new Numbers.Literal();
+    // chars of the identifier or string literal being read
+    private final StringBuilder chars = new StringBuilder();
     private boolean end_of_file;
     private TokenHistoryRecorder token_history_recorder;
 
+    /**
+     * scan another string with the buffers of this scanner, like lines of a repl session
+     * @param source vmy script
+     */
+    void reset(String source){
+
+      commit_lex();
+      if(Objects.nonNull(origin)){
+        try {
+          origin.close();
+        } catch (IOException e) {
+          throw new LexicalException(pos(), file_path, e.getMessage());
+        }
+        origin = null;
+      }
+      file_path = source;
+      is_file = false;
+      arr_origin = new ByteArrayInputStream(source.getBytes());
+      channel = Channels.newChannel(arr_origin);
+      buffer.clear().flip();
+      pos = 0;
+      record = 0;
+      cs.clear();
+      tokens.clear();
+      end_of_file = false;
+      // AST.build registers a new recorder for each tree
+      token_history_recorder = null;
+      lex = new VmyEvents.Lex();
+      lex.begin();
+
+    }
+
     @Override
     public List<Token> scan(String source) {
       List<Token> tos = new LinkedList<>();
@@ -203,11 +354,27 @@ public class Scripts {
       return !tokens.isEmpty();
     }
 
+    @Override
+    public void push_back(Token token) {
+      tokens.add(0, token);
+    }
+
 
     /**
      * check if the token list is empty, if empty and has char , then add new token to token list
      */
     private void checkNotEmpty() {
+      if((VmyMetrics.Enabled || lex.isEnabled()) && tokens.isEmpty()){
+        final long start = System.nanoTime();
+        while(has_char() && tokens.isEmpty())
+          do_fill_tokens();
+        final long elapsed = System.nanoTime() - start;
+        if(VmyMetrics.Enabled)
+          VmyMetrics.lexed(tokens.size(), elapsed);
+        lex.tokens += tokens.size();
+        lex.lexing += elapsed;
+        return;
+      }
       while(has_char() && tokens.isEmpty())
         do_fill_tokens();
     }
@@ -241,10 +408,16 @@ public class Scripts {
           case ' ':
             handle_black();
             break;
+          case Identifiers.Dot:
+            handle_range();
+            break;
           case Identifiers.OpenBraceChar:
           case Identifiers.ClosingBraceChar:
           case ',': // Comma
           case '(':
+          case ')':
+          case '[':
+          case ']':
             handle_single_char_identifier();
             break;
           default:
@@ -291,7 +464,9 @@ public class Scripts {
       record_position();
       next_char(); // remove "
 
-      StringBuilder builder = new StringBuilder().append('"');
+      final StringBuilder builder = chars;
+      builder.setLength(0);
+      builder.append('"');
       while(
         has_char() &&
         // not quote
@@ -310,11 +485,16 @@ public class Scripts {
           "string literal has no closing quote"
         );
 
+      builder.append('"');
+      // identical literals (with the quotes) share one String, it's created only for a new or long literal
+      final int symbol = Symbols.literal(builder);
       tokens.add(
         new Token(
           Token.Literal, 
-          builder.append('"').toString(), 
-          get_record()
+          symbol != 0 ? Symbols.name(symbol) : builder.toString(),
+          get_record(),
+          null,
+          symbol
         )
       );
 
@@ -327,21 +507,62 @@ public class Scripts {
     private void handle_digit_literal() {
       record_position();
 
-      final StringBuilder builder = new StringBuilder();
+      // digits are decoded as they are read
+      final Numbers.Literal literal = number_literal.reset();
       while( has_char() && Character.isDigit(peek_char()) )
-        builder.append(next_char());
+        literal.digit(next_char());
 
-      if( has_char() && Utils.equal(peek_char(), Identifiers.Dot)){
+      if( has_char() && Utils.equal(peek_char(), Identifiers.Dot) && !is_range()){
         // double
-        builder.append(next_char());
+        next_char();
+        literal.point();
         while( has_char() && Character.isDigit(peek_char()) )
-          builder.append(next_char());
+          literal.digit(next_char());
       }
 
+      // no text is built, the value is the number
       tokens.add(
         new Token(
           Token.Literal, 
-          builder.toString(), 
+          null, 
+          get_record(),
+          literal.value()
+        )
+      );
+
+    }
+
+    /**
+     * ".." after a number is a range, not the point of a double, like : 0..10
+     */
+    private boolean is_range(){
+
+      char dot = next_char(); // move out
+      boolean range = has_char() && Utils.equal(peek_char(), Identifiers.Dot);
+      cs.addFirst(dot); // set back
+      pos--;
+      return range;
+
+    }
+
+    /**
+     * handle range of for loop , like : 0..10
+     */
+    private void handle_range(){
+      record_position();
+
+      next_char();
+      if(!has_char() || !Utils.equal(next_char(), Identifiers.Dot))
+        throw new LexicalException(
+          get_record(),
+          file_path,
+          "can't handle char : . at position " + get_record()
+        );
+
+      tokens.add(
+        new Token(
+          Token.Identifier,
+          Identifiers.Range,
           get_record()
         )
       );
@@ -354,18 +575,23 @@ public class Scripts {
     private void handle_identifier_kind() {
       record_position();
 
-      final StringBuilder builder = new StringBuilder();
+      final StringBuilder builder = chars;
+      builder.setLength(0);
       while(
         has_char() && 
         Identifiers.identifiers.contains(peek_char())
       ) builder.append(next_char());
 
-      final String identifier = builder.toString();
+      // the String is created only for a new symbol, or when the table is full
+      final int symbol = Symbols.intern(builder);
+      final String identifier = symbol != 0 ? Symbols.name(symbol) : builder.toString();
       tokens.add(
         new Token(
           get_identifier_kind(identifier),
           identifier,
-          get_record()
+          get_record(),
+          null,
+          symbol
         )
       );
 
@@ -403,11 +629,16 @@ public class Scripts {
 
         case /* = */ Identifiers.Assignment -> Token.Assignment;
 
-        case /* while, if, elif, else */ 
+        case /* while, if, elif, else, fn, return, for, in, import */ 
           Identifiers.While, 
           Identifiers.If, 
           Identifiers.Elif, 
-          Identifiers.Else -> Token.Builtin;
+          Identifiers.Else,
+          Identifiers.Function,
+          Identifiers.Return,
+          Identifiers.For,
+          Identifiers.In,
+          Identifiers.Import -> Token.Builtin;
 
         case /* true false */ 
           Identifiers.True, 
@@ -558,9 +789,24 @@ public class Scripts {
 
     }
 
+    private void commit_lex(){
+      lex.end();
+      if(lex.shouldCommit()){
+        lex.script = name();
+        lex.commit();
+      }
+    }
+
+    @Override
+    public String name() {
+      return is_file ? file_path : "<string>";
+    }
+
     @Override
     public void close() throws Exception {
 
+      commit_lex();
+
       if(Objects.nonNull(origin))
         origin.close();
       if(Objects.nonNull(arr_origin))
@@ -0,0 +1,55 @@
+package com.silence.vmy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * <p>image of initialized interpreter state, like the frame of {@link VmyContext} or a {@link CompiledScript}</p>
+ * <p>
+ *   builtins are not in the image, they're registered by java, a restored frame is linked to the builtins by name when called.
+ *   functions registered by java to a {@link FunctionSupport.FunctionTable} can't be saved
+ * </p>
+ */
+final class Snapshot {
+  private Snapshot(){}
+
+  private static final String Magic = "vmy-snapshot";
+  private static final int Version = 1;
+  // only classes of vmy and values of java can be restored
+  private static final ObjectInputFilter Filter = ObjectInputFilter.Config.createFilter(
+    "maxdepth=10000;com.silence.vmy.**;java.lang.*;java.util.*;!*"
+  );
+
+  static byte[] write(Serializable state){
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 12);
+    try(ObjectOutputStream out = new ObjectOutputStream(bytes)){
+      out.writeUTF(Magic);
+      out.writeInt(Version);
+      out.writeObject(state);
+    }catch (IOException e){
+      throw new VmyRuntimeException("can't snapshot : " + e);
+    }
+    return bytes.toByteArray();
+
+  }
+
+  static <T> T read(byte[] image, Class<T> type){
+
+    try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(image))){
+      in.setObjectInputFilter(Filter);
+      if(!Objects.equals(in.readUTF(), Magic) || in.readInt() != Version)
+        throw new VmyRuntimeException("not a vmy snapshot of version " + Version);
+      return type.cast(in.readObject());
+    }catch (IOException | ClassNotFoundException | ClassCastException e){
+      throw new VmyRuntimeException("can't restore snapshot : " + e);
+    }
+
+  }
+}
@@ -0,0 +1,151 @@
+package com.silence.vmy;
+
+import java.math.BigInteger;
+
+/**
+ * math and string functions written by java, bound as builtin functions
+ * @see NativeFunctions
+ */
+public class StdLib {
+  private StdLib(){}
+
+  /**
+   * abs of an Int of any class, it's promoted if it overflows, like abs(-2147483648)
+   */
+  @VmyFunction
+  public static Number abs(Number a){
+    return Numbers.compare(a, 0) < 0 ? Numbers.negate(a) : a;
+  }
+
+  @VmyFunction
+  public static double abs(double a){
+    return Math.abs(a);
+  }
+
+  @VmyFunction
+  public static Number max(Number a, Number b){
+    return Numbers.compare(a, b) >= 0 ? a : b;
+  }
+
+  @VmyFunction
+  public static double max(double a, double b){
+    return Math.max(a, b);
+  }
+
+  @VmyFunction
+  public static Number min(Number a, Number b){
+    return Numbers.compare(a, b) <= 0 ? a : b;
+  }
+
+  @VmyFunction
+  public static double min(double a, double b){
+    return Math.min(a, b);
+  }
+
+  @VmyFunction
+  public static double sqrt(double a){
+    return Math.sqrt(a);
+  }
+
+  @VmyFunction
+  public static double sqrt(Number a){
+    return Math.sqrt(a.doubleValue());
+  }
+
+  @VmyFunction
+  public static double pow(double a, double b){
+    return Math.pow(a, b);
+  }
+
+  @VmyFunction
+  public static int floor(double a){
+    return (int) Math.floor(a);
+  }
+
+  @VmyFunction("to_double")
+  public static double to_double(Number a){
+    return a.doubleValue();
+  }
+
+  /**
+   * parse a String to Double, a {@link ByteSlice} (field of stream mode or csv) is parsed from its bytes
+   */
+  @VmyFunction("to_double")
+  public static double to_double(Object a){
+    if(a instanceof Double d) return d;
+    try {
+      if(a instanceof ByteSlice slice) return slice.parse().doubleValue();
+      else if(a instanceof String s) return Double.parseDouble(s.trim());
+    } catch (NumberFormatException e) {
+      throw new VmyRuntimeException("not a Double : " + a);
+    }
+    throw new VmyRuntimeException("to_double needs a String, but got " + Utils.display(a));
+  }
+
+  /**
+   * parse a String to Int, a {@link ByteSlice} (field of stream mode or csv) is parsed from its bytes
+   */
+  @VmyFunction
+  public static Number to_int(Object a){
+    try {
+      if(a instanceof ByteSlice slice){
+        Number n = slice.parse();
+        if(Numbers.is_integer(n)) return n;
+      }else if(a instanceof String s)
+        return Numbers.normalize(new BigInteger(s.trim()));
+    } catch (NumberFormatException e) {
+      // not an Int
+    }
+    throw new VmyRuntimeException("not an Int : " + Utils.display(a));
+  }
+
+  // the String functions take a CharSequence, a ByteSlice (field of stream mode or csv) is read in place,
+  // only a String result is a copy
+
+  @VmyFunction
+  public static int len(CharSequence a){
+    return a.length();
+  }
+
+  @VmyFunction
+  public static String upper(CharSequence a){
+    return a instanceof String s ? s.toUpperCase() : ascii_case(a, true);
+  }
+
+  @VmyFunction
+  public static String lower(CharSequence a){
+    return a instanceof String s ? s.toLowerCase() : ascii_case(a, false);
+  }
+
+  // upper or lower of ascii chars, others by the String
+  private static String ascii_case(CharSequence a, boolean upper){
+    final char[] chars = new char[a.length()];
+    for(int i = 0; i < chars.length; i++){
+      final char c = a.charAt(i);
+      if(c >= 0x80) return upper ? a.toString().toUpperCase() : a.toString().toLowerCase();
+      chars[i] = upper ? Character.toUpperCase(c) : Character.toLowerCase(c);
+    }
+    return new String(chars);
+  }
+
+  @VmyFunction
+  public static String substring(CharSequence a, int start, int end){
+    return a instanceof String s ? s.substring(start, end) : a.subSequence(start, end).toString();
+  }
+
+  @VmyFunction
+  public static int index_of(CharSequence a, CharSequence b){
+    if(a instanceof String s && b instanceof String t) return s.indexOf(t);
+    for(int i = 0, last = a.length() - b.length(); i <= last; i++){
+      int j = 0;
+      while(j < b.length() && a.charAt(i + j) == b.charAt(j)) j++;
+      if(j == b.length()) return i;
+    }
+    return -1;
+  }
+
+  @VmyFunction
+  public static String to_string(Object a){
+    return Utils.display(a);
+  }
+}
@@ -0,0 +1,183 @@
+package com.silence.vmy;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>stream mode, like awk : {@code -e 'script' -stream [-F ,] [-begin 'script'] [-end 'script'] [files]}</p>
+ * <p>
+ *   the script runs for each line of the files (or stdin), with the variables :
+ *   line (String), fields (Array of String, split by the separator, runs of blanks by default) and nr (number of line).
+ *   it's compiled once as the body of a function, so variables declared by it are locals of the record,
+ *   the state across records is declared by the begin script, the end script runs after the last line.
+ * </p>
+ * <p>
+ *   input is read through a big buffer, line and fields are {@link ByteSlice}s of it, reused for the next line.
+ *   output goes to the buffered sink of stdout
+ * </p>
+ */
+public final class StreamFilter {
+  static final int BufferSize = 1 << 20;
+  // the function the script is compiled to
+  static final String Record = "stream_record";
+
+  private final VmyContext context;
+  private final Callable record;
+  // 0 means runs of blanks
+  private final byte separator;
+
+  private byte[] buffer = new byte[BufferSize];
+  // the view of buffer for slices
+  private ByteBuffer view = ByteBuffer.wrap(buffer);
+  private final ByteSlice line = new ByteSlice();
+  private ByteSlice[] slices = new ByteSlice[0];
+  private Object[] fields = new Object[0];
+  private final Object[] args = new Object[3];
+  private int nr;
+
+  /**
+   * @param script runs for each line
+   * @param begin runs before the first line, may be null
+   * @param _separator separator of fields, 0 for runs of blanks
+   */
+  public StreamFilter(VmyContext _context, String script, String begin, byte _separator){
+    context = _context;
+    separator = _separator;
+    context.eval(
+        (Objects.isNull(begin) ? "" : begin + "\n") +
+        "fn " + Record + "(line, fields, nr) {\n" + script + "\n}\n"
+    );
+    // one evaluator for all records
+    record = context.frame().functions().get(Record, 3).target().for_worker();
+  }
+
+  /**
+   * the main of stream mode
+   * @param files inputs, stdin if it's empty
+   * @param end runs after the last line, may be null
+   */
+  public static void run(String script, String begin, String end, byte separator, List<String> files){
+
+    final VmyContext context = new VmyContext();
+    final StreamFilter filter = new StreamFilter(context, script, begin, separator);
+    try {
+      if(files.isEmpty())
+        filter.read(new FileInputStream(FileDescriptor.in).getChannel());
+      else
+        for(String file : files)
+          try(FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)){
+            filter.read(channel);
+          }
+    } catch (IOException e) {
+      throw new VmyRuntimeException("input failed : " + e.getMessage());
+    }
+    if(Objects.nonNull(end))
+      context.eval(end);
+    OutputSink.current().flush();
+
+  }
+
+  /**
+   * run the script for each line of the channel, a line may end with \n or \r\n, the last one may have no end
+   */
+  public void read(ReadableByteChannel channel) throws IOException {
+
+    int filled = 0;
+    while(true){
+      view.limit(buffer.length).position(filled);
+      final int read = channel.read(view);
+      if(read < 0) break;
+      filled += read;
+      int start = 0;
+      int bits = 0;
+      for(int i = 0; i < filled; i++){
+        final byte b = buffer[i];
+        bits |= b;
+        if(b == '\n'){
+          record(start, i, bits >= 0);
+          start = i + 1;
+          bits = 0;
+        }
+      }
+      // the partial line is moved to the head, a line longer than the buffer grows it
+      filled -= start;
+      System.arraycopy(buffer, start, buffer, 0, filled);
+      if(filled == buffer.length){
+        buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        view = ByteBuffer.wrap(buffer);
+      }
+    }
+    if(filled > 0){
+      int bits = 0;
+      for(int i = 0; i < filled; i++) bits |= buffer[i];
+      record(0, filled, bits >= 0);
+    }
+
+  }
+
+  // the line is buffer[from, to)
+  private void record(int from, int to, boolean ascii){
+
+    if(to > from && buffer[to - 1] == '\r') to--;
+    line.set(view, from, to - from, ascii);
+    args[0] = line;
+    args[1] = split(from, to, ascii);
+    args[2] = ++nr;
+    record.call(args);
+
+  }
+
+  private Object[] split(int from, int to, boolean ascii){
+
+    int count = 0;
+    if(separator == 0){
+      int i = from;
+      while(true){
+        while(i < to && is_blank(buffer[i])) i++;
+        if(i == to) break;
+        final int start = i;
+        while(i < to && !is_blank(buffer[i])) i++;
+        slice(count++).set(view, start, i - start, ascii);
+      }
+    }else{
+      int start = from;
+      for(int i = from; i < to; i++)
+        if(buffer[i] == separator){
+          slice(count++).set(view, start, i - start, ascii);
+          start = i + 1;
+        }
+      slice(count++).set(view, start, to - start, ascii);
+    }
+    // the array is reused while the count of fields is the same
+    if(fields.length != count)
+      fields = new Object[count];
+    System.arraycopy(slices, 0, fields, 0, count);
+    return fields;
+
+  }
+
+  private ByteSlice slice(int i){
+    if(i == slices.length){
+      slices = Arrays.copyOf(slices, Math.max(8, slices.length << 1));
+      for(int j = i; j < slices.length; j++) slices[j] = new ByteSlice();
+    }
+    return slices[i];
+  }
+
+  private static boolean is_blank(byte b){
+    return b == ' ' || b == '\t';
+  }
+
+  public int records(){
+    return nr;
+  }
+}
@@ -0,0 +1,115 @@
+package com.silence.vmy;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *   the symbol table, identifiers and short string literals are interned at lex time,
+ *   a symbol is one String instance and a small int id, id 0 is no symbol
+ * </p>
+ * <p>
+ *   the ids are shared by the process, because a compiled tree (like a module) is shared by contexts and threads,
+ *   each {@link Global} indexes its own variables by the ids. the table is bounded by {@link #MaxSymbols},
+ *   a name beyond it is not interned and is looked up by the String.
+ * </p>
+ * <p>
+ *   the chars are looked up without creating a String and without locking, only a new symbol takes the lock
+ * </p>
+ */
+final class Symbols {
+  private Symbols(){}
+
+  // a longer literal isn't interned
+  static final int MaxLiteral = 64;
+  // count of symbols the table keeps, ids are less than it
+  static final int MaxSymbols = 1 << 16;
+
+  // names[id], an element is set before the id is put to slots
+  private static volatile String[] names = new String[1 << 10];
+  private static volatile int count = 1;
+  // open addressing by hash of chars, a slot is an id, 0 is empty, length is a power of 2 and at least 2 * count
+  private static volatile int[] slots = new int[1 << 11];
+
+  /**
+   * @return id of the symbol of the chars, a new one if it's not interned, 0 if the table is full
+   */
+  static int intern(CharSequence chars){
+
+    final int hash = chars instanceof String string ? string.hashCode() : hash(chars);
+    final int id = find(chars, hash);
+    return id != 0 || count >= MaxSymbols ? id : add(chars, hash);
+
+  }
+
+  /**
+   * intern a string literal (chars between the quotes, or with the quotes)
+   * @return id of the symbol, or 0 if it's too long to intern
+   */
+  static int literal(CharSequence chars){
+    return chars.length() <= MaxLiteral ? intern(chars) : 0;
+  }
+
+  static String name(int id){
+    return names[id];
+  }
+
+  // a racy read may miss a symbol being added, then it's looked up again with the lock
+  private static int find(CharSequence chars, int hash){
+
+    final String[] interned = names;
+    final int[] table = slots;
+    final int mask = table.length - 1;
+    for(int i = hash & mask; ; i = (i + 1) & mask){
+      final int id = table[i];
+      if(id == 0) return 0;
+      final String name = id < interned.length ? interned[id] : null;
+      if(name == null) return 0;
+      if(name.hashCode() == hash && name.contentEquals(chars)) return id;
+    }
+
+  }
+
+  private static synchronized int add(CharSequence chars, int hash){
+
+    final int found = find(chars, hash);
+    if(found != 0 || count >= MaxSymbols) return found;
+    final String name = chars.toString();
+    final int id = count;
+    String[] interned = names;
+    if(id == interned.length)
+      names = interned = Arrays.copyOf(interned, id << 1);
+    interned[id] = name;
+    final int[] table = slots;
+    final int mask = table.length - 1;
+    int i = hash & mask;
+    while(table[i] != 0) i = (i + 1) & mask;
+    table[i] = id;
+    count = id + 1;
+    if(count << 1 > table.length)
+      rehash(table.length << 1);
+    return id;
+
+  }
+
+  private static void rehash(int length){
+
+    final int[] table = new int[length];
+    final int mask = length - 1;
+    final String[] interned = names;
+    for(int id = 1; id < count; id++){
+      int i = interned[id].hashCode() & mask;
+      while(table[i] != 0) i = (i + 1) & mask;
+      table[i] = id;
+    }
+    slots = table;
+
+  }
+
+  // same as the hash of String
+  private static int hash(CharSequence chars){
+    int hash = 0;
+    for(int i = 0, length = chars.length(); i < length; i++)
+      hash = 31 * hash + chars.charAt(i);
+    return hash;
+  }
+}
@@ -1,23 +1,43 @@
 package com.silence.vmy;
 
+import java.util.Objects;
+
 public class Token {
   final int tag;
+  // text of the token, null for a number literal decoded by the scanner, see text()
   final String value;
   final int pos;
+  // decoded value of a number literal, or null
+  final Number number;
+  // id of the interned identifier or string literal (chars between the quotes), 0 if not interned, see Symbols
+  final int symbol;
   public Token(int _tag, String val, int pos){
+    this(_tag, val, pos, null);
+  }
+  Token(int _tag, String val, int pos, Number _number){
+    this(_tag, val, pos, _number, 0);
+  }
+  Token(int _tag, String val, int pos, Number _number, int _symbol){
     tag = _tag;
     value = val;
     this.pos = pos;
+    number = _number;
+    symbol = _symbol;
   }
   public Token(int _tag, String val){
     this(_tag, val, -1);
   }
 
+  // text of the token for messages, a number literal is formatted from its value
+  String text(){
+    return Objects.nonNull(value) ? value : String.valueOf(number);
+  }
+
   @Override
   public String toString() {
     return "Token{" +
         "tag=" + tag +
-        ", value='" + value + '\'' +
+        ", value='" + text() + '\'' +
         ", pos=" + pos +
         '}';
   }
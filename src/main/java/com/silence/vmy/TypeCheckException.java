@@ -0,0 +1,19 @@
+package com.silence.vmy;
+
+import java.util.List;
+
+/**
+ * errors found by type checking, all of them are reported together
+ */
+public class TypeCheckException extends ASTProcessingException{
+  private final List<String> errors;
+
+  public TypeCheckException(final List<String> _errors){
+    super(String.join("\n", _errors));
+    errors = List.copyOf(_errors);
+  }
+
+  public List<String> errors(){
+    return errors;
+  }
+}
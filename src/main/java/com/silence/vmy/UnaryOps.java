@@ -5,7 +5,9 @@ public enum UnaryOps {
   Print{
     @Override
     public Object apply(Object obj) {
-      System.out.println(obj);
+      OutputSink sink = OutputSink.current();
+      sink.write(obj);
+      sink.newline();
       return obj;
     }
   }
@@ -118,16 +118,20 @@ public class Utils {
 
     if(obj instanceof Runtime.VariableWithName obj_variable)
       return obj_variable.getType();
-    else if(obj instanceof String)
+    else if(obj instanceof String || obj instanceof ByteSlice)
       return VmyTypes.BuiltinType.String;
     else if(obj instanceof Character)
       return VmyTypes.BuiltinType.Char;
-    else if(obj instanceof Integer)
+    else if(Numbers.is_integer(obj))
       return VmyTypes.BuiltinType.Int;
     else if(obj instanceof Boolean)
       return VmyTypes.BuiltinType.Boolean;
     else if(obj instanceof Double)
       return VmyTypes.BuiltinType.Double;
+    else if(obj instanceof int[] || obj instanceof double[] || obj instanceof Object[])
+      return VmyTypes.BuiltinType.Array;
+    else if(obj instanceof Callable)
+      return VmyTypes.BuiltinType.Function;
     else
       throw new VmyRuntimeException("current version not support this type");
 
@@ -179,52 +183,82 @@ public class Utils {
   }
 
   // compare two function type
+  // compare param types one by one, by the ordinal of builtin type, then the count of params
   public static int function_type_compare(
     FunctionSupport.FunctionType a, 
     FunctionSupport.FunctionType b
   ){
 
-    return concat_type_to_string(a.types()).compareTo(concat_type_to_string(b.types()));
+    List<VmyType> a_types = a.types();
+    List<VmyType> b_types = b.types();
+    int length = Math.min(a_types.size(), b_types.size());
+    for(int i=0; i<length; i++){
+      int order = type_order(a_types.get(i)) - type_order(b_types.get(i));
+      if(order != 0) return order;
+    }
+    int order = a_types.size() - b_types.size();
+    return order != 0 ? order : Boolean.compare(a.varargs(), b.varargs());
 
   }
 
-  private static String concat_type_to_string(List<VmyType> types){
-
-    return types.stream()
-        .map(VmyType::toString)
-        .reduce(String::concat)
-        .orElse("");
+  private static int type_order(VmyType type){
+    return type instanceof VmyTypes.BuiltinType builtin ? builtin.ordinal() : VmyTypes.BuiltinType.values().length;
   }
 
   public static String function_to_string(String name, FunctionSupport.FunctionType type){
+    return function_to_string(name, type.types().toArray(new VmyType[0]), type.varargs());
+  }
 
-    String params = "";
-    List<VmyType> types = type.types();
-    for(int i=1; i<types.size(); i++){
-      params += type.param_type(i).toString();
-    }
+  public static String function_to_string(String name, VmyType[] param_types){
+    return function_to_string(name, param_types, false);
+  }
+
+  private static String function_to_string(String name, VmyType[] param_types, boolean varargs){
 
-    return String.format(
-      "%s(%s) : %s",
-      name, 
-      params, 
-      type.types().size() > 0 ? type.param_type(0) : "any"
-    );
+    StringBuilder params = new StringBuilder();
+    for(int i=0; i<param_types.length; i++){
+      if(i > 0) params.append(", ");
+      params.append(param_types[i]);
+    }
+    if(varargs) params.append("...");
+    return String.format("%s(%s)", name, params);
 
   }
 
+  // messages of stdout go through the sink, so they are in order with the output of scripts
   public static void log(String msg){
-    System.out.println("[vmy-info] " + msg);
+    message("[vmy-info] ", msg);
   }
 
   public static void warning(String msg){
-    System.out.println("[vmy-warning] " + msg);
+    message("[vmy-warning] ", msg);
   }
 
+  private static void message(String tag, String msg){
+    OutputSink.current().write_line(new Object[]{ tag, msg });
+  }
+
+  // the output before the error is written first
   public static void error(String msg) {
+    OutputSink.current().flush();
     System.err.println("[vmy-error]" + msg);
   }
 
+  /**
+   * string of a value for output, an array is like : [1, 2, 3]
+   */
+  public static String display(Object obj){
+
+    if(obj instanceof int[] ints)
+      return Arrays.toString(ints);
+    else if(obj instanceof double[] doubles)
+      return Arrays.toString(doubles);
+    else if(obj instanceof Object[] objects)
+      return Arrays.deepToString(objects);
+    return String.valueOf(obj);
+
+  }
+
   /**
    * convert \n and \r\n to \\n , \\r\\n
    * @param string
@@ -0,0 +1,179 @@
+package com.silence.vmy;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>{@link ArrayKernels} by the Vector API, the loops run by the preferred species, the tails by the scalar loops</p>
+ * <p>it's loaded by name only if the module jdk.incubator.vector is present, see {@link ArrayKernels#Kernels}</p>
+ */
+final class VectorArrayKernels extends ScalarArrayKernels {
+  private static final VectorSpecies<Integer> Ints = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Double> Doubles = DoubleVector.SPECIES_PREFERRED;
+  // half lanes of Ints, an int vector is widened to two long vectors
+  private static final VectorSpecies<Long> Longs = LongVector.SPECIES_PREFERRED;
+
+  VectorArrayKernels(){}
+
+  @Override
+  public String name() {
+    return "vector " + Ints.vectorBitSize() + " bits";
+  }
+
+  @Override
+  public int[] add(int[] a, int[] b) {
+
+    final int[] r = new int[a.length];
+    final int bound = Ints.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Ints.length()){
+      IntVector va = IntVector.fromArray(Ints, a, i);
+      IntVector vb = IntVector.fromArray(Ints, b, i);
+      IntVector vr = va.add(vb);
+      // overflowed if both operands have a sign different from the result, like Math.addExact
+      if(va.lanewise(VectorOperators.XOR, vr).and(vb.lanewise(VectorOperators.XOR, vr)).compare(VectorOperators.LT, 0).anyTrue())
+        throw new ArithmeticException("integer overflow");
+      vr.intoArray(r, i);
+    }
+    return add(a, b, r, i);
+
+  }
+
+  @Override
+  public double[] add(double[] a, double[] b) {
+
+    final double[] r = new double[a.length];
+    final int bound = Doubles.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Doubles.length())
+      DoubleVector.fromArray(Doubles, a, i).add(DoubleVector.fromArray(Doubles, b, i)).intoArray(r, i);
+    return add(a, b, r, i);
+
+  }
+
+  // an overflow of int multiply can't be found by lanes cheaply, int[] mul stays scalar
+
+  @Override
+  public double[] mul(double[] a, double[] b) {
+
+    final double[] r = new double[a.length];
+    final int bound = Doubles.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Doubles.length())
+      DoubleVector.fromArray(Doubles, a, i).mul(DoubleVector.fromArray(Doubles, b, i)).intoArray(r, i);
+    return mul(a, b, r, i);
+
+  }
+
+  @Override
+  public long dot(int[] a, int[] b) {
+
+    if(Longs.length() * 2 != Ints.length()) return super.dot(a, b);
+    LongVector acc = LongVector.zero(Longs);
+    final int bound = Ints.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Ints.length()){
+      IntVector va = IntVector.fromArray(Ints, a, i);
+      IntVector vb = IntVector.fromArray(Ints, b, i);
+      for(int part = 0; part < 2; part++)
+        acc = acc.add(
+          ((LongVector) va.convertShape(VectorOperators.I2L, Longs, part))
+            .mul((LongVector) vb.convertShape(VectorOperators.I2L, Longs, part))
+        );
+    }
+    return dot(a, b, acc.reduceLanes(VectorOperators.ADD), i);
+
+  }
+
+  @Override
+  public double dot(double[] a, double[] b) {
+
+    DoubleVector acc = DoubleVector.zero(Doubles);
+    final int bound = Doubles.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Doubles.length())
+      acc = DoubleVector.fromArray(Doubles, a, i).fma(DoubleVector.fromArray(Doubles, b, i), acc);
+    return dot(a, b, acc.reduceLanes(VectorOperators.ADD), i);
+
+  }
+
+  @Override
+  public long sum(int[] a) {
+
+    if(Longs.length() * 2 != Ints.length()) return super.sum(a);
+    LongVector acc = LongVector.zero(Longs);
+    final int bound = Ints.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Ints.length()){
+      IntVector va = IntVector.fromArray(Ints, a, i);
+      acc = acc
+        .add((LongVector) va.convertShape(VectorOperators.I2L, Longs, 0))
+        .add((LongVector) va.convertShape(VectorOperators.I2L, Longs, 1));
+    }
+    return sum(a, acc.reduceLanes(VectorOperators.ADD), i);
+
+  }
+
+  @Override
+  public double sum(double[] a) {
+
+    DoubleVector acc = DoubleVector.zero(Doubles);
+    final int bound = Doubles.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Doubles.length())
+      acc = acc.add(DoubleVector.fromArray(Doubles, a, i));
+    return sum(a, acc.reduceLanes(VectorOperators.ADD), i);
+
+  }
+
+  @Override
+  public int min(int[] a) {
+
+    IntVector acc = IntVector.broadcast(Ints, Integer.MAX_VALUE);
+    final int bound = Ints.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Ints.length())
+      acc = acc.min(IntVector.fromArray(Ints, a, i));
+    return min(a, acc.reduceLanes(VectorOperators.MIN), i);
+
+  }
+
+  @Override
+  public double min(double[] a) {
+
+    DoubleVector acc = DoubleVector.broadcast(Doubles, Double.POSITIVE_INFINITY);
+    final int bound = Doubles.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Doubles.length())
+      acc = acc.min(DoubleVector.fromArray(Doubles, a, i));
+    return min(a, acc.reduceLanes(VectorOperators.MIN), i);
+
+  }
+
+  @Override
+  public int max(int[] a) {
+
+    IntVector acc = IntVector.broadcast(Ints, Integer.MIN_VALUE);
+    final int bound = Ints.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Ints.length())
+      acc = acc.max(IntVector.fromArray(Ints, a, i));
+    return max(a, acc.reduceLanes(VectorOperators.MAX), i);
+
+  }
+
+  @Override
+  public double max(double[] a) {
+
+    DoubleVector acc = DoubleVector.broadcast(Doubles, Double.NEGATIVE_INFINITY);
+    final int bound = Doubles.loopBound(a.length);
+    int i = 0;
+    for(; i < bound; i += Doubles.length())
+      acc = acc.max(DoubleVector.fromArray(Doubles, a, i));
+    return max(a, acc.reduceLanes(VectorOperators.MAX), i);
+
+  }
+}
@@ -0,0 +1,163 @@
+package com.silence.vmy;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * <p>an isolated vmy interpreter, it has a global frame of its own (variables, object pool, declared functions)</p>
+ * <p>
+ *   builtins are shared by default, a context created with its own builtins can register functions
+ *   that other contexts don't see
+ * </p>
+ * <p>a context runs one script at a time, use {@link VmyContextPool} to run scripts concurrently</p>
+ * <p>
+ *   the state of a context (variables, declared functions) can be saved by {@link #snapshot(Path)},
+ *   a context restored from it starts from the state, and goes back to it when reset
+ * </p>
+ * <p>scripts run by a context with a {@link Profile} are profiled, it costs nothing when not profiling</p>
+ */
+public final class VmyContext {
+  private final BuiltinOps builtins;
+  // null means the sink of current thread
+  private final OutputSink sink;
+  // the state of reset, null for an empty frame
+  private final byte[] image;
+  private Global global;
+  private AST.Evaluator evaluator;
+  // null when not profiling
+  private Profile profile;
+
+  public VmyContext(){
+    this(false, null);
+  }
+
+  /**
+   * @param own_builtins true to have builtins of its own
+   * @param _sink where print writes to, null for the sink of current thread
+   */
+  public VmyContext(boolean own_builtins, OutputSink _sink){
+    this(own_builtins, _sink, null);
+  }
+
+  private VmyContext(boolean own_builtins, OutputSink _sink, byte[] _image){
+    builtins = own_builtins ? BuiltinOps.create() : BuiltinOps.builtinOps();
+    sink = _sink;
+    image = _image;
+    reset();
+  }
+
+  /**
+   * restore a context from the snapshot file
+   * @see #snapshot(Path)
+   */
+  public static VmyContext restore(Path file) throws IOException {
+    return restore(Files.readAllBytes(file), false, null);
+  }
+
+  public static VmyContext restore(byte[] image, boolean own_builtins, OutputSink sink){
+    return new VmyContext(own_builtins, sink, image);
+  }
+
+  /**
+   * evaluate a script
+   * @param script vmy script, like : let a = 1
+   * @return evaluating result
+   */
+  public Object eval(String script){
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(script, false)){
+      return eval(scanner);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new VmyRuntimeException(e.getMessage());
+    }
+  }
+
+  /**
+   * evaluate a script file
+   * @param file path of the script
+   */
+  public Object eval_file(String file){
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(file)){
+      return eval(scanner);
+    } catch (FileNotFoundException e) {
+      throw new VmyRuntimeException("script " + file + " not found");
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new VmyRuntimeException(e.getMessage());
+    }
+  }
+
+  Object eval(Scanner scanner){
+    return run(AST.build(scanner));
+  }
+
+  // check and evaluate the tree in this context
+  Object run(AST.VmyAST ast){
+    return run(ast, true);
+  }
+
+  // evaluate the tree, a tree already checked for the frame of this context needs no check
+  Object run(AST.VmyAST ast, boolean check){
+
+    final OutputSink previous = Objects.isNull(sink) ? null : OutputSink.bind(sink);
+    try{
+      return evaluator.eval(check ? AST.check(ast, global) : ast);
+    }finally {
+      if(Objects.nonNull(sink)){
+        sink.flush();
+        OutputSink.bind(previous);
+      }
+    }
+
+  }
+
+  /**
+   * @return value of the global variable, or null if it's not declared
+   */
+  public Object get(String name){
+    return Objects.isNull(global.local(name)) ? null : Runtime.get_value(name, global);
+  }
+
+  public Frame frame(){
+    return global;
+  }
+
+  public BuiltinOps builtins(){
+    return builtins;
+  }
+
+  /**
+   * record the scripts evaluated after, to the profile
+   * @param _profile null to stop profiling
+   */
+  public VmyContext profile(Profile _profile){
+    profile = _profile;
+    evaluator = Objects.isNull(profile) ? AST.evaluator(global) : AST.profiler(global, profile);
+    return this;
+  }
+
+  /**
+   * save variables and declared functions to the file, like the state after loading preludes
+   */
+  public void snapshot(Path file) throws IOException {
+    Files.write(file, snapshot());
+  }
+
+  public byte[] snapshot(){
+    return Snapshot.write(global);
+  }
+
+  /**
+   * drop all variables and declared functions, the builtins are kept,
+   * a restored context goes back to the snapshot
+   */
+  public void reset(){
+    global = Objects.isNull(image) ? new Global(builtins) : Snapshot.read(image, Global.class).relink(builtins);
+    evaluator = Objects.isNull(profile) ? AST.evaluator(global) : AST.profiler(global, profile);
+  }
+}
@@ -0,0 +1,69 @@
+package com.silence.vmy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>pre-warmed {@link VmyContext}s to run scripts concurrently</p>
+ * <p>a script borrows a context, the context is reset when it's returned, so scripts never see each other</p>
+ */
+public final class VmyContextPool {
+  // a script touches lexer, parser, checker and evaluator, run it before the pool is used
+  private static final String WarmUp = "let warm_up = 1 + 2 * 3";
+
+  private final BlockingQueue<VmyContext> idle;
+
+  public VmyContextPool(int size){
+    this(size, VmyContext::new);
+  }
+
+  public VmyContextPool(int size, Supplier<VmyContext> factory){
+    idle = new ArrayBlockingQueue<>(size);
+    for(int i=0; i<size; i++){
+      VmyContext context = factory.get();
+      context.eval(WarmUp);
+      context.reset();
+      idle.add(context);
+    }
+  }
+
+  /**
+   * take an idle context, wait if all are in use
+   */
+  public VmyContext borrow(){
+    try {
+      return idle.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new VmyRuntimeException("interrupted when waiting for a context");
+    }
+  }
+
+  /**
+   * give the context back, its variables and functions are dropped
+   */
+  public void release(VmyContext context){
+    context.reset();
+    idle.add(context);
+  }
+
+  public <T> T with(Function<VmyContext, T> task){
+    VmyContext context = borrow();
+    try {
+      return task.apply(context);
+    } finally {
+      release(context);
+    }
+  }
+
+  public Object eval(String script){
+    return with(context -> context.eval(script));
+  }
+
+  // count of idle contexts
+  public int idle(){
+    return idle.size();
+  }
+}
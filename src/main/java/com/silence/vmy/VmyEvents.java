@@ -0,0 +1,93 @@
+package com.silence.vmy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>Java Flight Recorder events of the phases of vmy, they're in the same recording as GC and JIT</p>
+ * <p>
+ *   an event is committed only when it's enabled in the recording (like jcmd JFR.start),
+ *   when not recording the JIT removes the events, they cost nothing
+ * </p>
+ */
+final class VmyEvents {
+  private VmyEvents(){}
+
+  private static final String Category = "vmy";
+
+  @Name("com.silence.vmy.Lex")
+  @Label("Lex")
+  @Description("tokens scanned from a script, the scanner is lazy, the duration is the time the scanner lives")
+  @Category(Category)
+  @StackTrace(false)
+  static final class Lex extends Event {
+    @Label("Script")
+    String script;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Lexing Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long lexing;
+  }
+
+  @Name("com.silence.vmy.Parse")
+  @Label("Parse")
+  @Description("AST.build of a script, including lexing and slot resolving")
+  @Category(Category)
+  @StackTrace(false)
+  static final class Parse extends Event {
+    @Label("Script")
+    String script;
+
+    @Label("Nodes")
+    long nodes;
+  }
+
+  @Name("com.silence.vmy.Check")
+  @Label("Type Check")
+  @Description("type checking of a tree, it marks the proved assignments for the evaluator")
+  @Category(Category)
+  @StackTrace(false)
+  static final class Check extends Event {
+    @Label("Script")
+    String script;
+
+    @Label("Errors")
+    int errors;
+  }
+
+  @Name("com.silence.vmy.Eval")
+  @Label("Eval")
+  @Description("evaluating of a tree")
+  @Category(Category)
+  @StackTrace(false)
+  static final class Eval extends Event {
+    @Label("Script")
+    String script;
+  }
+
+  // checked before a SlowBuiltinCall is created, it's enabled only while a recording has it
+  static final EventType SlowBuiltinCalls = EventType.getEventType(SlowBuiltinCall.class);
+
+  @Name("com.silence.vmy.SlowBuiltinCall")
+  @Label("Slow Builtin Call")
+  @Description("a call of builtin function takes longer than the threshold")
+  @Category(Category)
+  @Threshold("10 ms")
+  static final class SlowBuiltinCall extends Event {
+    @Label("Function")
+    String function;
+
+    @Label("Args")
+    int args;
+  }
+}
@@ -0,0 +1,18 @@
+package com.silence.vmy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * mark a java static method as a vmy function, it can be bound by {@link NativeFunctions#bind(Class)}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VmyFunction {
+  /**
+   * @return function name in vmy script, the method name is used if it's empty
+   */
+  String value() default "";
+}
@@ -0,0 +1,181 @@
+package com.silence.vmy;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>runtime counters of the interpreter, registered as MBean "com.silence.vmy:type=Metrics"</p>
+ * <p>
+ *   they are on only when the system property "vmy.metrics" is true (like -Dvmy.metrics=true or Main -metrics),
+ *   {@link #Enabled} is final, the JIT drops every counting when it's off
+ * </p>
+ * <p>counters are {@link LongAdder}, scripts in many threads don't contend on them</p>
+ */
+public final class VmyMetrics implements VmyMetricsMXBean {
+  public static final boolean Enabled = Boolean.getBoolean("vmy.metrics");
+  public static final String Name = "com.silence.vmy:type=Metrics";
+
+  private static final VmyMetrics INSTANCE = new VmyMetrics();
+
+  static {
+    if(Enabled) register();
+  }
+
+  private VmyMetrics(){}
+
+  public static VmyMetrics metrics(){
+    return INSTANCE;
+  }
+
+  private final LongAdder tokens = new LongAdder();
+  private final LongAdder nodes_parsed = new LongAdder();
+  private final LongAdder nodes_evaluated = new LongAdder();
+  private final Map<String, LongAdder> binary_ops = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> builtin_calls = new ConcurrentHashMap<>();
+  private final LongAdder lex = new LongAdder();
+  private final LongAdder parse = new LongAdder();
+  private final LongAdder check = new LongAdder();
+  private final LongAdder eval = new LongAdder();
+  // live pools, they are gone with their frames
+  private final Set<ObjPool> pools = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private static void register(){
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(Name));
+    } catch (JMException e) {
+      Utils.warning("metrics not registered : " + e.getMessage());
+    }
+  }
+
+  // callers check Enabled first, so nothing is called when it's off
+
+  static void lexed(int count, long nanos){
+    INSTANCE.tokens.add(count);
+    INSTANCE.lex.add(nanos);
+  }
+
+  static void parsed(long nodes, long nanos){
+    INSTANCE.nodes_parsed.add(nodes);
+    INSTANCE.parse.add(nanos);
+  }
+
+  static void checked(long nanos){
+    INSTANCE.check.add(nanos);
+  }
+
+  static void evaluated(long nanos){
+    INSTANCE.eval.add(nanos);
+  }
+
+  static void node(){
+    INSTANCE.nodes_evaluated.increment();
+  }
+
+  static void binary_op(String op){
+    INSTANCE.binary_ops.computeIfAbsent(op, key -> new LongAdder()).increment();
+  }
+
+  static void builtin_call(String name){
+    INSTANCE.builtin_calls.computeIfAbsent(name, key -> new LongAdder()).increment();
+  }
+
+  static void pool(ObjPool pool){
+    INSTANCE.pools.add(pool);
+  }
+
+  @Override
+  public long getTokensLexed() {
+    return tokens.sum();
+  }
+
+  @Override
+  public long getNodesParsed() {
+    return nodes_parsed.sum();
+  }
+
+  @Override
+  public long getNodesEvaluated() {
+    return nodes_evaluated.sum();
+  }
+
+  @Override
+  public Map<String, Long> getBinaryOps() {
+    return sums(binary_ops);
+  }
+
+  @Override
+  public Map<String, Long> getBuiltinCalls() {
+    return sums(builtin_calls);
+  }
+
+  @Override
+  public long getObjPoolSize() {
+    long size = 0;
+    synchronized (pools){
+      for(ObjPool pool : pools)
+        size += pool.size();
+    }
+    return size;
+  }
+
+  @Override
+  public long getLexNanos() {
+    return lex.sum();
+  }
+
+  @Override
+  public long getParseNanos() {
+    return parse.sum();
+  }
+
+  @Override
+  public long getCheckNanos() {
+    return check.sum();
+  }
+
+  @Override
+  public long getEvalNanos() {
+    return eval.sum();
+  }
+
+  @Override
+  public void reset() {
+    tokens.reset();
+    nodes_parsed.reset();
+    nodes_evaluated.reset();
+    binary_ops.clear();
+    builtin_calls.clear();
+    lex.reset();
+    parse.reset();
+    check.reset();
+    eval.reset();
+  }
+
+  @Override
+  public String dump() {
+    return new StringBuilder("== vmy metrics ==\n")
+      .append("tokens lexed    : ").append(getTokensLexed()).append('\n')
+      .append("nodes parsed    : ").append(getNodesParsed()).append('\n')
+      .append("nodes evaluated : ").append(getNodesEvaluated()).append('\n')
+      .append("binary ops      : ").append(getBinaryOps()).append('\n')
+      .append("builtin calls   : ").append(getBuiltinCalls()).append('\n')
+      .append("obj pool size   : ").append(getObjPoolSize()).append('\n')
+      .append(String.format("time (ms)       : lex %.3f, parse %.3f, check %.3f, eval %.3f%n",
+          getLexNanos() / 1e6, getParseNanos() / 1e6, getCheckNanos() / 1e6, getEvalNanos() / 1e6))
+      .toString();
+  }
+
+  private static Map<String, Long> sums(Map<String, LongAdder> counters){
+    Map<String, Long> sums = new TreeMap<>();
+    counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+    return sums;
+  }
+}
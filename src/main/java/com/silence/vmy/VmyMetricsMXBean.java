@@ -0,0 +1,35 @@
+package com.silence.vmy;
+
+import java.util.Map;
+
+/**
+ * counters of the interpreter, see {@link VmyMetrics}
+ */
+public interface VmyMetricsMXBean {
+  long getTokensLexed();
+
+  long getNodesParsed();
+
+  long getNodesEvaluated();
+
+  // count of each binary operator, like + -> 100
+  Map<String, Long> getBinaryOps();
+
+  // count of calls of each builtin function
+  Map<String, Long> getBuiltinCalls();
+
+  // objects in live object pools
+  long getObjPoolSize();
+
+  long getLexNanos();
+
+  long getParseNanos();
+
+  long getCheckNanos();
+
+  long getEvalNanos();
+
+  void reset();
+
+  String dump();
+}
@@ -0,0 +1,270 @@
+package com.silence.vmy;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * <p>javax.script engine of vmy, scripts are built by {@link AST#build(Scanner)} and evaluated in a {@link Global} frame</p>
+ * <p>
+ *   the engine scope bindings created by the engine are the variables of the frame ({@link FrameBindings}),
+ *   other bindings are copied into a frame before evaluating and copied back after it.
+ *   global scope bindings not shadowed by engine scope are copied in the same way
+ * </p>
+ * <p>print writes to the writer of the script context</p>
+ */
+public class VmyScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+  private final VmyScriptEngineFactory factory;
+  private final BuiltinOps builtins = BuiltinOps.builtinOps();
+
+  VmyScriptEngine(VmyScriptEngineFactory _factory){
+    factory = _factory;
+    setBindings(createBindings(), ScriptContext.ENGINE_SCOPE);
+  }
+
+  @Override
+  public Object eval(String script, ScriptContext context) throws ScriptException {
+    return run(build(script), context, true);
+  }
+
+  @Override
+  public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+    return eval(read(reader), context);
+  }
+
+  @Override
+  public Bindings createBindings() {
+    return new FrameBindings(new Global(builtins));
+  }
+
+  @Override
+  public ScriptEngineFactory getFactory() {
+    return factory;
+  }
+
+  /**
+   * the tree is not type checked, the types of bindings are not known until running
+   */
+  @Override
+  public CompiledScript compile(String script) throws ScriptException {
+    final AST.VmyAST ast = build(script);
+    return new CompiledScript() {
+      @Override
+      public Object eval(ScriptContext context) throws ScriptException {
+        return run(ast, context, false);
+      }
+
+      @Override
+      public ScriptEngine getEngine() {
+        return VmyScriptEngine.this;
+      }
+    };
+  }
+
+  @Override
+  public CompiledScript compile(Reader script) throws ScriptException {
+    return compile(read(script));
+  }
+
+  // there is no object in vmy
+  @Override
+  public Object invokeMethod(Object thiz, String name, Object... args) throws NoSuchMethodException {
+    throw new NoSuchMethodException("vmy has no method : " + name);
+  }
+
+  /**
+   * call a function declared in engine scope, or a builtin function
+   */
+  @Override
+  public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+
+    final Object[] params = Objects.isNull(args) ? new Object[0] : args;
+    FunctionSupport.Declared declared = frame(context.getBindings(ScriptContext.ENGINE_SCOPE))
+      .functions()
+      .get(name, params.length);
+    if(Objects.isNull(declared) && !builtins.contains(name))
+      throw new NoSuchMethodException("function " + name + " with " + params.length + " params not declared");
+    try{
+      return Objects.nonNull(declared) ?
+        declared.target().call(params) :
+        new FunctionSupport.CallSite(name).call(builtins, params);
+    }catch (RuntimeException e){
+      throw script_exception(e);
+    }
+
+  }
+
+  /**
+   * methods of the interface call the functions with the same names
+   */
+  @Override
+  public <T> T getInterface(Class<T> clazz) {
+    if(Objects.isNull(clazz) || !clazz.isInterface())
+      throw new IllegalArgumentException("interface is needed");
+    return clazz.cast(
+      Proxy.newProxyInstance(
+        clazz.getClassLoader(),
+        new Class<?>[]{clazz},
+        (proxy, method, args) -> invokeFunction(method.getName(), args)
+      )
+    );
+  }
+
+  @Override
+  public <T> T getInterface(Object thiz, Class<T> clazz) {
+    throw new IllegalArgumentException("vmy has no object");
+  }
+
+  private AST.VmyAST build(String script) throws ScriptException {
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner(script, false)){
+      return AST.build(scanner);
+    } catch (Exception e) {
+      throw script_exception(e);
+    }
+  }
+
+  private Object run(AST.VmyAST ast, ScriptContext context, boolean check) throws ScriptException {
+
+    final Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+    final FrameBindings frame = bindings instanceof FrameBindings own ? own : copy(bindings);
+    final List<String> globals = share_globals(context.getBindings(ScriptContext.GLOBAL_SCOPE), bindings, frame);
+    final OutputSink sink = new WriterSink(context.getWriter());
+    final OutputSink previous = OutputSink.bind(sink);
+    try{
+      if(check) AST.check(ast, frame.global());
+      return AST.evaluator(frame.global()).eval(ast);
+    }catch (RuntimeException e){
+      throw script_exception(e);
+    }finally {
+      sink.flush();
+      OutputSink.bind(previous);
+      // the global bindings are written back and removed from the frame
+      final Bindings global_scope = context.getBindings(ScriptContext.GLOBAL_SCOPE);
+      for(String name : globals)
+        if(frame.containsKey(name))
+          global_scope.put(name, frame.remove(name));
+      if(frame != bindings)
+        bindings.putAll(frame);
+    }
+
+  }
+
+  /**
+   * a name not in engine scope is looked up in global scope, the global bindings are copied into the frame
+   * @return names copied
+   */
+  private static List<String> share_globals(Bindings global_scope, Bindings engine_scope, FrameBindings frame){
+
+    if(Objects.isNull(global_scope) || global_scope == engine_scope || global_scope == frame)
+      return List.of();
+    List<String> copied = new ArrayList<>();
+    for(Map.Entry<String, Object> binding : global_scope.entrySet())
+      if(!frame.containsKey(binding.getKey())){
+        frame.put(binding.getKey(), binding.getValue());
+        copied.add(binding.getKey());
+      }
+    return copied;
+
+  }
+
+  private Global frame(Bindings bindings){
+    return bindings instanceof FrameBindings own ? own.global() : copy(bindings).global();
+  }
+
+  private FrameBindings copy(Bindings bindings){
+    FrameBindings frame = new FrameBindings(new Global(builtins));
+    if(Objects.nonNull(bindings))
+      frame.putAll(bindings);
+    return frame;
+  }
+
+  private static String read(Reader reader) throws ScriptException {
+    try(BufferedReader lines = new BufferedReader(reader)){
+      return lines.lines().collect(Collectors.joining("\n"));
+    } catch (IOException | UncheckedIOException e) {
+      throw script_exception(e);
+    }
+  }
+
+  private static ScriptException script_exception(Exception e){
+    ScriptException exception = new ScriptException(Objects.isNull(e.getMessage()) ? e.toString() : e.getMessage());
+    exception.initCause(e);
+    return exception;
+  }
+
+  /**
+   * print to the writer of script context
+   */
+  private static final class WriterSink implements OutputSink {
+    private final Writer writer;
+
+    WriterSink(Writer _writer){
+      writer = _writer;
+    }
+
+    @Override
+    public void write(CharSequence chars) {
+      try {
+        writer.append(chars);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void write(char c) {
+      write(String.valueOf(c));
+    }
+
+    @Override
+    public void write(int i) {
+      write(Integer.toString(i));
+    }
+
+    @Override
+    public void write(long l) {
+      write(Long.toString(l));
+    }
+
+    @Override
+    public void write(double d) {
+      write(Double.toString(d));
+    }
+
+    @Override
+    public void write(boolean b) {
+      write(Boolean.toString(b));
+    }
+
+    @Override
+    public void newline() {
+      write("\n");
+    }
+
+    @Override
+    public void flush() {
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
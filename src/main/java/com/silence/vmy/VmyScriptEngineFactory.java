@@ -0,0 +1,82 @@
+package com.silence.vmy;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * vmy for javax.script, registered in META-INF/services, like :
+ * <pre>
+ *   ScriptEngine vmy = new ScriptEngineManager().getEngineByName("vmy");
+ * </pre>
+ */
+public class VmyScriptEngineFactory implements ScriptEngineFactory {
+  static final String Name = "vmy";
+  static final String Version = "0.1";
+
+  @Override
+  public String getEngineName() {
+    return Name;
+  }
+
+  @Override
+  public String getEngineVersion() {
+    return Version;
+  }
+
+  @Override
+  public List<String> getExtensions() {
+    return List.of("vmy");
+  }
+
+  @Override
+  public List<String> getMimeTypes() {
+    return List.of("application/x-vmy");
+  }
+
+  @Override
+  public List<String> getNames() {
+    return List.of(Name, "Vmy");
+  }
+
+  @Override
+  public String getLanguageName() {
+    return Name;
+  }
+
+  @Override
+  public String getLanguageVersion() {
+    return Version;
+  }
+
+  @Override
+  public Object getParameter(String key) {
+    return switch (key){
+      case ScriptEngine.ENGINE, ScriptEngine.NAME, ScriptEngine.LANGUAGE -> Name;
+      case ScriptEngine.ENGINE_VERSION, ScriptEngine.LANGUAGE_VERSION -> Version;
+      // an engine evaluates in its bindings, it's not safe for threads
+      default -> null;
+    };
+  }
+
+  // vmy has no method, it's a call of function
+  @Override
+  public String getMethodCallSyntax(String obj, String m, String... args) {
+    return m + "(" + String.join(", ", args) + ")";
+  }
+
+  @Override
+  public String getOutputStatement(String toDisplay) {
+    return Identifiers.Print + "(\"" + toDisplay + "\")";
+  }
+
+  @Override
+  public String getProgram(String... statements) {
+    return String.join("\n", statements);
+  }
+
+  @Override
+  public ScriptEngine getScriptEngine() {
+    return new VmyScriptEngine(this);
+  }
+}
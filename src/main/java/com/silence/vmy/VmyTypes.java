@@ -10,6 +10,8 @@ public class VmyTypes {
     String,
     Table,
     Function,
+    // int[], double[] or Object[]
+    Array,
     Any;
   }
 }
@@ -0,0 +1,96 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayLibTest {
+
+  @Test
+  public void index_and_assign(){
+    VmyContext context = new VmyContext();
+    context.eval(
+        """
+        fn array_test_total(xs) {
+          let s = 0
+          for i in 0..len(xs) {
+            s = s + xs[i]
+          }
+          return s
+        }
+        let array_test_a = array(5, 0)
+        for i in 0..5 {
+          array_test_a[i] = i * i
+        }
+        let array_test_b = array_of(1, 2.5)
+        array_test_b[0] = array_test_a[array_test_a[1] + 1] + 0.5
+        let array_test_o = array(2, "x")
+        array_test_o[1] = array_test_a
+        let array_test_sum = array_test_total(array_test_a)
+        let array_test_nested = array_test_o[1][4]
+        """
+    );
+    assertArrayEquals(new int[]{0, 1, 4, 9, 16}, (int[]) context.get("array_test_a"));
+    assertArrayEquals(new double[]{4.5, 2.5}, (double[]) context.get("array_test_b"), 0);
+    assertEquals(30, context.get("array_test_sum"));
+    assertEquals(16, context.get("array_test_nested"));
+    assertThrows(EvaluatException.class, () -> context.eval("array_test_a[5] = 1"));
+    assertThrows(EvaluatException.class, () -> context.eval("array_test_a[0] = 1.5"));
+    assertThrows(TypeCheckException.class, () -> context.eval("let array_test_c = 1\nprint(array_test_c[0])"));
+  }
+
+  @Test
+  public void bulk_functions(){
+    int[] ints = {3, -1, 4, 1, 5};
+    double[] doubles = {1.5, 2.5, -3.0};
+    assertArrayEquals(new int[]{6, -2, 8, 2, 10}, (int[]) ArrayLib.add(ints, ints));
+    assertArrayEquals(new double[]{2.25, 6.25, 9.0}, (double[]) ArrayLib.mul(doubles, doubles), 0);
+    assertArrayEquals(new double[]{4.5, 1.5, 1.0}, (double[]) ArrayLib.add(new int[]{3, -1, 4}, doubles), 0);
+    assertEquals(52, ArrayLib.dot(ints, ints));
+    assertEquals(12, ArrayLib.sum(ints));
+    assertEquals(-1, ArrayLib.min(ints));
+    assertEquals(2.5, ArrayLib.max(doubles));
+    assertEquals(4.5, ArrayLib.sum(ArrayLib.array_of(new Object[]{1, 2.5, 1})));
+    assertArrayEquals(new int[]{7, 7}, (int[]) ArrayLib.fill(new int[2], 7));
+    assertEquals(3000000000L, ArrayLib.sum(new int[]{Integer.MAX_VALUE, 852516353}));
+    assertThrows(ArithmeticException.class, () -> ArrayLib.add(new int[]{Integer.MAX_VALUE}, new int[]{1}));
+    assertThrows(VmyRuntimeException.class, () -> ArrayLib.add(ints, new int[2]));
+  }
+
+  @Test
+  public void vector_same_as_scalar(){
+    ArrayKernels scalar = new ScalarArrayKernels();
+    ArrayKernels kernels = ArrayKernels.Kernels;
+    // surefire adds the module jdk.incubator.vector
+    assertTrue(kernels.name(), kernels.name().startsWith("vector"));
+
+    Random random = new Random(46);
+    for(int length : new int[]{0, 1, 7, 8, 31, 1000, 1027}){
+      int[] a = random.ints(length, -40000, 40000).toArray();
+      int[] b = random.ints(length, -40000, 40000).toArray();
+      double[] x = random.doubles(length, -1, 1).toArray();
+      double[] y = random.doubles(length, -1, 1).toArray();
+      assertArrayEquals(scalar.add(a, b), kernels.add(a, b));
+      assertArrayEquals(scalar.mul(a, b), kernels.mul(a, b));
+      assertEquals(scalar.dot(a, b), kernels.dot(a, b));
+      assertEquals(scalar.sum(a), kernels.sum(a));
+      assertArrayEquals(scalar.add(x, y), kernels.add(x, y), 0);
+      assertArrayEquals(scalar.mul(x, y), kernels.mul(x, y), 0);
+      // lanes sum in another order
+      assertEquals(scalar.dot(x, y), kernels.dot(x, y), 1e-9);
+      assertEquals(scalar.sum(x), kernels.sum(x), 1e-9);
+      if(length > 0){
+        assertEquals(scalar.min(a), kernels.min(a));
+        assertEquals(scalar.max(a), kernels.max(a));
+        assertEquals(scalar.min(x), kernels.min(x), 0);
+        assertEquals(scalar.max(x), kernels.max(x), 0);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class CompiledScriptTest {
+
+  @Test
+  public void run_with_bindings(){
+    CompiledScript rule = CompiledScript.compile(
+        """
+        fn grade(score) {
+          if(score > 89) {
+            return "A"
+          }
+          if(score > 59) {
+            return "B"
+          }
+          return "C"
+        }
+        let passed = (score > 59)
+        let result = name ++ " : " ++ grade(score)
+        """,
+        "name", "score"
+    );
+    Map<String, Object> first = rule.run(Map.of("name", "a", "score", 95));
+    assertEquals(true, first.get("passed"));
+    assertEquals("a : A", first.get("result"));
+    Map<String, Object> second = rule.run(Map.of("name", "b", "score", 30.5));
+    assertEquals(false, second.get("passed"));
+    assertEquals("b : C", second.get("result"));
+    assertThrows(VmyRuntimeException.class, () -> rule.run(Map.of("name", "c")));
+  }
+
+  @Test
+  public void compile_errors(){
+    assertThrows(TypeCheckException.class, () -> CompiledScript.compile("let a = b + 1"));
+    CompiledScript.compile("let a = b + 1", "b");
+  }
+
+  @Test
+  public void concurrent_run() throws Exception {
+    CompiledScript sum = CompiledScript.compile(
+        """
+        let total = 0
+        for i in 0..n {
+          total = total + i
+        }
+        """,
+        "n"
+    );
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try{
+      List<Future<Map<String, Object>>> results = new ArrayList<>();
+      for(int i=0; i<200; i++){
+        final int n = i;
+        results.add(executor.submit(() -> sum.run(Map.of("n", n))));
+      }
+      for(int i=0; i<results.size(); i++)
+        assertEquals(i * (i - 1) / 2, results.get(i).get().get("total"));
+    }finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void concurrent_run_calls_functions() throws Exception {
+    // each run declares the function in its own frame, the call nodes of the tree are shared
+    CompiledScript sum = CompiledScript.compile(
+        """
+        fn compiled_add(a, b) {
+          return a + b
+        }
+        let total = 0
+        for i in 0..n {
+          total = compiled_add(total, i)
+        }
+        """,
+        "n"
+    );
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try{
+      List<Future<Map<String, Object>>> results = new ArrayList<>();
+      for(int i=0; i<200; i++){
+        final int n = i;
+        results.add(executor.submit(() -> sum.run(Map.of("n", n))));
+      }
+      for(int i=0; i<results.size(); i++)
+        assertEquals(i * (i - 1) / 2, results.get(i).get().get("total"));
+    }finally {
+      executor.shutdown();
+    }
+  }
+
+}
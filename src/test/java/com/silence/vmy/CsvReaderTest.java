@@ -0,0 +1,87 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvReaderTest {
+
+  private static final String Csv =
+      "id,name,price\r\n" +
+      "1,apple,1.5\n" +
+      "\n" +
+      "2,\"pear, green\",-2\n" +
+      "3,\"say \"\"hi\"\"\",10\n" +
+      "4,\"two\nlines\",0.25\n" +
+      "6,\"a\"\"b,c\",0\n" +
+      "5,梨,7";
+
+  private static final List<String> Records = List.of(
+      "[id, name, price]",
+      "[1, apple, 1.5]",
+      "[2, pear, green, -2]",
+      "[3, say \"hi\", 10]",
+      "[4, two\nlines, 0.25]",
+      "[6, a\"b,c, 0]",
+      "[5, 梨, 7]"
+  );
+
+  private static List<String> read(Path file, int window){
+    List<String> records = new ArrayList<>();
+    try(CsvReader reader = CsvReader.open(file, (byte) ',', window)){
+      while(reader.next())
+        records.add(Arrays.toString(reader.fields()));
+    }
+    return records;
+  }
+
+  @Test
+  public void records() throws IOException {
+    Path file = Files.createTempFile("vmy", ".csv");
+    try {
+      Files.writeString(file, Csv, StandardCharsets.UTF_8);
+      assertEquals(Records, read(file, CsvReader.Window));
+      // records are cut by the windows, and longer than a window
+      for(int window : new int[]{1, 3, 16})
+        assertEquals(Records, read(file, window));
+      Files.writeString(file, "");
+      assertEquals(List.of(), read(file, CsvReader.Window));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void csv_each() throws IOException {
+    Path file = Files.createTempFile("vmy", ".csv");
+    try {
+      Files.writeString(file, Csv, StandardCharsets.UTF_8);
+      VmyContext context = new VmyContext();
+      context.eval(
+          "let csv_test_total = 0.0\n" +
+          "let csv_test_ints = 0\n" +
+          "fn csv_test_add(fields, nr) {\n" +
+          "  if(nr > 1) {\n" +
+          "    csv_test_total = csv_test_total + to_double(fields[2])\n" +
+          "    csv_test_ints = csv_test_ints + to_int(fields[0])\n" +
+          "  }\n" +
+          "}\n" +
+          "let csv_test_n = csv_each(\"" + file.toString().replace("\\", "/") + "\", csv_test_add)\n"
+      );
+      assertEquals(7, context.get("csv_test_n"));
+      assertEquals(16.75, context.get("csv_test_total"));
+      assertEquals(21, context.get("csv_test_ints"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+}
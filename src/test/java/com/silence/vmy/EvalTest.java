@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class EvalTest {
 
@@ -80,6 +81,142 @@ public class EvalTest {
     );
   }
 
+  @Test
+  public void eval_function(){
+    FileInputScannerTestUtils.do_with_instance(
+        FileInputScannerTestUtils.ofScript("function_test.vmy"),
+        FileInputScannerTestUtils.eval_with_scanner()
+    );
+  }
+
+  @Test
+  public void eval_for_loop(){
+    FileInputScannerTestUtils.do_with_instance(
+        FileInputScannerTestUtils.ofScript("for_loop_test.vmy"),
+        FileInputScannerTestUtils.eval_with_scanner()
+    );
+  }
+
+  @Test
+  public void for_range(){
+    Eval.eval(
+        """
+        let eval_test_for_sum = 0
+        for i in -5..5 {
+          for j in 0..3 {
+            eval_test_for_sum = eval_test_for_sum + i * j
+          }
+        }
+        fn eval_test_for_count(n) {
+          let count = 0
+          for i in 0..n {
+            count = count + 1
+          }
+          for i in n..0 {
+            count = count + 1
+          }
+          return count
+        }
+        """,
+        AST.variableStoreTreeEvaluator()
+    );
+    assertEquals(-15, Global.getInstance().local("eval_test_for_sum").getValue());
+    assertEquals(100000, Global.getInstance().functions().get("eval_test_for_count", 1).target().call(100000));
+  }
+
+  @Test
+  public void call_declared_function(){
+    Eval.eval(
+        """
+        fn eval_test_fib(n) {
+          if(n < 2) {
+            return n
+          }
+          return eval_test_fib(n - 1) + eval_test_fib(n - 2)
+        }
+        fn eval_test_sum(n, acc) {
+          if(n == 0) {
+            return acc
+          }
+          return eval_test_sum(n - 1, acc + 1)
+        }
+        """,
+        AST.variableStoreTreeEvaluator()
+    );
+    FunctionSupport.FunctionTable functions = Global.getInstance().functions();
+    assertEquals(6765, functions.get("eval_test_fib", 1).target().call(20));
+    // deep tail call runs in one frame
+    assertEquals(1000000, functions.get("eval_test_sum", 2).target().call(1000000, 0));
+  }
+
+  @Test
+  public void block_scoped_locals(){
+    Eval.eval(
+        """
+        fn eval_test_branch(n) {
+          if(n > 0) {
+            let y = n * 2
+            return y
+          } else {
+            let y = "negative"
+            return y
+          }
+        }
+        """,
+        AST.variableStoreTreeEvaluator()
+    );
+    Callable branch = Global.getInstance().functions().get("eval_test_branch", 1).target();
+    assertEquals(4, branch.call(2));
+    assertEquals("negative", branch.call(-1));
+  }
+
+  @Test
+  public void unboxed_locals(){
+    Eval.eval(
+        """
+        fn eval_test_mixed(n) {
+          let i = 0
+          let d = 0.5
+          let big = 2147483640
+          let same = 0
+          while(i < n) {
+            d = d + i * 0.5
+            big = big + i
+            if(i == 1.0) {
+              same = same + 1
+            }
+            if((i < 3) == true) {
+              same = same + 10
+            }
+            i = i + 1
+          }
+          return big ++ " " ++ d ++ " " ++ same
+        }
+        fn eval_test_loop(n) {
+          let sum = 0
+          let x = 1.5
+          for i in 0..n {
+            sum = sum + i * 3 - i / 3
+            x = x * 1.0
+          }
+          return sum
+        }
+        """,
+        AST.variableStoreTreeEvaluator()
+    );
+    FunctionSupport.FunctionTable functions = Global.getInstance().functions();
+    // an overflowed Int is promoted, an Int is not equal to a Double
+    assertEquals("2147483685 23.0 30", functions.get("eval_test_mixed", 1).target().call(10));
+
+    Callable loop = functions.get("eval_test_loop", 1).target();
+    for(int i=0; i<5; i++) loop.call(20000);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+    final long before = threads.getCurrentThreadAllocatedBytes();
+    assertEquals(533313333, loop.call(20000));
+    // 20000 rounds of arithmetic on locals, boxing them would take more than 1MB
+    assertTrue(threads.getCurrentThreadAllocatedBytes() - before < 64 * 1024);
+  }
+
   void cts(String v1, String v2){
     assertEquals(v1.substring(1, v1.length() - 1) + v2.substring(1, v2.length() - 1), Eval.eval(v1 + " ++ " + v2, AST.variableStoreTreeEvaluator()));
   }
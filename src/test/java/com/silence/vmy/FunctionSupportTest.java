@@ -0,0 +1,130 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class FunctionSupportTest {
+
+  @Test
+  public void overload_by_type(){
+    BuiltinOps ops = BuiltinOps.builtinOps();
+    ops.register("overload_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int), params -> "int");
+    ops.register("overload_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.String), params -> "string");
+    ops.register("overload_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Any), params -> "any");
+    ops.register("overload_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int, VmyTypes.BuiltinType.Int), params -> "int, int");
+
+    assertEquals("int", ops.resolve("overload_test", new Object[]{1}).callable().call(1));
+    assertEquals("string", ops.resolve("overload_test", new Object[]{"1"}).callable().call("1"));
+    assertEquals("any", ops.resolve("overload_test", new Object[]{1.0}).callable().call(1.0));
+    assertEquals("int, int", ops.resolve("overload_test", new Object[]{1, 2}).callable().call(1, 2));
+    assertNull(ops.resolve("overload_test", new Object[]{1, 2, 3}));
+  }
+
+  @Test
+  public void call_site_cache(){
+    BuiltinOps ops = BuiltinOps.builtinOps();
+    ops.register("call_site_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int), params -> params[0]);
+    ops.register("call_site_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Double), params -> -(double) params[0]);
+
+    FunctionSupport.CallSite call_site = new FunctionSupport.CallSite("call_site_test");
+    for(int i=0; i<3; i++){
+      assertEquals(1, call_site.call(new Object[]{1}));
+      assertEquals(-1.0, call_site.call(new Object[]{1.0}));
+    }
+    assertThrows(VmyRuntimeException.class, () -> call_site.call(new Object[]{"1"}));
+  }
+
+  @Test
+  public void shared_call_site() throws Exception {
+    BuiltinOps ops = BuiltinOps.builtinOps();
+    ops.register("shared_site_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int), params -> 1);
+    ops.register("shared_site_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Double), params -> 2);
+    ops.register("shared_site_test", FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.String), params -> 3);
+    final Object[][] shapes = {{1}, {1.0}, {"1"}};
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for(int round = 0; round < 100; round++){
+        // entries are added by the threads at the same time
+        FunctionSupport.CallSite call_site = new FunctionSupport.CallSite("shared_site_test");
+        List<Future<?>> calls = new ArrayList<>();
+        for(int t = 0; t < 4; t++){
+          final int first = t;
+          calls.add(executor.submit(() -> {
+            for(int i = 0; i < 100; i++){
+              Object[] args = shapes[(first + i) % shapes.length];
+              assertEquals((first + i) % shapes.length + 1, call_site.call(args));
+            }
+          }));
+        }
+        for(Future<?> call : calls) call.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void builtin_args_reused(){
+    VmyContext context = new VmyContext(true, null);
+    Set<Object[]> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+    context.builtins().register(
+        "args_test",
+        FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int),
+        params -> {
+          buffers.add(params);
+          return params[0];
+        }
+    );
+    context.eval(
+        """
+        let sum = 0
+        for i in 0..100 {
+          sum = sum + args_test(args_test(i))
+        }
+        """
+    );
+    assertEquals(4950, context.get("sum"));
+    // one args array for each depth of nested calls, not one for each call
+    assertEquals(2, buffers.size());
+  }
+
+  public static class NativeTestFunctions {
+    @VmyFunction("native_test_add")
+    public static int add(int a, int b){
+      return a + b;
+    }
+
+    @VmyFunction("native_test_add")
+    public static String add(String a, String b){
+      return a + b;
+    }
+
+    @VmyFunction
+    public static void native_test_void(Object a){}
+  }
+
+  @Test
+  public void native_binding(){
+    BuiltinOps ops = BuiltinOps.builtinOps();
+    NativeFunctions.bind(NativeTestFunctions.class, ops);
+
+    FunctionSupport.CallSite call_site = new FunctionSupport.CallSite("native_test_add");
+    assertEquals(3, call_site.call(new Object[]{1, 2}));
+    assertEquals("12", call_site.call(new Object[]{"1", "2"}));
+    assertNull(ops.resolve("native_test_void", new Object[]{1}).callable().call(1));
+    assertEquals(4.0, ops.resolve("sqrt", new Object[]{16.0}).callable().call(16.0));
+  }
+
+}
@@ -0,0 +1,26 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MacroBenchmarkTest {
+
+  @Test
+  public void run_corpus_script() throws Exception {
+    List<Path> scripts = MacroBenchmark.scripts(List.of(Path.of("scripts", "bench")));
+    assertTrue(scripts.toString(), scripts.contains(Path.of("scripts", "bench", "strings.vmy")));
+
+    MacroBenchmark.Result result = MacroBenchmark.run(Path.of("scripts", "bench", "strings.vmy"), 0, 3);
+    assertEquals("strings.vmy", result.script());
+    assertEquals(3, result.runs());
+    assertTrue(result.ops_per_second() > 0);
+    assertTrue(result.p50() <= result.p99());
+    assertTrue(result.allocated() != 0);
+  }
+
+}
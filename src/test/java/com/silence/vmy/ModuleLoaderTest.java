@@ -0,0 +1,109 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class ModuleLoaderTest {
+
+  @Test
+  public void module_compiled_once() throws Exception {
+    Path dir = Files.createTempDirectory("vmy-module");
+    Files.createDirectory(dir.resolve("lib"));
+    Files.writeString(
+        dir.resolve("lib/shapes.vmy"),
+        "let module_pi = 3.0\nfn module_area(r) {\n  return module_pi * r * r\n}\n"
+    );
+    Path script = Files.writeString(
+        dir.resolve("main.vmy"),
+        "import \"lib/shapes.vmy\"\nimport \"lib/shapes.vmy\"\nlet module_a = module_area(2)\n"
+    );
+
+    long compiles = ModuleLoader.shared().compiles();
+    for(int i=0; i<3; i++){
+      VmyContext context = new VmyContext();
+      context.eval_file(script.toString());
+      assertEquals(12.0, context.get("module_a"));
+      assertEquals(3.0, context.get("module_pi"));
+    }
+    assertEquals(compiles + 1, ModuleLoader.shared().compiles());
+
+    // a changed module is compiled again
+    Files.writeString(
+        dir.resolve("lib/shapes.vmy"),
+        "let module_pi = 3.5\nfn module_area(r) {\n  return module_pi * r * r\n}\n"
+    );
+    VmyContext context = new VmyContext();
+    context.eval_file(script.toString());
+    assertEquals(14.0, context.get("module_a"));
+    assertEquals(compiles + 2, ModuleLoader.shared().compiles());
+  }
+
+  @Test
+  public void transitive_import() throws Exception {
+    Path dir = Files.createTempDirectory("vmy-module");
+    Files.writeString(dir.resolve("base.vmy"), "fn module_twice(n) {\n  return n * 2\n}\n");
+    Files.writeString(dir.resolve("four.vmy"), "import \"base.vmy\"\nfn module_four(n) {\n  return module_twice(module_twice(n))\n}\n");
+    Path script = Files.writeString(
+        dir.resolve("main.vmy"),
+        "import \"base.vmy\"\nimport \"four.vmy\"\nlet module_b = module_four(1) + module_twice(1)\n"
+    );
+    VmyContext context = new VmyContext();
+    context.eval_file(script.toString());
+    assertEquals(6, context.get("module_b"));
+  }
+
+  @Test
+  public void import_errors() throws Exception {
+    Path dir = Files.createTempDirectory("vmy-module");
+    Files.writeString(dir.resolve("one.vmy"), "import \"two.vmy\"\n");
+    Files.writeString(dir.resolve("two.vmy"), "import \"one.vmy\"\n");
+    Files.writeString(dir.resolve("clash.vmy"), "let module_clash = 1\n");
+    Path cycle = Files.writeString(dir.resolve("cycle.vmy"), "import \"one.vmy\"\n");
+    Path missing = Files.writeString(dir.resolve("missing.vmy"), "import \"none.vmy\"\n");
+    Path clash = Files.writeString(dir.resolve("main.vmy"), "let module_clash = 2\nimport \"clash.vmy\"\n");
+
+    assertThrows(ASTProcessingException.class, () -> new VmyContext().eval_file(cycle.toString()));
+    assertThrows(ASTProcessingException.class, () -> new VmyContext().eval_file(missing.toString()));
+    assertThrows(ASTProcessingException.class, () -> new VmyContext().eval_file(clash.toString()));
+  }
+
+  @Test
+  public void cycle_across_threads() throws Exception {
+    Path dir = Files.createTempDirectory("vmy-module");
+    Files.writeString(dir.resolve("one.vmy"), "import \"two.vmy\"\n");
+    Files.writeString(dir.resolve("two.vmy"), "import \"one.vmy\"\n");
+    Path first = Files.writeString(dir.resolve("first.vmy"), "import \"one.vmy\"\n");
+    Path second = Files.writeString(dir.resolve("second.vmy"), "import \"two.vmy\"\n");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try{
+      for(int round = 0; round < 20; round++){
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<Future<?>> results = new ArrayList<>();
+        for(Path script : List.of(first, second))
+          results.add(executor.submit(() -> {
+            start.await();
+            return assertThrows(ASTProcessingException.class, () -> new VmyContext().eval_file(script.toString()));
+          }));
+        // it fails instead of waiting for each other
+        for(Future<?> result : results)
+          result.get(10, TimeUnit.SECONDS);
+      }
+    }finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
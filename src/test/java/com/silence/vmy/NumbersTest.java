@@ -0,0 +1,95 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class NumbersTest {
+
+  private static Number decode(String literal){
+    Numbers.Literal decoder = new Numbers.Literal();
+    for(char c : literal.toCharArray())
+      if(c == '.') decoder.point();
+      else decoder.digit(c);
+    return decoder.value();
+  }
+
+  @Test
+  public void decode_literals(){
+    assertEquals(140, decode("140"));
+    assertEquals(2147483648L, decode("2147483648"));
+    assertEquals(new BigInteger("123456789012345678901234567890"), decode("123456789012345678901234567890"));
+    for(String d : new String[]{"1.5", "0.1", "3.", "1234567.891", "0.30000000000000004", "123456789012345678.9", "1.7976931348623157"})
+      assertEquals(d, Double.parseDouble(d), decode(d));
+  }
+
+  @Test
+  public void promote_on_overflow(){
+    assertEquals(2147483648L, BinaryOps.ADD.apply(Integer.MAX_VALUE, 1));
+    assertEquals(-2147483649L, BinaryOps.SUB.apply(Integer.MIN_VALUE, 1));
+    assertEquals(2147483648L, BinaryOps.DIVIDE.apply(Integer.MIN_VALUE, -1));
+    assertEquals(
+        new BigInteger("9223372036854775808"),
+        BinaryOps.ADD.apply(Long.MAX_VALUE, 1)
+    );
+    assertEquals(
+        new BigInteger("85070591730234615847396907784232501249"),
+        BinaryOps.MULTI.apply(Long.MAX_VALUE, Long.MAX_VALUE)
+    );
+    assertEquals(1.5, BinaryOps.ADD.apply(new BigInteger("1"), 0.5));
+    assertEquals(true, BinaryOps.GT.apply(new BigInteger("9223372036854775808"), Long.MAX_VALUE));
+    assertThrows(ArithmeticException.class, () -> BinaryOps.DIVIDE.apply(1L << 40, 0));
+  }
+
+  @Test
+  public void demote_to_smallest(){
+    // equal integers have the same class, so == of them works
+    assertSame(Integer.class, BinaryOps.SUB.apply(2147483648L, 1).getClass());
+    assertSame(Long.class, BinaryOps.SUB.apply(new BigInteger("9223372036854775808"), 1).getClass());
+    assertEquals(true, BinaryOps.EQ.apply(BinaryOps.ADD.apply(Integer.MAX_VALUE, 1), 2147483648L));
+  }
+
+  @Test
+  public void script_numbers(){
+    VmyContext context = new VmyContext();
+    context.eval(
+        """
+        let numbers_big = 9223372036854775807 + 1
+        let numbers_min = -2147483648
+        let numbers_back = numbers_big - 9223372036854775807
+        """
+    );
+    assertEquals(new BigInteger("9223372036854775808"), context.get("numbers_big"));
+    assertEquals(Integer.MIN_VALUE, context.get("numbers_min"));
+    assertEquals(1, context.get("numbers_back"));
+  }
+
+  @Test
+  public void wide_builtins(){
+    VmyContext context = new VmyContext();
+    context.eval(
+        """
+        let numbers_abs = abs(-3000000000)
+        let numbers_abs_min = abs(-2147483648)
+        let numbers_max = max(3000000000, 1)
+        let numbers_min_big = min(1, 9223372036854775807 + 1)
+        let numbers_sqrt = sqrt(10000000000)
+        let numbers_count = 0
+        for i in 4294967295..4294967298 {
+          numbers_count = numbers_count + 1
+        }
+        """
+    );
+    assertEquals(3000000000L, context.get("numbers_abs"));
+    assertEquals(2147483648L, context.get("numbers_abs_min"));
+    assertEquals(3000000000L, context.get("numbers_max"));
+    assertEquals(1, context.get("numbers_min_big"));
+    assertEquals(100000.0, context.get("numbers_sqrt"));
+    assertEquals(3, context.get("numbers_count"));
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class OutputSinkTest {
+
+  @Test
+  public void write_values(){
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BufferedOutputSink sink = new BufferedOutputSink(out);
+    sink.write((Object) 123);
+    sink.write(' ');
+    sink.write(Integer.MIN_VALUE);
+    sink.write(' ');
+    sink.write(Long.MIN_VALUE);
+    sink.write(' ');
+    sink.write(true);
+    sink.write(' ');
+    sink.write("你好, 😀");
+    sink.newline();
+    sink.flush();
+    assertEquals(
+        "123 " + Integer.MIN_VALUE + " " + Long.MIN_VALUE + " true 你好, 😀\n",
+        out.toString(StandardCharsets.UTF_8)
+    );
+  }
+
+  @Test
+  public void messages_in_order(){
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputSink sink = new BufferedOutputSink(out);
+    OutputSink previous = OutputSink.bind(sink);
+    try {
+      sink.write("before");
+      sink.newline();
+      Utils.log("info");
+      Utils.warning("warning");
+      UnaryOps.Print.apply(1);
+    } finally {
+      OutputSink.bind(previous);
+    }
+    sink.flush();
+    assertEquals("before\n[vmy-info] info\n[vmy-warning] warning\n1\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shared_by_threads() throws Exception {
+    // like the stdout sink, one sink is written by all threads
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputSink shared = new OutputSink.Shared(new BufferedOutputSink(out));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try{
+      List<Future<?>> writes = new ArrayList<>();
+      for(int t=0; t<8; t++){
+        final int n = t;
+        writes.add(executor.submit(() -> {
+          for(int i=0; i<5000; i++)
+            shared.write_line(new Object[]{ "thread ", n, " line ", i, " of ", 5000 });
+        }));
+      }
+      for(Future<?> write : writes) write.get();
+    }finally {
+      executor.shutdown();
+    }
+    shared.flush();
+    Set<String> expected = new HashSet<>();
+    for(int n=0; n<8; n++)
+      for(int i=0; i<5000; i++)
+        expected.add("thread " + n + " line " + i + " of 5000");
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(8 * 5000, lines.length);
+    assertEquals(expected, new HashSet<>(Arrays.asList(lines)));
+  }
+
+  @Test
+  public void write_double_same_as_java(){
+    Random random = new Random(7);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BufferedOutputSink sink = new BufferedOutputSink(out);
+    StringBuilder expected = new StringBuilder();
+    for(int i=0; i<100000; i++){
+      double d = switch (i % 3) {
+        case 0 -> random.nextInt(10000000) / Math.pow(10, random.nextInt(8));
+        case 1 -> (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+        default -> Double.longBitsToDouble(random.nextLong());
+      };
+      sink.write(d);
+      sink.newline();
+      expected.append(d).append('\n');
+    }
+    sink.flush();
+    assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.silence.vmy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class ParallelLibTest {
+
+  private int threshold;
+
+  // small parts, so even short arrays are split into many tasks
+  @Before
+  public void split_small(){
+    threshold = ParallelLib.threshold(7);
+  }
+
+  @After
+  public void restore(){
+    ParallelLib.threshold(threshold);
+  }
+
+  @Test
+  public void builtins_of_java(){
+    int[] xs = new int[1000];
+    for(int i = 0; i < xs.length; i++) xs[i] = i - 500;
+    Callable square = params -> (Integer) params[0] * (Integer) params[0];
+    Callable plus = params -> BinaryOps.ADD.apply(params[0], params[1]);
+    Callable positive = params -> (Integer) params[0] > 0;
+
+    assertArrayEquals(Arrays.stream(xs).map(x -> x * x).toArray(), (int[]) ParallelLib.pmap(xs, square));
+    assertArrayEquals(Arrays.stream(xs).filter(x -> x > 0).toArray(), (int[]) ParallelLib.pfilter(xs, positive));
+    assertEquals(Arrays.stream(xs).sum(), ParallelLib.preduce(xs, plus, 0));
+    assertEquals(499500, ParallelLib.preduce(0, 1000, plus, 0));
+    assertArrayEquals(new int[]{1, 2, 3}, (int[]) ParallelLib.pfilter(-3, 4, positive));
+    assertArrayEquals(new double[]{2.25}, (double[]) ParallelLib.pmap(new double[]{1.5}, params -> 2.25), 0);
+    assertArrayEquals(new int[0], (int[]) ParallelLib.pmap(5, 0, square));
+    assertThrows(VmyRuntimeException.class, () -> ParallelLib.pfilter(xs, square));
+  }
+
+  @Test
+  public void functions_of_script(){
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    OutputSink sink = new BufferedOutputSink(output);
+    VmyContext context = new VmyContext(false, sink);
+    context.eval(
+        """
+        fn parallel_square(x) {
+          let y = x * x
+          return y
+        }
+        fn parallel_plus(a, b) {
+          return a + b
+        }
+        fn parallel_show(x) {
+          print("line ", x, " end")
+        }
+        let parallel_xs = pmap(0, 100, parallel_square)
+        let parallel_sum = preduce(parallel_xs, parallel_plus, 0)
+        let parallel_f = parallel_plus
+        let parallel_n = preduce(0, 100, parallel_f, 0)
+        let parallel_abs = pmap(array_of(-1, 2), abs)
+        pforeach(0, 50, parallel_show)
+        """
+    );
+    sink.flush();
+    assertEquals(328350, context.get("parallel_sum"));
+    assertEquals(4950, context.get("parallel_n"));
+    assertEquals(9801, ((int[]) context.get("parallel_xs"))[99]);
+    assertArrayEquals(new int[]{1, 2}, (int[]) context.get("parallel_abs"));
+    // lines are whole, in any order
+    String[] lines = output.toString().split("\n");
+    assertEquals(50, lines.length);
+    for(String line : lines) assertEquals(line, true, line.matches("line \\d+ end"));
+    assertThrows(TypeCheckException.class, () -> context.eval("pmap(0, 10, parallel_undeclared)"));
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class ProfileTest {
+
+  @Test
+  public void profile_nodes_loops_and_calls(){
+    Profile profile = new Profile();
+    VmyContext context = new VmyContext().profile(profile);
+    context.eval(
+        """
+        fn profile_test_square(n) {
+          return n * n
+        }
+        let profile_test_sum = 0
+        for i in 0..50 {
+          profile_test_sum = profile_test_sum + profile_test_square(i)
+        }
+        """
+    );
+
+    String report = profile.report();
+    assertTrue(report, report.matches("(?s).*\\s1\\s+\\S+\\s+50\\s+#\\d+ for : for i.*"));
+    assertTrue(report, report.matches("(?s).*\\s50\\s+\\S+\\s+\\S+\\s+#\\d+ for : call profile_test_square/1.*"));
+    String collapsed = profile.collapsed();
+    assertTrue(collapsed, collapsed.lines().allMatch(line -> line.matches("main(;\\w+)* \\d+")));
+  }
+
+  @Test
+  public void stop_profiling(){
+    Profile profile = new Profile();
+    VmyContext context = new VmyContext().profile(profile);
+    context.eval("let profile_test_a = 1 + 2");
+    context.profile(null);
+    context.eval("let profile_test_b = 3 * 4");
+    assertTrue(profile.report().contains("op +"));
+    assertTrue(!profile.report().contains("op *"));
+  }
+
+}
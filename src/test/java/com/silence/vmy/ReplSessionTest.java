@@ -0,0 +1,48 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplSessionTest {
+
+  @Test
+  public void cached_and_continued_lines(){
+    ReplSession session = new ReplSession();
+    session.eval_line("let repl_test_i = 0");
+    for(int i=0; i<3; i++)
+      session.eval_line("repl_test_i = repl_test_i + 1");
+    assertEquals(3, session.context().get("repl_test_i"));
+    assertEquals(2, session.cached());
+
+    assertNull(session.eval_line("while(repl_test_i < 10) {"));
+    assertTrue(session.continued());
+    session.eval_line("  repl_test_i = repl_test_i + 1");
+    assertEquals(3, session.context().get("repl_test_i"));
+    session.eval_line("}");
+    assertFalse(session.continued());
+    assertEquals(10, session.context().get("repl_test_i"));
+  }
+
+  @Test
+  public void removed_variable_resolved_again(){
+    ReplSession session = new ReplSession();
+    session.eval("let repl_test_b = 1");
+    session.eval("let repl_test_c = 0");
+    session.eval("repl_test_c = repl_test_b");
+    assertEquals(1, session.context().get("repl_test_c"));
+
+    ((Global) session.context().frame()).remove("repl_test_b");
+    session.eval("let repl_test_b = 5");
+    session.eval("repl_test_c = repl_test_b");
+    assertEquals(5, session.context().get("repl_test_c"));
+
+    session.context().reset();
+    session.eval("let repl_test_b = 7");
+    assertEquals(7, session.context().get("repl_test_b"));
+  }
+
+}
@@ -1,6 +1,7 @@
 package com.silence.vmy;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -90,7 +91,7 @@ public class ScannerTest {
     for(int i=0; i<expects.length; i++){
       assertTrue("token " + expects[i].value, expects[i].tag == real[i].tag);
       if(real[i].tag != Token.NewLine)
-        assertEquals("token " + expects[i].value, expects[i].value , real[i].value);
+        assertEquals("token " + expects[i].value, expects[i].value , real[i].text());
     }
   }
 
@@ -396,4 +397,18 @@ public class ScannerTest {
     return tokens.toArray(new Token[0]);
   }
 
+  @Test
+  public void number_token_has_no_text() throws Exception {
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner("12 + 1.5", false)){
+      Token number = scanner.next();
+      assertNull(number.value);
+      assertEquals(12, number.number);
+      assertEquals("12", number.text());
+      scanner.next();
+      assertEquals("1.5", scanner.next().text());
+    }
+    RuntimeException e = assertThrows(RuntimeException.class, () -> new VmyContext().eval("fn number_token_f(1) {\n}"));
+    assertTrue(e.getMessage(), e.getMessage().contains("has invalid param 1"));
+  }
+
 }
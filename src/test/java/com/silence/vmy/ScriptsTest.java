@@ -0,0 +1,51 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class ScriptsTest {
+
+  // output of the scripts goes to the sink of current thread
+  private static String run_parallel(String[] files) {
+    ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    OutputSink previous = OutputSink.bind(new BufferedOutputSink(captured));
+    try{
+      Scripts.run(files, 3);
+    } finally {
+      OutputSink.bind(previous);
+    }
+    return captured.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void parallel_run_in_order() throws Exception {
+    Path dir = Files.createTempDirectory("vmy-parallel");
+    String[] files = new String[6];
+    for(int i=0; i<files.length; i++){
+      // the first scripts are the slowest, they end last
+      Path file = dir.resolve("script_" + i + ".vmy");
+      Files.writeString(file, "let n = 0\nwhile(n < " + (6 - i) * 200 + ") {\n  n = n + 1\n}\nprint(\"script \", " + i + ")\n");
+      files[i] = file.toString();
+    }
+    assertEquals(
+        "script 0\nscript 1\nscript 2\nscript 3\nscript 4\nscript 5\n",
+        run_parallel(files)
+    );
+  }
+
+  @Test
+  public void parallel_run_failed() throws Exception {
+    Path dir = Files.createTempDirectory("vmy-parallel");
+    Path good = Files.writeString(dir.resolve("good.vmy"), "print(\"good\")\n");
+    Path bad = Files.writeString(dir.resolve("bad.vmy"), "let a : Int = \"bad\"\n");
+    assertThrows(VmyRuntimeException.class, () -> run_parallel(new String[]{bad.toString(), good.toString()}));
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SnapshotTest {
+
+  @Test
+  public void restore_context() throws Exception {
+    VmyContext prelude = new VmyContext();
+    prelude.eval(
+        """
+        val greeting = "hello, "
+        let count = 0
+        fn greet(name) {
+          return greeting ++ name
+        }
+        fn square_sum(n) {
+          let sum = 0
+          for i in 0..n {
+            sum = sum + i * i
+          }
+          return sum
+        }
+        """
+    );
+    Path file = Files.createTempFile("vmy", ".snapshot");
+    try{
+      prelude.snapshot(file);
+      VmyContext restored = VmyContext.restore(file);
+      restored.eval("let message = greet(\"vmy\")\ncount = square_sum(4)");
+      assertEquals("hello, vmy", restored.get("message"));
+      assertEquals(14, restored.get("count"));
+
+      restored.reset();
+      assertNull(restored.get("message"));
+      assertEquals(0, restored.get("count"));
+      assertEquals(
+          "hello, again",
+          restored.frame().functions().get("greet", 1).target().call("again")
+      );
+    }finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void restore_compiled_script(){
+    CompiledScript script = CompiledScript.compile("let doubled = abs(n) * 2", "n");
+    CompiledScript restored = CompiledScript.restore(script.snapshot());
+    for(int i=0; i<3; i++)
+      assertEquals(6, restored.run(Map.of("n", -3)).get("doubled"));
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamFilterTest {
+
+  private static String filter(String script, String begin, byte separator, String input) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    OutputSink sink = new BufferedOutputSink(output);
+    VmyContext context = new VmyContext(false, sink);
+    StreamFilter filter = new StreamFilter(context, script, begin, separator);
+    OutputSink previous = OutputSink.bind(sink);
+    try {
+      filter.read(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))));
+    } finally {
+      OutputSink.bind(previous);
+    }
+    sink.flush();
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void lines_and_fields() throws IOException {
+    assertEquals(
+        "1 a-b\n2 c\n3 \n4 ü-é\n",
+        filter("print(nr, \" \", line)", null, (byte) 0, "a-b\nc\r\n\nü-é")
+    );
+    assertEquals(
+        "2 /a\n0\n3 500\n",
+        filter(
+            """
+            if(len(fields) > 0) {
+              print(len(fields), " ", fields[len(fields) - 1])
+            }else {
+              print(len(fields))
+            }
+            """,
+            null, (byte) 0, "  GET\t/a \n\nPOST /b 500"
+        )
+    );
+    assertEquals(
+        "x;;z|true\n",
+        filter(
+            """
+            if(fields[1] == "") {
+              print(fields[0], ";", fields[1], ";", fields[2], "|", (upper(fields[3]) == "Y"))
+            }
+            """,
+            null, (byte) ',', "x,,z,y\na,b,c,d"
+        )
+    );
+  }
+
+  @Test
+  public void string_functions_of_fields() throws IOException {
+    assertEquals(
+        "3 ABC abc Bc 2 -1\n2 ÜÉ üé É 1 -1\n",
+        filter(
+            """
+            let f = fields[0]
+            print(len(f), " ", upper(f), " ", lower(f), " ", substring(f, 1, len(f)), " ", index_of(f, substring(f, len(f) - 1, len(f))), " ", index_of(f, "x"))
+            """,
+            null, (byte) ',', "aBc,x\nüÉ,y\n"
+        )
+    );
+  }
+
+  @Test
+  public void state_of_begin() throws IOException {
+    String script =
+        """
+        let n = to_int(fields[1])
+        if(fields[0] == "add") {
+          total = total + n
+        }
+        """;
+    VmyContext context = new VmyContext();
+    StreamFilter filter = new StreamFilter(context, script, "let total = 0", (byte) ' ');
+    filter.read(Channels.newChannel(new ByteArrayInputStream("add 1\nsub 7\nadd 3000000000\nadd -2\n".getBytes())));
+    assertEquals(4, filter.records());
+    assertEquals(2999999999L, context.get("total"));
+  }
+
+  @Test
+  public void long_line() throws IOException {
+    String line = "v".repeat(StreamFilter.BufferSize * 2 + 3);
+    assertEquals(line.length() + "\n1\n", filter("print(len(line))", null, (byte) 0, line + "\nw\n"));
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SymbolsTest {
+
+  @Test
+  public void intern(){
+    int id = Symbols.intern("symbols_test_name");
+    assertEquals(id, Symbols.intern(new StringBuilder("symbols_test_").append("name")));
+    assertSame(Symbols.name(id), Symbols.name(Symbols.intern(new String("symbols_test_name"))));
+    assertNotEquals(id, Symbols.intern("symbols_test_other"));
+    assertEquals(0, Symbols.literal("x".repeat(Symbols.MaxLiteral + 1)));
+
+    // the table grows
+    int[] ids = new int[5000];
+    for(int i = 0; i < ids.length; i++)
+      ids[i] = Symbols.intern("symbols_test_" + i);
+    for(int i = 0; i < ids.length; i++){
+      assertEquals(ids[i], Symbols.intern("symbols_test_" + i));
+      assertEquals("symbols_test_" + i, Symbols.name(ids[i]));
+    }
+  }
+
+  @Test
+  public void shared_by_tree_and_frame() throws Exception {
+    VmyContext context = new VmyContext();
+    context.eval(
+        """
+        let symbols_test_a = "same"
+        let symbols_test_b = "same"
+        """
+    );
+    // identical literals are one String
+    assertSame(context.get("symbols_test_a"), context.get("symbols_test_b"));
+    try(Scripts.FileInputScanner scanner = new Scripts.FileInputScanner("\"same\" ++ \"same\"", false)){
+      // the tokens with the quotes too
+      Token first = scanner.next();
+      scanner.next();
+      assertSame(first.value, scanner.next().value);
+    }
+
+    Global global = new Global(BuiltinOps.builtinOps());
+    Runtime.Variable variable = Runtime.declare_variable(global, "symbols_test_c", VmyTypes.BuiltinType.Int);
+    variable.setValue(7);
+    assertEquals("symbols_test_c", global.named(Symbols.intern("symbols_test_c")).name());
+    assertEquals(7, global.named(Symbols.intern("symbols_test_c")).getValue());
+    global.remove("symbols_test_c");
+    assertNull(global.named(Symbols.intern("symbols_test_c")));
+    // the index of the frame grows with its variables
+    for(int i = 0; i < 100; i++)
+      Runtime.declare_variable(global, "symbols_test_c" + i, VmyTypes.BuiltinType.Int);
+    for(int i = 0; i < 100; i++)
+      assertEquals("symbols_test_c" + i, global.named(Symbols.intern("symbols_test_c" + i)).name());
+  }
+
+  @Test
+  public void concurrent_lookup() throws Exception {
+    final int[] ids = new int[200];
+    for(int i = 0; i < ids.length; i++)
+      ids[i] = Symbols.intern("symbols_test_d" + i);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for(int round = 0; round < 50; round++){
+        // the index is built lazily by the first lookups, which run at the same time
+        Global global = new Global(BuiltinOps.builtinOps());
+        for(int i = 0; i < ids.length; i++)
+          Runtime.declare_variable(global, "symbols_test_d" + i, VmyTypes.BuiltinType.Int);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> misses = new ArrayList<>();
+        for(int t = 0; t < 4; t++)
+          misses.add(executor.submit(() -> {
+            start.await();
+            int missed = 0;
+            for(int id : ids)
+              if(global.named(id) == null) missed++;
+            return missed;
+          }));
+        start.countDown();
+        for(Future<Integer> missed : misses)
+          assertEquals(0, (int) missed.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,136 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TypeCheckerTest {
+
+  private static Object check(String script){
+    return Scripts.run_with_file_input_scanner(
+        script,
+        false,
+        scanner -> AST.check(AST.build(scanner), Global.getInstance())
+    );
+  }
+
+  private static List<String> errors(String script){
+    RuntimeException e = assertThrows(RuntimeException.class, () -> check(script));
+    assertTrue(e.getCause() instanceof TypeCheckException);
+    return ((TypeCheckException) e.getCause()).errors();
+  }
+
+  @Test
+  public void all_errors_reported(){
+    List<String> errors = errors(
+        """
+        let type_check_a : Int = "a"
+        val type_check_b = 1
+        type_check_b = 2
+        type_check_c = 1
+        if(1 + 2) {
+          print(type_check_b)
+        }
+        type_check_undeclared(1)
+        """
+    );
+    assertEquals(errors.toString(), 5, errors.size());
+  }
+
+  @Test
+  public void infer_types(){
+    List<String> errors = errors(
+        """
+        let type_check_d = 1 + 2
+        let type_check_e = 1 + 2.0
+        type_check_d = type_check_e
+        type_check_e = "e" ++ type_check_d
+        abs("abs")
+        """
+    );
+    assertEquals(errors.toString(), 3, errors.size());
+  }
+
+  @Test
+  public void check_function(){
+    List<String> errors = errors(
+        """
+        fn type_check_f(a : Int, b) {
+          val c = a + 1
+          c = b
+          return c * b
+        }
+        type_check_f("f", 1)
+        """
+    );
+    assertEquals(errors.toString(), 2, errors.size());
+  }
+
+  @Test
+  public void valid_script(){
+    check(
+        """
+        fn type_check_g(n : Int, acc) {
+          let i = 0
+          while(i < n) {
+            i = i + 1
+          }
+          return acc
+        }
+        let type_check_h : Double = 1.5 * 2
+        print(type_check_g(3, type_check_h), sqrt(type_check_h))
+        """
+    );
+  }
+
+  @Test
+  public void check_again_for_another_frame(){
+    AST.VmyAST ast = AST.build(Scanners.scanner("type_check_x = type_check_y"));
+    // both are Int in this frame, the assignment is proved
+    CheckedFrame typed = new CheckedFrame();
+    Runtime.declare_variable(typed, "type_check_x", VmyTypes.BuiltinType.Int);
+    Runtime.declare_variable(typed, "type_check_y", VmyTypes.BuiltinType.Int);
+    AST.check(ast, typed);
+
+    // the value isn't known by the checker here, the assignment is checked when evaluating
+    Global global = Global.getInstance();
+    Runtime.declare_variable(global, "type_check_x", VmyTypes.BuiltinType.Int).setValue(1);
+    Runtime.declare_variable(global, "type_check_y", VmyTypes.BuiltinType.Any).setValue("s");
+    AST.check(ast, global);
+    AST.variableStoreTreeEvaluator().eval(ast);
+    assertEquals(1, global.local("type_check_x").getValue());
+  }
+
+  // a frame only read by the checker
+  private static class CheckedFrame implements Frame {
+    private final Map<String, Runtime.Variable> variables = new HashMap<>();
+    private final FunctionSupport.FunctionTable functions = new FunctionSupport.FunctionTable();
+
+    @Override
+    public Runtime.Variable local(String _name) {
+      return variables.get(_name);
+    }
+
+    @Override
+    public void put(String name, Runtime.Variable head, Object value) {
+      variables.putIfAbsent(name, head);
+    }
+
+    @Override
+    public Object get_obj(Long identity) {
+      return null;
+    }
+
+    @Override
+    public FunctionSupport.FunctionTable functions() {
+      return functions;
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class VmyContextTest {
+
+  @Test
+  public void isolated_variables(){
+    VmyContext a = new VmyContext();
+    VmyContext b = new VmyContext();
+    a.eval("let x = 1");
+    b.eval("let x = \"b\"");
+    assertEquals(1, a.get("x"));
+    assertEquals("b", b.get("x"));
+    assertNull(Global.getInstance().local("x"));
+
+    a.reset();
+    assertNull(a.get("x"));
+    a.eval("let x = 2");
+    assertEquals(2, a.get("x"));
+  }
+
+  @Test
+  public void own_builtins_and_output(){
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    VmyContext own = new VmyContext(true, new BufferedOutputSink(out));
+    own.builtins().register(
+        "context_test_twice",
+        FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int),
+        params -> 2 * (int) params[0]
+    );
+    own.eval("print(context_test_twice(21))");
+    assertEquals("42\n", out.toString(StandardCharsets.UTF_8));
+    assertThrows(TypeCheckException.class, () -> new VmyContext().eval("context_test_twice(1)"));
+  }
+
+  @Test
+  public void concurrent_pool() throws Exception {
+    VmyContextPool pool = new VmyContextPool(4);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try{
+      List<Future<Object>> results = new ArrayList<>();
+      for(int i=0; i<64; i++){
+        final int n = i;
+        results.add(executor.submit(() -> pool.with(context -> {
+          context.eval(
+              """
+              let total = 0
+              for i in 0..%d {
+                total = total + i
+              }
+              """.formatted(n)
+          );
+          return context.get("total");
+        })));
+      }
+      for(int i=0; i<results.size(); i++)
+        assertEquals(i * (i - 1) / 2, results.get(i).get());
+      assertEquals(4, pool.idle());
+    }finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void concurrent_pool_prints() throws Exception {
+    // like the stdout sink, one sink is shared by all contexts
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputSink shared = new OutputSink.Shared(new BufferedOutputSink(out));
+    VmyContextPool pool = new VmyContextPool(8, () -> new VmyContext(false, shared));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try{
+      List<Future<Object>> results = new ArrayList<>();
+      for(int i=0; i<64; i++){
+        final int n = i;
+        results.add(executor.submit(() -> pool.eval(
+            """
+            for i in 0..500 {
+              print("script ", %d, " line ", i, " of ", 500)
+            }
+            """.formatted(n)
+        )));
+      }
+      for(Future<Object> result : results) result.get();
+    }finally {
+      executor.shutdown();
+    }
+    shared.flush();
+    Set<String> expected = new HashSet<>();
+    for(int n=0; n<64; n++)
+      for(int i=0; i<500; i++)
+        expected.add("script " + n + " line " + i + " of 500");
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(64 * 500, lines.length);
+    assertEquals(expected, new HashSet<>(Arrays.asList(lines)));
+  }
+
+}
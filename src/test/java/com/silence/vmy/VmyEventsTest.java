@@ -0,0 +1,60 @@
+package com.silence.vmy;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VmyEventsTest {
+
+  @Test
+  public void phases_recorded() throws Exception {
+    VmyContext context = new VmyContext(true, null);
+    context.builtins().register(
+        "events_test_sleep",
+        FunctionSupport.functionType(FunctionSupport.Builtin, VmyTypes.BuiltinType.Int),
+        params -> {
+          try {
+            Thread.sleep((Integer) params[0]);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          return null;
+        }
+    );
+
+    Path file = Files.createTempFile("vmy-events", ".jfr");
+    try(Recording recording = new Recording()){
+      for(String name : List.of("Lex", "Parse", "Check", "Eval"))
+        recording.enable("com.silence.vmy." + name).withoutThreshold();
+      recording.enable("com.silence.vmy.SlowBuiltinCall").withThreshold(java.time.Duration.ofMillis(10));
+      recording.start();
+      context.eval("events_test_sleep(0)\nevents_test_sleep(30)\nlet events_test_a = 1 + 2");
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      Set<String> names = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+      assertTrue(names.toString(), names.containsAll(Set.of(
+          "com.silence.vmy.Lex", "com.silence.vmy.Parse", "com.silence.vmy.Check", "com.silence.vmy.Eval"
+      )));
+      List<RecordedEvent> slow = events.stream()
+        .filter(event -> event.getEventType().getName().equals("com.silence.vmy.SlowBuiltinCall"))
+        .toList();
+      assertEquals(1, slow.size());
+      assertEquals("events_test_sleep", slow.get(0).getString("function"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VmyMetricsTest {
+
+  @Test
+  public void counters(){
+    VmyMetrics metrics = VmyMetrics.metrics();
+    metrics.reset();
+    VmyMetrics.binary_op("+");
+    VmyMetrics.binary_op("+");
+    VmyMetrics.builtin_call("print");
+    VmyMetrics.lexed(3, 1000);
+    VmyMetrics.parsed(5, 2000);
+
+    assertEquals(Long.valueOf(2), metrics.getBinaryOps().get("+"));
+    assertEquals(Long.valueOf(1), metrics.getBuiltinCalls().get("print"));
+    assertEquals(3, metrics.getTokensLexed());
+    assertEquals(5, metrics.getNodesParsed());
+    assertTrue(metrics.dump().contains("builtin calls   : {print=1}"));
+
+    metrics.reset();
+    assertTrue(metrics.getBinaryOps().isEmpty());
+    assertEquals(0, metrics.getParseNanos());
+  }
+
+  @Test
+  public void off_by_default(){
+    assertFalse(VmyMetrics.Enabled);
+    VmyMetrics.metrics().reset();
+    new VmyContext().eval("let metrics_test_a = 1 + 2");
+    assertEquals(0, VmyMetrics.metrics().getNodesEvaluated());
+  }
+
+}
@@ -0,0 +1,108 @@
+package com.silence.vmy;
+
+import org.junit.Test;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+
+public class VmyScriptEngineTest {
+
+  private static ScriptEngine engine(){
+    ScriptEngine engine = new ScriptEngineManager().getEngineByName("vmy");
+    assertNotNull(engine);
+    return engine;
+  }
+
+  @Test
+  public void eval_with_bindings() throws ScriptException {
+    ScriptEngine engine = engine();
+    engine.put("input", 20);
+    StringWriter out = new StringWriter();
+    engine.getContext().setWriter(out);
+    engine.eval("let output = input * 2\nprint(\"output is \", output)");
+    assertEquals(40, engine.get("output"));
+    assertEquals("output is 40\n", out.toString());
+
+    engine.put("input", "changed");
+    assertEquals("changed", engine.get("input"));
+    assertThrows(ScriptException.class, () -> engine.eval("let output = 1"));
+  }
+
+  @Test
+  public void compile_and_invoke() throws Exception {
+    ScriptEngine engine = engine();
+    CompiledScript script = ((Compilable) engine).compile("let area = width * height");
+
+    Bindings first = engine.createBindings();
+    first.put("width", 2);
+    first.put("height", 3);
+    script.eval(first);
+    assertEquals(6, first.get("area"));
+
+    Bindings second = new SimpleBindings();
+    second.put("width", 1.5);
+    second.put("height", 2.0);
+    script.eval(second);
+    assertEquals(3.0, second.get("area"));
+
+    engine.eval("fn engine_test_add(a, b) {\n  return a + b\n}");
+    Invocable invocable = (Invocable) engine;
+    assertEquals(5, invocable.invokeFunction("engine_test_add", 2, 3));
+    assertEquals(3, invocable.invokeFunction("abs", -3));
+    assertThrows(NoSuchMethodException.class, () -> invocable.invokeFunction("engine_test_none"));
+  }
+
+  @Test
+  public void bindings_are_live() throws ScriptException {
+    ScriptEngine engine = engine();
+    engine.eval("let a = 1\nlet b = 2\nlet c = 3");
+    Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+    assertEquals(3, bindings.size());
+
+    bindings.keySet().remove("a");
+    assertFalse(bindings.containsKey("a"));
+    Iterator<Map.Entry<String, Object>> entries = bindings.entrySet().iterator();
+    entries.next().setValue(10);
+    entries.remove();
+    assertEquals(1, bindings.size());
+
+    bindings.clear();
+    assertTrue(bindings.isEmpty());
+    // the variables are gone, so they can be declared again
+    engine.eval("let a = 4");
+    assertEquals(4, engine.get("a"));
+  }
+
+  @Test
+  public void global_scope() throws Exception {
+    ScriptEngineManager manager = new ScriptEngineManager();
+    manager.put("engine_test_global", 5);
+    ScriptEngine engine = manager.getEngineByName("vmy");
+    engine.eval("let engine_test_twice = engine_test_global * 2\nengine_test_global = 6");
+    assertEquals(10, engine.get("engine_test_twice"));
+    assertEquals(6, manager.get("engine_test_global"));
+    // it's not copied to engine scope
+    assertFalse(engine.getBindings(ScriptContext.ENGINE_SCOPE).containsKey("engine_test_global"));
+
+    CompiledScript script = ((Compilable) engine).compile("let engine_test_thrice = engine_test_global * 3");
+    script.eval();
+    assertEquals(18, engine.get("engine_test_thrice"));
+  }
+
+}